@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark;
+
+import java.util.Collection;
+
+import org.colebarnes.benchmark.crypto.HasherBenchmark;
+import org.colebarnes.crypto.Hasher;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line. Unless -rf / -rff are
+ * given the results are written as JSON to jmh-result.json so runs can be
+ * diffed between releases. The GC profiler is on unless other profilers are
+ * asked for, so allocation rates land in the same file.
+ */
+public class App {
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	public static Collection<RunResult> run(String... args) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+
+		if (!cmdOptions.getResult().hasValue()) {
+			builder.result(App.DEFAULT_RESULT_FILE);
+		}
+
+		if (cmdOptions.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+
+		if (!cmdOptions.getParameter(HasherBenchmark.PARAM_ALGORITHM).hasValue()) {
+			builder.param(HasherBenchmark.PARAM_ALGORITHM, Hasher.getSupportedAlgorithms().toArray(new String[0]));
+		}
+
+		return new Runner(builder.build()).run();
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		App.run(args);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Primitive and varint encoding; everything but the ByteBuffer baseline and
+ * fromLong should show no allocation under -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteCodecBenchmark {
+	private final byte[] bytes = new byte[16];
+	private long number;
+	private long varint;
+
+	@Setup
+	public void setup() {
+		this.number = ByteUtils.toLong(ByteUtils.random(Long.BYTES));
+		// a typical header length, two bytes as a varint
+		this.varint = 4096;
+		ByteUtils.putLong(this.bytes, 0, this.number);
+	}
+
+	// what fromLong/toLong did before
+	@Benchmark
+	public long byteBufferRoundTrip() {
+		return ByteBuffer.wrap(ByteBuffer.allocate(8).putLong(this.number).array()).getLong();
+	}
+
+	@Benchmark
+	public byte[] fromLong() {
+		return ByteUtils.fromLong(this.number);
+	}
+
+	@Benchmark
+	public long putGetLong() {
+		ByteUtils.putLong(this.bytes, 4, this.number, ByteOrder.LITTLE_ENDIAN);
+		return ByteUtils.getLong(this.bytes, 4, ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Benchmark
+	public long putGetVarLong() {
+		ByteUtils.putVarLong(this.bytes, 0, this.varint);
+		return ByteUtils.getVarLong(this.bytes, 0);
+	}
+}
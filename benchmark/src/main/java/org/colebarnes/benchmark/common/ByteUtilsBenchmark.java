@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteUtilsBenchmark {
+	@Param({ "16", "256", "4096" })
+	private int length;
+
+	private byte[] bytes;
+	private long number;
+	private String hex;
+	private char[] hexChars;
+	private byte[] base64Bytes;
+	private ByteBuffer source;
+	private ByteBuffer target;
+
+	@Setup
+	public void setup() {
+		this.bytes = ByteUtils.random(this.length);
+		this.number = ByteUtils.toLong(ByteUtils.random(Long.BYTES));
+		this.hex = ByteUtils.toHex(this.bytes);
+		this.hexChars = new char[this.length * 2];
+		this.base64Bytes = new byte[ByteUtils.base64EncodedLength(this.length)];
+		this.source = ByteBuffer.allocateDirect(this.length);
+		this.source.put(this.bytes).flip();
+		this.target = ByteBuffer.allocateDirect(ByteUtils.base64EncodedLength(this.length));
+	}
+
+	// what toHex did before it went table driven, kept as the baseline
+	@Benchmark
+	public String toHexFormat() {
+		StringBuilder sb = new StringBuilder();
+
+		for (byte b : this.bytes) {
+			sb.append(String.format("%02X", b));
+		}
+
+		return sb.toString();
+	}
+
+	@Benchmark
+	public String toHexJdk() {
+		return HexFormat.of().withUpperCase().formatHex(this.bytes);
+	}
+
+	@Benchmark
+	public String toHex() {
+		return ByteUtils.toHex(this.bytes);
+	}
+
+	@Benchmark
+	public char[] toHexChars() {
+		ByteUtils.toHex(this.bytes, 0, this.bytes.length, this.hexChars, 0);
+		return this.hexChars;
+	}
+
+	@Benchmark
+	public byte[] fromHex() {
+		return ByteUtils.fromHex(this.hex);
+	}
+
+	@Benchmark
+	public String base64Encode() {
+		return ByteUtils.base64Encode(this.bytes);
+	}
+
+	@Benchmark
+	public byte[] base64EncodeBytes() {
+		ByteUtils.base64Encode(this.bytes, this.base64Bytes);
+		return this.base64Bytes;
+	}
+
+	@Benchmark
+	public ByteBuffer base64EncodeBuffer() {
+		this.source.rewind();
+		this.target.clear();
+		ByteUtils.base64Encode(this.source, this.target);
+		return this.target;
+	}
+
+	@Benchmark
+	public byte[] fromLong() {
+		return ByteUtils.fromLong(this.number);
+	}
+}
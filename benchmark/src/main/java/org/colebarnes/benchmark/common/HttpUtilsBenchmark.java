@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.HttpUtils;
+import org.colebarnes.common.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Form encoding of a map with a mix of plain and reserved characters, against
+ * the URLEncoder/regex versions HttpUtils used to have.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpUtilsBenchmark {
+	@Param({ "4", "64" })
+	private int entries;
+
+	private Map<String, String> data;
+	private String encoded;
+	private ByteBuffer encodedBytes;
+	private StringBuilder sb;
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		this.data = new LinkedHashMap<>();
+
+		for (int i = 0; i < this.entries; i++) {
+			this.data.put("key_" + i, (i % 2 == 0) ? "My dog has fleas." : "&=/:@#$%!&@(#)*! " + ByteUtils.toHex(ByteUtils.fromInt(i)));
+		}
+
+		this.encoded = HttpUtils.urlEncode(this.data);
+		this.encodedBytes = ByteBuffer.wrap(StringUtils.toBytes(this.encoded));
+		this.sb = new StringBuilder();
+		this.buffer = ByteBuffer.allocateDirect(this.encoded.length());
+	}
+
+	@Benchmark
+	public String urlEncodeLegacy() {
+		StringBuilder sb = new StringBuilder();
+
+		for (Entry<String, String> entry : this.data.entrySet()) {
+			if (sb.length() > 0) {
+				sb.append("&");
+			}
+
+			sb.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8));
+			sb.append("=");
+			sb.append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+		}
+
+		return sb.toString();
+	}
+
+	@Benchmark
+	public String urlEncode() {
+		return HttpUtils.urlEncode(this.data);
+	}
+
+	@Benchmark
+	public StringBuilder urlEncodeAppendable() throws IOException {
+		this.sb.setLength(0);
+		HttpUtils.urlEncode(this.data, this.sb);
+		return this.sb;
+	}
+
+	@Benchmark
+	public int urlEncodeBuffer() {
+		this.buffer.clear();
+		return HttpUtils.urlEncode(this.data, this.buffer);
+	}
+
+	@Benchmark
+	public Map<String, String> urlDecodeLegacy() {
+		Map<String, String> data = new HashMap<>();
+
+		for (String pair : this.encoded.split(Pattern.quote("&"), 0)) {
+			String[] keyValue = pair.split(Pattern.quote("="), 2);
+			data.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8), keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+		}
+
+		return data;
+	}
+
+	@Benchmark
+	public Map<String, String> urlDecode() {
+		return HttpUtils.urlDecode(this.encoded);
+	}
+
+	@Benchmark
+	public Map<String, String> urlDecodeBuffer() {
+		return HttpUtils.urlDecode(this.encodedBytes.rewind());
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.DateUtils;
+import org.colebarnes.common.logger.Appender;
+import org.colebarnes.common.logger.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reusable formatter with the old StringBuffer / String.format
+ * path. The formatter is reached through Logger.info with caller info off
+ * and an appender that discards the bytes, so its gc.alloc.rate.norm also
+ * covers the event handed to the appenders; it should stay a small fraction
+ * of the legacy path's.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogFormatterBenchmark {
+	private static final class NullAppender implements Appender {
+		@Override
+		public void append(byte[] bytes, int offset, int length) {
+			// discard
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+	}
+
+	private final Appender appender = new NullAppender();
+	private final Object[] args = { Long.valueOf(4096), "out.bin", Integer.valueOf(12) };
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Logger.removePrintStream(System.out);
+		Logger.addAppender(this.appender);
+		Logger.setLogLevel(Logger.INFO);
+		Logger.setIncludeCallerInfo(false);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Logger.removeAppender(this.appender);
+		Logger.addPrintStream(System.out);
+		Logger.setIncludeCallerInfo(true);
+	}
+
+	@Benchmark
+	public void reusableFormatter() {
+		Logger.info("copied {} bytes to {} in {} ms", this.args);
+	}
+
+	@Benchmark
+	public String legacyFormat() {
+		StringBuffer msgBuffer = new StringBuffer();
+
+		msgBuffer.append('[').append(Thread.currentThread().threadId()).append(']');
+		msgBuffer.append('[').append(new SimpleDateFormat(DateUtils.ISO_8601).format(new Date())).append(']');
+		msgBuffer.append('[').append("INF").append(']');
+		msgBuffer.append(':').append(String.format("copied %s bytes to %s in %s ms", this.args));
+
+		return msgBuffer.toString();
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.logger.Appender;
+import org.colebarnes.common.logger.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a log call when the level is enabled (formatted and handed to an
+ * appender that discards it) and when it is filtered out. Caller info is a
+ * parameter since the stack walk dominates the enabled path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+	private static final class NullAppender implements Appender {
+		@Override
+		public void append(byte[] bytes, int offset, int length) {
+			// discard
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+	}
+
+	@Param({ "false", "true" })
+	private boolean enabled;
+
+	@Param({ "false", "true" })
+	private boolean callerInfo;
+
+	private final Appender appender = new NullAppender();
+	private final Long bytes = Long.valueOf(4096);
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Logger.removePrintStream(System.out);
+		Logger.addAppender(this.appender);
+		Logger.setLogLevel(this.enabled ? Logger.INFO : Logger.WARN);
+		Logger.setIncludeCallerInfo(this.callerInfo);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Logger.removeAppender(this.appender);
+		Logger.addPrintStream(System.out);
+		Logger.setIncludeCallerInfo(true);
+	}
+
+	@Benchmark
+	public void info() {
+		Logger.info("copied {} bytes to {}", this.bytes, "out.bin");
+	}
+
+	@Benchmark
+	public void infoNoArgs() {
+		Logger.info("copy complete");
+	}
+}
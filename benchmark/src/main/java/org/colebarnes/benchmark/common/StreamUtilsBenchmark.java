@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.StreamUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StreamUtils.copy from memory into a discarding stream, so the numbers are
+ * the copy loop and the buffer size rather than the sink. pipelinedCopy only
+ * pays off with slow ends; here it shows the hand-off overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamUtilsBenchmark {
+	// 1024 is StreamUtils.DEFAULT_BUFFER_LEN
+	@Param({ "1024", "8192", "65536" })
+	private int bufferLen;
+
+	@Param({ "1048576" })
+	private int payloadLen;
+
+	private byte[] payload;
+
+	@Setup
+	public void setup() {
+		this.payload = ByteUtils.random(this.payloadLen);
+	}
+
+	@Benchmark
+	public long copy() throws IOException {
+		try (InputStream in = new ByteArrayInputStream(this.payload)) {
+			return StreamUtils.copy(in, OutputStream.nullOutputStream(), this.bufferLen);
+		}
+	}
+
+	@Benchmark
+	public long pipelinedCopy() throws IOException {
+		try (InputStream in = new ByteArrayInputStream(this.payload)) {
+			return StreamUtils.pipelinedCopy(in, OutputStream.nullOutputStream(), this.bufferLen, StreamUtils.DEFAULT_PIPELINE_BUFFERS);
+		}
+	}
+}
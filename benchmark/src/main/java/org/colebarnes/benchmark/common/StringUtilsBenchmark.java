@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Header sized strings through the array and the buffer APIs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+	@Param({ "aes/gcm/nopadding", "schlüssel für café" })
+	private String str;
+
+	private byte[] bytes;
+	private ByteBuffer heap;
+	private ByteBuffer direct;
+
+	@Setup
+	public void setup() {
+		this.bytes = StringUtils.toBytes(this.str);
+		this.heap = ByteBuffer.allocate(256);
+		this.direct = ByteBuffer.allocateDirect(256);
+	}
+
+	@Benchmark
+	public byte[] toBytes() {
+		return StringUtils.toBytes(this.str);
+	}
+
+	@Benchmark
+	public int encodeHeap() {
+		this.heap.clear();
+		return StringUtils.encode(this.str, this.heap);
+	}
+
+	@Benchmark
+	public int encodeDirect() {
+		this.direct.clear();
+		return StringUtils.encode(this.str, this.direct);
+	}
+
+	@Benchmark
+	public String fromBytes() {
+		return StringUtils.fromBytes(this.bytes);
+	}
+
+	@Benchmark
+	public String decodeDirect() {
+		this.direct.clear();
+		this.direct.put(this.bytes).flip();
+		return StringUtils.decode(this.direct);
+	}
+}
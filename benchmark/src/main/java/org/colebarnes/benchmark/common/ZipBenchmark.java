@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.zip.ZipReader;
+import org.colebarnes.common.zip.ZipWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes a single entry, and reads it back through both the in-memory and the
+ * file backed readers. Random payloads so deflate does real work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipBenchmark {
+	private static final String ENTRY_NAME = "payload.bin";
+
+	@Param({ "4096", "1048576" })
+	private int payloadLen;
+
+	private byte[] payload;
+	private byte[] zipBytes;
+	private File zipFile;
+	private ZipReader fileReader;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.payload = ByteUtils.random(this.payloadLen);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			writer.write(ZipBenchmark.ENTRY_NAME, this.payload);
+		}
+		this.zipBytes = out.toByteArray();
+
+		this.zipFile = File.createTempFile("zip-benchmark", ".zip");
+		this.zipFile.deleteOnExit();
+		try (ZipWriter writer = ZipWriter.getInstance(this.zipFile)) {
+			writer.write(ZipBenchmark.ENTRY_NAME, this.payload);
+		}
+
+		this.fileReader = ZipReader.getInstance(this.zipFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.fileReader.close();
+		this.zipFile.delete();
+	}
+
+	@Benchmark
+	public long write() throws IOException {
+		try (ZipWriter writer = ZipWriter.getInstance(OutputStream.nullOutputStream())) {
+			return writer.write(ZipBenchmark.ENTRY_NAME, this.payload);
+		}
+	}
+
+	@Benchmark
+	public byte[] readBytesMemory() throws IOException {
+		try (ZipReader reader = ZipReader.getInstance(this.zipBytes)) {
+			return reader.readBytes(ZipBenchmark.ENTRY_NAME);
+		}
+	}
+
+	@Benchmark
+	public byte[] readBytesFile() throws IOException {
+		return this.fileReader.readBytes(ZipBenchmark.ENTRY_NAME);
+	}
+}
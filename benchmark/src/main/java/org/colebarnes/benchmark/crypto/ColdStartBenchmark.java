@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.crypto.Encrypter;
+import org.colebarnes.crypto.Hasher;
+import org.colebarnes.crypto.common.CryptoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * First call in a fresh JVM: provider registration, DRBG seeding and the
+ * FIPS self tests all land here. Each fork measures exactly one call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, batchSize = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+	private final byte[] payload = new byte[1024];
+	private final char[] password = "benchmark".toCharArray();
+
+	@Benchmark
+	public byte[] encryptAes() throws CryptoException {
+		return Encrypter.getAesInstance().encrypt(this.payload, this.password);
+	}
+
+	@Benchmark
+	public byte[] encryptSerpent() throws CryptoException {
+		return Encrypter.getSerpentInstance().encrypt(this.payload, this.password);
+	}
+
+	@Benchmark
+	public byte[] encryptTwofish() throws CryptoException {
+		return Encrypter.getTwofishInstance().encrypt(this.payload, this.password);
+	}
+
+	@Benchmark
+	public String hash() throws CryptoException {
+		return Hasher.sha256().hash(this.payload);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.crypto;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.crypto.Decrypter;
+import org.colebarnes.crypto.Encrypter;
+import org.colebarnes.crypto.common.CryptoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end Decrypter throughput for cipher text produced once per trial,
+ * for both the PBE and the PKI envelope. Each op includes getting the key:
+ * PBKDF2 for PBE, the RSA unwrap for PKI, which dominate at small payloads.
+ * Pbkdf2Benchmark has the key derivation on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecrypterBenchmark {
+	@Param({ "aes", "serpent", "twofish" })
+	private String cipher;
+
+	@Param({ "1024", "65536", "1048576" })
+	private int payloadLen;
+
+	private Recipient recipient;
+	private byte[] pbeCipherText;
+	private byte[] pkiCipherText;
+	private final char[] password = "benchmark".toCharArray();
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, GeneralSecurityException, CryptoException {
+		Encrypter encrypter = EncrypterBenchmark.getEncrypter(this.cipher);
+		byte[] payload = ByteUtils.random(this.payloadLen);
+
+		this.recipient = Recipient.getInstance();
+		this.pbeCipherText = encrypter.encrypt(payload, this.password);
+		this.pkiCipherText = encrypter.encrypt(payload, this.recipient.certificate);
+	}
+
+	@Benchmark
+	public byte[] decryptPbeEndToEnd(ByteCounter counter) throws IOException, CryptoException {
+		counter.bytes += this.payloadLen;
+
+		try (Decrypter decrypter = Decrypter.getInstance(this.pbeCipherText)) {
+			return decrypter.decryptToBytes(this.password);
+		}
+	}
+
+	@Benchmark
+	public byte[] decryptPkiEndToEnd(ByteCounter counter) throws IOException, CryptoException {
+		counter.bytes += this.payloadLen;
+
+		try (Decrypter decrypter = Decrypter.getInstance(this.pkiCipherText)) {
+			return decrypter.decryptToBytes(this.recipient.privateKey);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.crypto;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.crypto.Encrypter;
+import org.colebarnes.crypto.common.CryptoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encrypter throughput per cipher and payload size. The PBE numbers include
+ * the key derivation (10000 iterations), so small payloads measure PBKDF2
+ * rather than the cipher; the PKI path is a random key plus one RSA wrap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncrypterBenchmark {
+	@Param({ "aes", "serpent", "twofish" })
+	private String cipher;
+
+	@Param({ "1024", "65536", "1048576" })
+	private int payloadLen;
+
+	private Encrypter encrypter;
+	private Recipient recipient;
+	private byte[] payload;
+	private final char[] password = "benchmark".toCharArray();
+
+	static Encrypter getEncrypter(String cipher) {
+		switch (cipher) {
+			case "aes":
+				return Encrypter.getAesInstance();
+			case "serpent":
+				return Encrypter.getSerpentInstance();
+			case "twofish":
+				return Encrypter.getTwofishInstance();
+			default:
+				throw new IllegalArgumentException("Unknown cipher: " + cipher);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, GeneralSecurityException {
+		this.encrypter = EncrypterBenchmark.getEncrypter(this.cipher);
+		this.recipient = Recipient.getInstance();
+		this.payload = ByteUtils.random(this.payloadLen);
+	}
+
+	@Benchmark
+	public byte[] encryptPbe(ByteCounter counter) throws CryptoException {
+		counter.bytes += this.payloadLen;
+		return this.encrypter.encrypt(this.payload, this.password);
+	}
+
+	@Benchmark
+	public byte[] encryptPki(ByteCounter counter) throws CryptoException {
+		counter.bytes += this.payloadLen;
+		return this.encrypter.encrypt(this.payload, this.recipient.certificate);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.crypto.common.CryptoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Salt/IV sized random bytes from four threads at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RandomBenchmark {
+	@Param({ "12", "64" })
+	private int length;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		CryptoUtils.getBouncyCastleProvider();
+		this.bytes = new byte[this.length];
+	}
+
+	// what ByteUtils.random used to do
+	@Benchmark
+	public byte[] newSecureRandom() {
+		new SecureRandom().nextBytes(this.bytes);
+		return this.bytes;
+	}
+
+	@Benchmark
+	public byte[] byteUtils() {
+		ByteUtils.random(this.bytes);
+		return this.bytes;
+	}
+
+	// the shared prediction resistant DRBG CryptoUtils.random(byte[]) used to hit
+	@Benchmark
+	public byte[] registrar() {
+		CryptoServicesRegistrar.getSecureRandom().nextBytes(this.bytes);
+		return this.bytes;
+	}
+
+	@Benchmark
+	public byte[] cryptoUtils() {
+		CryptoUtils.random(this.bytes);
+		return this.bytes;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.benchmark.crypto;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+/**
+ * Throw away RSA key pair and self signed certificate for the PKI benchmarks.
+ * bc-fips has no certificate builder, so keytool from the running JDK makes
+ * one.
+ */
+final class Recipient {
+	private static final String ALIAS = "benchmark";
+	private static final char[] PASSWORD = "benchmark".toCharArray();
+
+	static Recipient getInstance() throws IOException, GeneralSecurityException {
+		File keyStoreFile = File.createTempFile("benchmark", ".p12");
+		keyStoreFile.delete();
+
+		try {
+			File keytool = new File(new File(System.getProperty("java.home"), "bin"), "keytool");
+			Process process = new ProcessBuilder(keytool.getAbsolutePath(), "-genkeypair", "-alias", Recipient.ALIAS, "-keyalg", "RSA", "-keysize", "2048",
+					"-dname", "CN=benchmark", "-validity", "1", "-storetype", "PKCS12", "-keystore", keyStoreFile.getAbsolutePath(), "-storepass",
+					new String(Recipient.PASSWORD)).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+
+			if (process.waitFor() != 0) {
+				throw new IOException("keytool exited with " + process.exitValue());
+			}
+
+			KeyStore keyStore = KeyStore.getInstance("PKCS12");
+			try (InputStream in = new FileInputStream(keyStoreFile)) {
+				keyStore.load(in, Recipient.PASSWORD);
+			}
+
+			return new Recipient((X509Certificate) keyStore.getCertificate(Recipient.ALIAS),
+					(PrivateKey) keyStore.getKey(Recipient.ALIAS, Recipient.PASSWORD));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted waiting for keytool.", e);
+		} finally {
+			keyStoreFile.delete();
+		}
+	}
+
+	final X509Certificate certificate;
+	final PrivateKey privateKey;
+
+	private Recipient(X509Certificate certificate, PrivateKey privateKey) {
+		this.certificate = certificate;
+		this.privateKey = privateKey;
+	}
+}
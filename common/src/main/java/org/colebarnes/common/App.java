@@ -24,12 +24,15 @@ package org.colebarnes.common;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 public class App {
+  private static final LogHandle LOGGER = Logger.getHandle(App.class);
+
   private static void testLog() {
     Logger.setLogLevel(Logger.TRACE);
-    Logger.entering();
+    App.LOGGER.entering();
 
     Map<String, String> data = new HashMap<>();
     data.put("data", "My dog has fleas.");
@@ -37,10 +40,10 @@ public class App {
     data.put("special_characters", "&=/:@#$%!&@(#)*!");
     String queryString = HttpUtils.urlEncode(data);
 
-    Logger.info("%s", queryString);
-    Logger.info("%s", HttpUtils.urlDecode(queryString).toString());
+    App.LOGGER.info("{}", queryString);
+    App.LOGGER.info("{}", HttpUtils.urlDecode(queryString).toString());
 
-    Logger.exiting();
+    App.LOGGER.exiting();
   }
 
   public static void main(String[] args) {
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Incremental Base64 decoder for data that arrives in pieces. Feed it with
+ * update() as chunks come in, splitting anywhere, then call finish() once the
+ * input is done. Quanta are never buffered beyond the three pending chars, so
+ * memory stays constant however long the input is.
+ * 
+ * Accepts the basic alphabet with or without padding, like Base64.getDecoder().
+ * Not thread safe.
+ */
+public final class Base64Decoder {
+	private static final int INVALID = -1;
+	private static final int PAD = -2;
+	private static final byte[] VALUES = new byte[256];
+
+	static {
+		Arrays.fill(Base64Decoder.VALUES, (byte) Base64Decoder.INVALID);
+
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+		for (int i = 0; i < alphabet.length(); i++) {
+			Base64Decoder.VALUES[alphabet.charAt(i)] = (byte) i;
+		}
+
+		Base64Decoder.VALUES['='] = (byte) Base64Decoder.PAD;
+	}
+
+	public static Base64Decoder getInstance() {
+		return new Base64Decoder();
+	}
+
+	// sextets of the current quantum, and how many there are
+	private int bits;
+	private int count;
+	// a lone '=' after two chars still needs its partner
+	private boolean padding;
+	// the final quantum has been closed by padding
+	private boolean ended;
+
+	private Base64Decoder() {
+	}
+
+	/**
+	 * Decodes as much of src into dst as dst has room for, advancing both, and
+	 * returns how many bytes were written. Whatever is left in src has not been
+	 * consumed and should be passed in again once dst has been drained.
+	 */
+	public int update(ByteBuffer src, ByteBuffer dst) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dst == null) {
+			throw new NullPointerException("'dst' is null.");
+		}
+
+		int written = 0;
+
+		while (src.hasRemaining()) {
+			int position = src.position();
+
+			// whole quanta in one go while nothing is pending
+			if (this.count == 0 && !this.padding && !this.ended && src.remaining() >= 4 && dst.remaining() >= 3) {
+				int a = Base64Decoder.VALUES[src.get(position) & 0xFF];
+				int b = Base64Decoder.VALUES[src.get(position + 1) & 0xFF];
+				int c = Base64Decoder.VALUES[src.get(position + 2) & 0xFF];
+				int d = Base64Decoder.VALUES[src.get(position + 3) & 0xFF];
+
+				if ((a | b | c | d) >= 0) {
+					int value = (a << 18) | (b << 12) | (c << 6) | d;
+					dst.put((byte) (value >> 16));
+					dst.put((byte) (value >> 8));
+					dst.put((byte) value);
+					src.position(position + 4);
+					written += 3;
+					continue;
+				}
+			}
+
+			byte ch = src.get(position);
+			int value = Base64Decoder.VALUES[ch & 0xFF];
+
+			if (value == Base64Decoder.INVALID) {
+				throw new IllegalArgumentException(String.format("Illegal base64 character 0x%02X.", ch));
+			}
+
+			if (value == Base64Decoder.PAD) {
+				if (this.ended || this.count < 2) {
+					throw new IllegalArgumentException("Unexpected base64 padding.");
+				}
+
+				if (this.count == 2 && !this.padding) {
+					// wait for the second '='
+					this.padding = true;
+					src.position(position + 1);
+					continue;
+				}
+
+				int needed = this.count - 1;
+				if (dst.remaining() < needed) {
+					break;
+				}
+
+				written += this.flush(dst);
+				this.padding = false;
+				this.ended = true;
+				src.position(position + 1);
+				continue;
+			}
+
+			if (this.ended || this.padding) {
+				throw new IllegalArgumentException("Base64 data continues after padding.");
+			}
+
+			if (this.count == 3 && dst.remaining() < 3) {
+				break;
+			}
+
+			this.bits = (this.bits << 6) | value;
+			this.count++;
+			src.position(position + 1);
+
+			if (this.count == 4) {
+				dst.put((byte) (this.bits >> 16));
+				dst.put((byte) (this.bits >> 8));
+				dst.put((byte) this.bits);
+				this.bits = 0;
+				this.count = 0;
+				written += 3;
+			}
+		}
+
+		return written;
+	}
+
+	/**
+	 * Writes out an unpadded final quantum, if there is one, and resets the
+	 * decoder for reuse.
+	 */
+	public int finish(ByteBuffer dst) {
+		if (dst == null) {
+			throw new NullPointerException("'dst' is null.");
+		}
+
+		try {
+			if (this.padding) {
+				throw new IllegalArgumentException("Incomplete base64 padding.");
+			}
+
+			if (this.count == 1) {
+				throw new IllegalArgumentException("Incomplete base64 quantum.");
+			}
+
+			if (dst.remaining() < Math.max(0, this.count - 1)) {
+				throw new IllegalArgumentException("'dst' is too small.");
+			}
+
+			return this.flush(dst);
+		} finally {
+			this.reset();
+		}
+	}
+
+	public void reset() {
+		this.bits = 0;
+		this.count = 0;
+		this.padding = false;
+		this.ended = false;
+	}
+
+	// writes the one or two bytes of a short quantum
+	private int flush(ByteBuffer dst) {
+		int written = 0;
+
+		if (this.count == 2) {
+			dst.put((byte) (this.bits >> 4));
+			written = 1;
+		} else if (this.count == 3) {
+			dst.put((byte) (this.bits >> 10));
+			dst.put((byte) (this.bits >> 2));
+			written = 2;
+		}
+
+		this.bits = 0;
+		this.count = 0;
+		return written;
+	}
+}
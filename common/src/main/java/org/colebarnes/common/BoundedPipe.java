@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded in-memory pipe between a thread writing to getOutputStream() and
+ * one reading from getInputStream(). The writer blocks while the buffer is
+ * full, so the two sides run in step with at most capacity bytes between
+ * them. Unlike PipedInputStream, a failure on the writing side can be handed
+ * to the reader with fail() instead of looking like a clean end of stream,
+ * and closing the reader makes a blocked writer fail instead of hanging.
+ * 
+ * It waits on a ReentrantLock rather than in synchronized code, so either
+ * side can be a virtual thread without pinning its carrier.
+ */
+public final class BoundedPipe {
+	public static BoundedPipe getInstance() {
+		return BoundedPipe.getInstance(StreamUtils.DEFAULT_PIPELINE_BUFFER_LEN * StreamUtils.DEFAULT_PIPELINE_BUFFERS);
+	}
+
+	public static BoundedPipe getInstance(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("'capacity' must be positive.");
+		}
+
+		return new BoundedPipe(capacity);
+	}
+
+	private final byte[] buffer;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+	private final InputStream in = new PipeInputStream();
+	private final OutputStream out = new PipeOutputStream();
+
+	// guarded by lock
+	private int head;
+	private int count;
+	private boolean writerClosed;
+	private boolean readerClosed;
+	private Throwable failure;
+
+	private BoundedPipe(int capacity) {
+		this.buffer = new byte[capacity];
+	}
+
+	public InputStream getInputStream() {
+		return this.in;
+	}
+
+	public OutputStream getOutputStream() {
+		return this.out;
+	}
+
+	/**
+	 * Makes the reader fail with cause once it next reads, and the writer
+	 * with it on its next write.
+	 */
+	public void fail(Throwable cause) {
+		if (cause == null) {
+			throw new NullPointerException("'cause' is null.");
+		}
+
+		this.lock.lock();
+
+		try {
+			if (this.failure == null) {
+				this.failure = cause;
+			}
+
+			this.notEmpty.signalAll();
+			this.notFull.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private IOException failed() {
+		return this.failure instanceof IOException e ? new IOException(e.getMessage(), e) : new IOException("Pipe writer failed.", this.failure);
+	}
+
+	private final class PipeInputStream extends InputStream {
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return this.read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null) {
+				throw new NullPointerException("'b' is null.");
+			}
+
+			if (off < 0 || len < 0 || len > b.length - off) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			if (len == 0) {
+				return 0;
+			}
+
+			BoundedPipe pipe = BoundedPipe.this;
+			pipe.lock.lock();
+
+			try {
+				while (pipe.count == 0 && pipe.failure == null && !pipe.writerClosed && !pipe.readerClosed) {
+					pipe.notEmpty.await();
+				}
+
+				if (pipe.failure != null) {
+					throw pipe.failed();
+				}
+
+				if (pipe.readerClosed) {
+					throw new IOException("Pipe closed.");
+				}
+
+				if (pipe.count == 0) {
+					return -1;
+				}
+
+				// at most up to the end of the ring, the next call gets the rest
+				int n = Math.min(len, Math.min(pipe.count, pipe.buffer.length - pipe.head));
+				System.arraycopy(pipe.buffer, pipe.head, b, off, n);
+				pipe.head = (pipe.head + n) % pipe.buffer.length;
+				pipe.count -= n;
+				pipe.notFull.signalAll();
+				return n;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Pipe read interrupted.");
+			} finally {
+				pipe.lock.unlock();
+			}
+		}
+
+		@Override
+		public int available() {
+			BoundedPipe pipe = BoundedPipe.this;
+			pipe.lock.lock();
+
+			try {
+				return pipe.count;
+			} finally {
+				pipe.lock.unlock();
+			}
+		}
+
+		@Override
+		public void close() {
+			BoundedPipe pipe = BoundedPipe.this;
+			pipe.lock.lock();
+
+			try {
+				pipe.readerClosed = true;
+				pipe.notFull.signalAll();
+				pipe.notEmpty.signalAll();
+			} finally {
+				pipe.lock.unlock();
+			}
+		}
+	}
+
+	private final class PipeOutputStream extends OutputStream {
+		@Override
+		public void write(int b) throws IOException {
+			this.write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (b == null) {
+				throw new NullPointerException("'b' is null.");
+			}
+
+			if (off < 0 || len < 0 || len > b.length - off) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			BoundedPipe pipe = BoundedPipe.this;
+			pipe.lock.lock();
+
+			try {
+				while (len > 0) {
+					while (pipe.count == pipe.buffer.length && pipe.failure == null && !pipe.readerClosed) {
+						pipe.notFull.await();
+					}
+
+					if (pipe.failure != null) {
+						throw pipe.failed();
+					}
+
+					if (pipe.readerClosed) {
+						throw new IOException("Pipe closed by the reader.");
+					}
+
+					if (pipe.writerClosed) {
+						throw new IOException("Pipe closed.");
+					}
+
+					int tail = (pipe.head + pipe.count) % pipe.buffer.length;
+					int n = Math.min(len, Math.min(pipe.buffer.length - pipe.count, pipe.buffer.length - tail));
+					System.arraycopy(b, off, pipe.buffer, tail, n);
+					pipe.count += n;
+					off += n;
+					len -= n;
+					pipe.notEmpty.signalAll();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Pipe write interrupted.");
+			} finally {
+				pipe.lock.unlock();
+			}
+		}
+
+		@Override
+		public void close() {
+			BoundedPipe pipe = BoundedPipe.this;
+			pipe.lock.lock();
+
+			try {
+				pipe.writerClosed = true;
+				pipe.notEmpty.signalAll();
+			} finally {
+				pipe.lock.unlock();
+			}
+		}
+	}
+}
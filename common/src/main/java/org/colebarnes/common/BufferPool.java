@@ -0,0 +1,328 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.colebarnes.common.logger.LogHandle;
+import org.colebarnes.common.logger.Logger;
+
+/**
+ * Reusable heap and direct buffers in power of two size classes from
+ * MIN_SIZE to MAX_SIZE. Platform threads keep a few buffers per class to
+ * themselves; everything else goes through a bounded shared queue per class.
+ * Larger requests are allocated and dropped as usual.
+ *
+ * Buffers come back with undefined contents and must be released exactly
+ * once. With -Dorg.colebarnes.bufferpool.debug=true acquisitions are tracked
+ * and a buffer that is garbage collected without being released is logged
+ * with the stack that acquired it.
+ */
+public final class BufferPool {
+	private static final LogHandle LOGGER = Logger.getHandle(BufferPool.class);
+
+	public static final String PROP_DEBUG = "org.colebarnes.bufferpool.debug";
+	public static final String PROP_DEBUG_DFLT = "false";
+
+	public static final int MIN_SIZE = 512;
+	public static final int MAX_SIZE = 4 * 1024 * 1024;
+
+	private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(BufferPool.MIN_SIZE);
+	private static final int NUM_CLASSES = Integer.numberOfTrailingZeros(BufferPool.MAX_SIZE) - BufferPool.MIN_SHIFT + 1;
+	private static final int THREAD_CACHE_LEN = 4;
+	private static final int SHARED_BYTES_PER_CLASS = 16 * 1024 * 1024;
+	private static final int MAX_SHARED_PER_CLASS = 256;
+
+	private static final BufferPool HEAP = new BufferPool(false, Boolean.parseBoolean(System.getProperty(BufferPool.PROP_DEBUG, BufferPool.PROP_DEBUG_DFLT)));
+	private static final BufferPool DIRECT = new BufferPool(true, Boolean.parseBoolean(System.getProperty(BufferPool.PROP_DEBUG, BufferPool.PROP_DEBUG_DFLT)));
+
+	public static BufferPool getHeapInstance() {
+		return BufferPool.HEAP;
+	}
+
+	public static BufferPool getDirectInstance() {
+		return BufferPool.DIRECT;
+	}
+
+	// pool with its own leak tracking, mostly for tests
+	static BufferPool getInstance(boolean direct, boolean debug) {
+		return new BufferPool(direct, debug);
+	}
+
+	static int classIndex(int size) {
+		if (size <= BufferPool.MIN_SIZE) {
+			return 0;
+		}
+
+		return 32 - Integer.numberOfLeadingZeros(size - 1) - BufferPool.MIN_SHIFT;
+	}
+
+	static int classSize(int index) {
+		return BufferPool.MIN_SIZE << index;
+	}
+
+	private final boolean direct;
+	private final boolean debug;
+	// byte[] for the heap pool, direct ByteBuffers for the direct one
+	private final BlockingQueue<Object>[] shared;
+	private final ThreadLocal<ThreadCache> caches;
+	private final Map<Tracker, Tracker> outstanding;
+	private final ReferenceQueue<Object> collected;
+	private final AtomicLong leaks;
+
+	private BufferPool(boolean direct, boolean debug) {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		BlockingQueue<Object>[] shared = new BlockingQueue[BufferPool.NUM_CLASSES];
+
+		this.direct = direct;
+		this.debug = debug;
+		this.shared = shared;
+		this.caches = ThreadLocal.withInitial(ThreadCache::new);
+		this.outstanding = debug ? new ConcurrentHashMap<>() : null;
+		this.collected = debug ? new ReferenceQueue<>() : null;
+		this.leaks = new AtomicLong();
+
+		for (int i = 0; i < BufferPool.NUM_CLASSES; i++) {
+			int capacity = BufferPool.SHARED_BYTES_PER_CLASS / BufferPool.classSize(i);
+			this.shared[i] = new ArrayBlockingQueue<>(Math.max(2, Math.min(capacity, BufferPool.MAX_SHARED_PER_CLASS)));
+		}
+	}
+
+	public boolean isDirect() {
+		return this.direct;
+	}
+
+	/**
+	 * A cleared buffer with at least minCapacity bytes of room.
+	 */
+	public ByteBuffer acquire(int minCapacity) {
+		Object buffer = this.take(minCapacity);
+
+		if (this.direct) {
+			return ((ByteBuffer) buffer).clear();
+		}
+
+		return ByteBuffer.wrap((byte[]) buffer);
+	}
+
+	/**
+	 * An array of at least minLength bytes. Heap pool only.
+	 */
+	public byte[] acquireArray(int minLength) {
+		if (this.direct) {
+			throw new IllegalStateException("A direct pool has no arrays.");
+		}
+
+		return (byte[]) this.take(minLength);
+	}
+
+	public void release(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new NullPointerException("'buffer' is null.");
+		}
+
+		if (this.direct) {
+			this.give(buffer, buffer.capacity());
+		} else if (buffer.hasArray() && buffer.arrayOffset() == 0) {
+			this.give(buffer.array(), buffer.array().length);
+		}
+	}
+
+	public void release(byte[] buffer) {
+		if (buffer == null) {
+			throw new NullPointerException("'buffer' is null.");
+		}
+
+		if (this.direct) {
+			throw new IllegalStateException("A direct pool has no arrays.");
+		}
+
+		this.give(buffer, buffer.length);
+	}
+
+	/**
+	 * Buffers that were garbage collected without being released. Only
+	 * counted in debug mode.
+	 */
+	public long getLeakCount() {
+		this.reportLeaks();
+		return this.leaks.get();
+	}
+
+	private Object take(int minCapacity) {
+		if (minCapacity < 0) {
+			throw new IllegalArgumentException("'minCapacity' is negative.");
+		}
+
+		Object buffer = null;
+
+		if (minCapacity <= BufferPool.MAX_SIZE) {
+			int index = BufferPool.classIndex(minCapacity);
+
+			if (!Thread.currentThread().isVirtual()) {
+				buffer = this.caches.get().poll(index);
+			}
+
+			if (buffer == null) {
+				buffer = this.shared[index].poll();
+			}
+
+			if (buffer == null) {
+				buffer = this.allocate(BufferPool.classSize(index));
+			}
+		} else {
+			buffer = this.allocate(minCapacity);
+		}
+
+		if (this.debug) {
+			this.reportLeaks();
+			Tracker tracker = new Tracker(buffer, this.collected, minCapacity, new Throwable("acquired here"));
+			this.outstanding.put(tracker, tracker);
+		}
+
+		return buffer;
+	}
+
+	private void give(Object buffer, int capacity) {
+		if (this.debug) {
+			Tracker tracker = this.outstanding.remove(new Tracker(buffer, null, capacity, null));
+
+			if (tracker == null) {
+				throw new IllegalStateException("Buffer was not acquired from this pool or was already released.");
+			}
+
+			tracker.clear();
+		}
+
+		int index = BufferPool.classIndex(capacity);
+
+		// not one of ours (odd size or above MAX_SIZE), let the GC have it
+		if (capacity > BufferPool.MAX_SIZE || BufferPool.classSize(index) != capacity) {
+			return;
+		}
+
+		if (!Thread.currentThread().isVirtual() && this.caches.get().offer(index, buffer)) {
+			return;
+		}
+
+		this.shared[index].offer(buffer);
+	}
+
+	private Object allocate(int capacity) {
+		return this.direct ? ByteBuffer.allocateDirect(capacity) : new byte[capacity];
+	}
+
+	private void reportLeaks() {
+		if (!this.debug) {
+			return;
+		}
+
+		Reference<?> ref;
+		while ((ref = this.collected.poll()) != null) {
+			Tracker tracker = (Tracker) ref;
+
+			if (this.outstanding.remove(tracker) != null) {
+				this.leaks.incrementAndGet();
+				// warn(Throwable) only logs the message, the frames are the point here
+				StringBuilder site = new StringBuilder();
+				for (StackTraceElement element : tracker.site.getStackTrace()) {
+					site.append(System.lineSeparator()).append("\tat ").append(element);
+				}
+
+				BufferPool.LOGGER.warn("{} byte buffer was garbage collected without being released, acquired at:{}", tracker.size, site);
+			}
+		}
+	}
+
+	private static final class ThreadCache {
+		private final Object[][] buffers = new Object[BufferPool.NUM_CLASSES][BufferPool.THREAD_CACHE_LEN];
+		private final int[] counts = new int[BufferPool.NUM_CLASSES];
+
+		private Object poll(int index) {
+			int count = this.counts[index];
+
+			if (count == 0) {
+				return null;
+			}
+
+			Object buffer = this.buffers[index][--count];
+			this.buffers[index][count] = null;
+			this.counts[index] = count;
+
+			return buffer;
+		}
+
+		private boolean offer(int index, Object buffer) {
+			int count = this.counts[index];
+
+			if (count == BufferPool.THREAD_CACHE_LEN) {
+				return false;
+			}
+
+			this.buffers[index][count] = buffer;
+			this.counts[index] = count + 1;
+
+			return true;
+		}
+	}
+
+	// identity keyed weak handle on an outstanding buffer
+	private static final class Tracker extends WeakReference<Object> {
+		private final int hash;
+		private final int size;
+		private final Throwable site;
+
+		private Tracker(Object buffer, ReferenceQueue<Object> queue, int size, Throwable site) {
+			super(buffer, queue);
+			this.hash = System.identityHashCode(buffer);
+			this.size = size;
+			this.site = site;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Tracker other)) {
+				return false;
+			}
+
+			Object buffer = this.get();
+			return buffer != null && buffer == other.get();
+		}
+	}
+}
@@ -21,11 +21,64 @@
 
 package org.colebarnes.common;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 
 public class ByteUtils {
+	private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+	// ascii -> nibble, -1 for anything that is not a hex digit
+	private static final byte[] HEX_VALUES = new byte[128];
+
+	// multiple of 3 so chunks encode without padding in the middle
+	private static final int BASE64_CHUNK_LEN = 3 * 1024;
+	// also a multiple of 3, and the same 4/3 ratio the other way
+	private static final int BASE64_STREAM_LEN = 48 * 1024;
+
+	// the default NativePRNG reads /dev/urandom under one global lock, so
+	// platform threads keep a DRBG of their own and virtual threads share one
+	private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(ByteUtils::newRandom);
+	private static final SecureRandom SHARED_RANDOM = ByteUtils.newRandom();
+
+	private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_SHORT_BE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_SHORT_LE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_INT_BE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_LONG_BE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	static {
+		Arrays.fill(ByteUtils.HEX_VALUES, (byte) -1);
+
+		for (int i = 0; i < 10; i++) {
+			ByteUtils.HEX_VALUES['0' + i] = (byte) i;
+		}
+
+		for (int i = 0; i < 6; i++) {
+			ByteUtils.HEX_VALUES['A' + i] = (byte) (10 + i);
+			ByteUtils.HEX_VALUES['a' + i] = (byte) (10 + i);
+		}
+	}
+
 	public static String base64Encode(final byte[] bytes) {
 		if (bytes == null) {
 			throw new NullPointerException("'bytes' is null.");
@@ -49,11 +102,25 @@ public class ByteUtils {
 	}
 
 	public static void random(byte[] bytes) {
-		new SecureRandom().nextBytes(bytes);
+		if (Thread.currentThread().isVirtual()) {
+			ByteUtils.SHARED_RANDOM.nextBytes(bytes);
+		} else {
+			ByteUtils.RANDOM.get().nextBytes(bytes);
+		}
+	}
+
+	private static SecureRandom newRandom() {
+		try {
+			return SecureRandom.getInstance("DRBG");
+		} catch (NoSuchAlgorithmException e) {
+			return new SecureRandom();
+		}
 	}
 
 	public static byte[] fromInt(final int n) {
-		return ByteBuffer.allocate(4).putInt(n).array();
+		byte[] bytes = new byte[Integer.BYTES];
+		ByteUtils.putInt(bytes, 0, n);
+		return bytes;
 	}
 
 	public static int toInt(final byte[] bytes) {
@@ -61,11 +128,13 @@ public class ByteUtils {
 			throw new IllegalArgumentException("'bytes' cannot be null and must be at least 1 byte.");
 		}
 
-		return ByteBuffer.wrap(bytes).getInt();
+		return ByteUtils.getInt(bytes, 0);
 	}
 
 	public static byte[] fromLong(final long n) {
-		return ByteBuffer.allocate(8).putLong(n).array();
+		byte[] bytes = new byte[Long.BYTES];
+		ByteUtils.putLong(bytes, 0, n);
+		return bytes;
 	}
 
 	public static long toLong(final byte[] bytes) {
@@ -73,14 +142,598 @@ public class ByteUtils {
 			throw new IllegalArgumentException("'bytes' cannot be null and must be at least 1 byte.");
 		}
 
-		return ByteBuffer.wrap(bytes).getLong();
+		return ByteUtils.getLong(bytes, 0);
+	}
+
+	/*
+	 * Primitives at an offset in a caller's array or buffer. Big endian unless
+	 * an order is given, the put methods return the offset just past what they
+	 * wrote, and the buffer versions ignore (and leave alone) the buffer's own
+	 * order and position.
+	 */
+
+	public static short getShort(byte[] bytes, int offset) {
+		return (short) ByteUtils.SHORT_BE.get(bytes, offset);
+	}
+
+	public static short getShort(byte[] bytes, int offset, ByteOrder order) {
+		return (short) ByteUtils.shortHandle(order).get(bytes, offset);
+	}
+
+	public static int putShort(byte[] bytes, int offset, short value) {
+		ByteUtils.SHORT_BE.set(bytes, offset, value);
+		return offset + Short.BYTES;
+	}
+
+	public static int putShort(byte[] bytes, int offset, short value, ByteOrder order) {
+		ByteUtils.shortHandle(order).set(bytes, offset, value);
+		return offset + Short.BYTES;
+	}
+
+	public static int getInt(byte[] bytes, int offset) {
+		return (int) ByteUtils.INT_BE.get(bytes, offset);
+	}
+
+	public static int getInt(byte[] bytes, int offset, ByteOrder order) {
+		return (int) ByteUtils.intHandle(order).get(bytes, offset);
+	}
+
+	public static int putInt(byte[] bytes, int offset, int value) {
+		ByteUtils.INT_BE.set(bytes, offset, value);
+		return offset + Integer.BYTES;
+	}
+
+	public static int putInt(byte[] bytes, int offset, int value, ByteOrder order) {
+		ByteUtils.intHandle(order).set(bytes, offset, value);
+		return offset + Integer.BYTES;
+	}
+
+	public static long getLong(byte[] bytes, int offset) {
+		return (long) ByteUtils.LONG_BE.get(bytes, offset);
+	}
+
+	public static long getLong(byte[] bytes, int offset, ByteOrder order) {
+		return (long) ByteUtils.longHandle(order).get(bytes, offset);
+	}
+
+	public static int putLong(byte[] bytes, int offset, long value) {
+		ByteUtils.LONG_BE.set(bytes, offset, value);
+		return offset + Long.BYTES;
+	}
+
+	public static int putLong(byte[] bytes, int offset, long value, ByteOrder order) {
+		ByteUtils.longHandle(order).set(bytes, offset, value);
+		return offset + Long.BYTES;
+	}
+
+	public static short getShort(ByteBuffer buffer, int index, ByteOrder order) {
+		return (short) ByteUtils.handle(ByteUtils.BUFFER_SHORT_BE, ByteUtils.BUFFER_SHORT_LE, order).get(buffer, index);
+	}
+
+	public static int putShort(ByteBuffer buffer, int index, short value, ByteOrder order) {
+		ByteUtils.handle(ByteUtils.BUFFER_SHORT_BE, ByteUtils.BUFFER_SHORT_LE, order).set(buffer, index, value);
+		return index + Short.BYTES;
+	}
+
+	public static int getInt(ByteBuffer buffer, int index, ByteOrder order) {
+		return (int) ByteUtils.handle(ByteUtils.BUFFER_INT_BE, ByteUtils.BUFFER_INT_LE, order).get(buffer, index);
+	}
+
+	public static int putInt(ByteBuffer buffer, int index, int value, ByteOrder order) {
+		ByteUtils.handle(ByteUtils.BUFFER_INT_BE, ByteUtils.BUFFER_INT_LE, order).set(buffer, index, value);
+		return index + Integer.BYTES;
+	}
+
+	public static long getLong(ByteBuffer buffer, int index, ByteOrder order) {
+		return (long) ByteUtils.handle(ByteUtils.BUFFER_LONG_BE, ByteUtils.BUFFER_LONG_LE, order).get(buffer, index);
+	}
+
+	public static int putLong(ByteBuffer buffer, int index, long value, ByteOrder order) {
+		ByteUtils.handle(ByteUtils.BUFFER_LONG_BE, ByteUtils.BUFFER_LONG_LE, order).set(buffer, index, value);
+		return index + Long.BYTES;
+	}
+
+	/*
+	 * Unsigned LEB128: seven bits a byte, low bits first, high bit set on every
+	 * byte but the last. Negative numbers take the full ten bytes, so signed
+	 * values should go through toZigZag first.
+	 */
+
+	public static int varLongSize(long value) {
+		// 1 byte for 0..127, one more per further 7 bits
+		return 1 + (63 - Long.numberOfLeadingZeros(value | 1)) / 7;
+	}
+
+	public static int putVarLong(byte[] bytes, int offset, long value) {
+		if (bytes == null) {
+			throw new NullPointerException("'bytes' is null.");
+		}
+
+		if (offset < 0 || offset > bytes.length - ByteUtils.varLongSize(value)) {
+			throw new IndexOutOfBoundsException("'bytes' is too small.");
+		}
+
+		while ((value & ~0x7FL) != 0) {
+			bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		bytes[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * Reads the varint at offset; varLongSize of the result says how far to
+	 * advance.
+	 */
+	public static long getVarLong(byte[] bytes, int offset) {
+		if (bytes == null) {
+			throw new NullPointerException("'bytes' is null.");
+		}
+
+		long value = 0;
+
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = bytes[offset++];
+			value |= (long) (b & 0x7F) << shift;
+
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException("Malformed varint.");
+	}
+
+	/**
+	 * Writes at the buffer's position and advances it.
+	 */
+	public static void putVarLong(ByteBuffer buffer, long value) {
+		if (buffer == null) {
+			throw new NullPointerException("'buffer' is null.");
+		}
+
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads at the buffer's position and advances it.
+	 */
+	public static long getVarLong(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new NullPointerException("'buffer' is null.");
+		}
+
+		long value = 0;
+
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException("Malformed varint.");
+	}
+
+	/**
+	 * Maps signed to unsigned so small magnitudes stay short as varints:
+	 * 0, -1, 1, -2 become 0, 1, 2, 3.
+	 */
+	public static long toZigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	public static long fromZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
 	}
 
 	public static String toHex(byte[] bytes) {
-		StringBuilder hexString = new StringBuilder();
-		for (byte b : bytes) {
-			hexString.append(String.format("%02X", b));
+		if (bytes == null) {
+			throw new NullPointerException("'bytes' is null.");
+		}
+
+		byte[] hex = new byte[bytes.length * 2];
+		ByteUtils.toHex(bytes, 0, bytes.length, hex, 0);
+
+		// latin1 bytes go straight into a compact string
+		return new String(hex, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Writes 2 * length upper case hex digits into dest and returns how many.
+	 */
+	public static int toHex(byte[] bytes, int offset, int length, char[] dest, int destOffset) {
+		ByteUtils.checkRange(bytes, offset, length);
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		ByteUtils.checkDest(dest.length, destOffset, 2L * length);
+
+		for (int i = offset, j = destOffset; i < offset + length; i++) {
+			int b = bytes[i];
+			dest[j++] = (char) ByteUtils.HEX_DIGITS[(b >> 4) & 0x0F];
+			dest[j++] = (char) ByteUtils.HEX_DIGITS[b & 0x0F];
+		}
+
+		return 2 * length;
+	}
+
+	/**
+	 * Same as the char[] version, as ascii bytes.
+	 */
+	public static int toHex(byte[] bytes, int offset, int length, byte[] dest, int destOffset) {
+		ByteUtils.checkRange(bytes, offset, length);
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		ByteUtils.checkDest(dest.length, destOffset, 2L * length);
+
+		for (int i = offset, j = destOffset; i < offset + length; i++) {
+			int b = bytes[i];
+			dest[j++] = ByteUtils.HEX_DIGITS[(b >> 4) & 0x0F];
+			dest[j++] = ByteUtils.HEX_DIGITS[b & 0x0F];
+		}
+
+		return 2 * length;
+	}
+
+	/**
+	 * Encodes src's remaining bytes into dest as ascii hex, advancing both.
+	 */
+	public static int toHex(ByteBuffer src, ByteBuffer dest) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		int length = src.remaining();
+		if (2L * length > dest.remaining()) {
+			throw new IllegalArgumentException("'dest' is too small.");
+		}
+
+		while (src.hasRemaining()) {
+			int b = src.get();
+			dest.put(ByteUtils.HEX_DIGITS[(b >> 4) & 0x0F]);
+			dest.put(ByteUtils.HEX_DIGITS[b & 0x0F]);
+		}
+
+		return 2 * length;
+	}
+
+	/**
+	 * Accepts upper and lower case digits.
+	 */
+	public static byte[] fromHex(CharSequence hex) {
+		if (hex == null) {
+			throw new NullPointerException("'hex' is null.");
+		}
+
+		byte[] bytes = new byte[hex.length() / 2];
+		ByteUtils.fromHex(hex, bytes, 0);
+		return bytes;
+	}
+
+	public static int fromHex(CharSequence hex, byte[] dest, int destOffset) {
+		if (hex == null) {
+			throw new NullPointerException("'hex' is null.");
+		}
+
+		int length = ByteUtils.checkHexLength(hex.length());
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		ByteUtils.checkDest(dest.length, destOffset, length);
+
+		for (int i = 0, j = destOffset; i < hex.length(); i += 2) {
+			dest[j++] = (byte) ((ByteUtils.hexValue(hex.charAt(i), i) << 4) | ByteUtils.hexValue(hex.charAt(i + 1), i + 1));
+		}
+
+		return length;
+	}
+
+	/**
+	 * Decodes src's remaining ascii hex into dest, advancing both.
+	 */
+	public static int fromHex(ByteBuffer src, ByteBuffer dest) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		int length = ByteUtils.checkHexLength(src.remaining());
+		if (length > dest.remaining()) {
+			throw new IllegalArgumentException("'dest' is too small.");
+		}
+
+		for (int i = 0; i < length; i++) {
+			int position = src.position();
+			dest.put((byte) ((ByteUtils.hexValue((char) src.get(), position) << 4) | ByteUtils.hexValue((char) src.get(), position + 1)));
+		}
+
+		return length;
+	}
+
+	public static int base64EncodedLength(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("'length' is negative.");
+		}
+
+		return (int) (4 * ((length + 2L) / 3));
+	}
+
+	/**
+	 * Encodes all of src into dest and returns how many bytes were written;
+	 * dest needs base64EncodedLength(src.length).
+	 */
+	public static int base64Encode(byte[] src, byte[] dest) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		return Base64.getEncoder().encode(src, dest);
+	}
+
+	/**
+	 * Decodes all of src into dest and returns how many bytes were written.
+	 */
+	public static int base64Decode(byte[] src, byte[] dest) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		return Base64.getDecoder().decode(src, dest);
+	}
+
+	/**
+	 * Encodes src's remaining bytes into dest, advancing both. Works through
+	 * pooled chunks, so it costs no allocation however big the buffers are.
+	 */
+	public static int base64Encode(ByteBuffer src, ByteBuffer dest) {
+		if (src == null) {
+			throw new NullPointerException("'src' is null.");
+		}
+
+		if (dest == null) {
+			throw new NullPointerException("'dest' is null.");
+		}
+
+		int encodedLength = ByteUtils.base64EncodedLength(src.remaining());
+		if (encodedLength > dest.remaining()) {
+			throw new IllegalArgumentException("'dest' is too small.");
+		}
+
+		byte[] in = BufferPool.getHeapInstance().acquireArray(ByteUtils.BASE64_CHUNK_LEN);
+		byte[] out = BufferPool.getHeapInstance().acquireArray(ByteUtils.base64EncodedLength(ByteUtils.BASE64_CHUNK_LEN));
+
+		try {
+			while (src.hasRemaining()) {
+				int length = Math.min(src.remaining(), ByteUtils.BASE64_CHUNK_LEN);
+				src.get(in, 0, length);
+
+				// the encoder only takes whole arrays, so the last short chunk
+				// gets one of its own
+				byte[] chunk = length == in.length ? in : Arrays.copyOf(in, length);
+				dest.put(out, 0, Base64.getEncoder().encode(chunk, out));
+			}
+		} finally {
+			BufferPool.getHeapInstance().release(in);
+			BufferPool.getHeapInstance().release(out);
+		}
+
+		return encodedLength;
+	}
+
+	/**
+	 * Returns a stream that Base64 encodes everything written to it. Closing it
+	 * writes the padding and closes out.
+	 */
+	public static OutputStream base64EncodingStream(OutputStream out) {
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		return Base64.getEncoder().wrap(out);
+	}
+
+	/**
+	 * Returns a stream that decodes the Base64 read from in.
+	 */
+	public static InputStream base64DecodingStream(InputStream in) {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		return Base64.getDecoder().wrap(in);
+	}
+
+	/**
+	 * Encodes in to out in constant memory and returns how many bytes were
+	 * read. Neither stream is closed.
+	 */
+	public static long base64Encode(InputStream in, OutputStream out) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		// closing the encoder is what writes the padding, so keep it off out
+		try (OutputStream encoder = Base64.getEncoder().wrap(new NonClosingOutputStream(out))) {
+			return StreamUtils.copy(in, encoder, ByteUtils.BASE64_STREAM_LEN);
+		}
+	}
+
+	/**
+	 * Decodes in to out in constant memory and returns how many bytes were
+	 * written. Neither stream is closed.
+	 */
+	public static long base64Decode(InputStream in, OutputStream out) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		Base64Decoder decoder = Base64Decoder.getInstance();
+		byte[] encoded = BufferPool.getHeapInstance().acquireArray(ByteUtils.BASE64_STREAM_LEN);
+		byte[] decoded = BufferPool.getHeapInstance().acquireArray(ByteUtils.BASE64_STREAM_LEN);
+		long total = 0;
+
+		try {
+			// decoded is at least as big as encoded, so every update drains src
+			ByteBuffer dst = ByteBuffer.wrap(decoded);
+			int read;
+
+			while ((read = in.read(encoded, 0, ByteUtils.BASE64_STREAM_LEN)) != -1) {
+				dst.clear();
+				decoder.update(ByteBuffer.wrap(encoded, 0, read), dst);
+				out.write(decoded, 0, dst.position());
+				total += dst.position();
+			}
+
+			dst.clear();
+			decoder.finish(dst);
+			out.write(decoded, 0, dst.position());
+			total += dst.position();
+		} finally {
+			BufferPool.getHeapInstance().release(encoded);
+			BufferPool.getHeapInstance().release(decoded);
+		}
+
+		return total;
+	}
+
+	/**
+	 * Channel version of base64Encode(InputStream, OutputStream). Both channels
+	 * must be blocking and neither is closed.
+	 */
+	public static long base64Encode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		return ByteUtils.base64Encode(Channels.newInputStream(in), Channels.newOutputStream(out));
+	}
+
+	/**
+	 * Channel version of base64Decode(InputStream, OutputStream). Both channels
+	 * must be blocking and neither is closed.
+	 */
+	public static long base64Decode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		return ByteUtils.base64Decode(Channels.newInputStream(in), Channels.newOutputStream(out));
+	}
+
+	private static VarHandle shortHandle(ByteOrder order) {
+		return ByteUtils.handle(ByteUtils.SHORT_BE, ByteUtils.SHORT_LE, order);
+	}
+
+	private static VarHandle intHandle(ByteOrder order) {
+		return ByteUtils.handle(ByteUtils.INT_BE, ByteUtils.INT_LE, order);
+	}
+
+	private static VarHandle longHandle(ByteOrder order) {
+		return ByteUtils.handle(ByteUtils.LONG_BE, ByteUtils.LONG_LE, order);
+	}
+
+	private static VarHandle handle(VarHandle bigEndian, VarHandle littleEndian, ByteOrder order) {
+		if (order == null) {
+			throw new NullPointerException("'order' is null.");
+		}
+
+		return order == ByteOrder.BIG_ENDIAN ? bigEndian : littleEndian;
+	}
+
+	private static int hexValue(char c, int index) {
+		int value = c < 128 ? ByteUtils.HEX_VALUES[c] : -1;
+
+		if (value < 0) {
+			throw new IllegalArgumentException("Illegal hex digit '" + c + "' at index " + index + ".");
+		}
+
+		return value;
+	}
+
+	private static int checkHexLength(int length) {
+		if ((length & 1) != 0) {
+			throw new IllegalArgumentException("Hex string has an odd number of digits.");
+		}
+
+		return length / 2;
+	}
+
+	private static void checkRange(byte[] bytes, int offset, int length) {
+		if (bytes == null) {
+			throw new NullPointerException("'bytes' is null.");
+		}
+
+		if (offset < 0 || length < 0 || offset > bytes.length - length) {
+			throw new IndexOutOfBoundsException("'offset' and 'length' are outside 'bytes'.");
+		}
+	}
+
+	private static void checkDest(int destLength, int destOffset, long needed) {
+		if (destOffset < 0 || destOffset + needed > destLength) {
+			throw new IllegalArgumentException("'dest' is too small.");
+		}
+	}
+
+	// lets a wrapping stream be closed without closing what it wraps
+	private static final class NonClosingOutputStream extends FilterOutputStream {
+		private NonClosingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.out.flush();
 		}
-		return hexString.toString();
 	}
 }
@@ -27,61 +27,454 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 public class HttpUtils {
+  // chars URLEncoder leaves alone; space becomes '+' and the rest %XX
+  private static final boolean[] UNRESERVED = new boolean[128];
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      HttpUtils.UNRESERVED[c] = true;
+      HttpUtils.UNRESERVED[Character.toUpperCase(c)] = true;
+    }
+
+    for (char c = '0'; c <= '9'; c++) {
+      HttpUtils.UNRESERVED[c] = true;
+    }
+
+    HttpUtils.UNRESERVED['-'] = true;
+    HttpUtils.UNRESERVED['_'] = true;
+    HttpUtils.UNRESERVED['.'] = true;
+    HttpUtils.UNRESERVED['*'] = true;
+  }
+
+  /**
+   * Form encodes data as UTF-8, the same as URLEncoder would. Blank keys are
+   * skipped and blank values leave just the key.
+   */
   public static String urlEncode(Map<String, String> data) {
-    // TODO: check input ...
     StringBuilder sb = new StringBuilder();
 
+    try {
+      HttpUtils.urlEncode(data, sb);
+    } catch (IOException e) {
+      // StringBuilder does not throw
+      throw new IllegalStateException(e);
+    }
+
+    return sb.toString();
+  }
+
+  public static void urlEncode(Map<String, String> data, Appendable out) throws IOException {
+    if (data == null) {
+      throw new NullPointerException("'data' is null.");
+    }
+
+    if (out == null) {
+      throw new NullPointerException("'out' is null.");
+    }
+
+    boolean first = true;
+
     for (Entry<String, String> entry : data.entrySet()) {
-      String key = entry.getKey();
-      String value = entry.getValue();
+      first = HttpUtils.appendPair(entry.getKey(), entry.getValue(), out, first);
+    }
+  }
 
-      if (!StringUtils.isNullOrBlank(key)) {
-        if (sb.length() > 0) {
-          sb.append("&");
-        }
+  /**
+   * Multi-valued version; each value gets its own key=value pair.
+   */
+  public static void urlEncodeAll(Map<String, ? extends Iterable<String>> data, Appendable out) throws IOException {
+    if (data == null) {
+      throw new NullPointerException("'data' is null.");
+    }
 
-        sb.append(URLEncoder.encode(key, StringUtils.defaultCharset()));
+    if (out == null) {
+      throw new NullPointerException("'out' is null.");
+    }
 
-        if (!StringUtils.isNullOrBlank(value)) {
-          sb.append("=");
-          sb.append(URLEncoder.encode(value, StringUtils.defaultCharset()));
+    boolean first = true;
+
+    for (Entry<String, ? extends Iterable<String>> entry : data.entrySet()) {
+      if (entry.getValue() != null) {
+        for (String value : entry.getValue()) {
+          first = HttpUtils.appendPair(entry.getKey(), value, out, first);
         }
       }
     }
+  }
+
+  /**
+   * Writes the form into dest at its position and returns the number of bytes
+   * written. If dest runs out of room it is left as it was.
+   */
+  public static int urlEncode(Map<String, String> data, ByteBuffer dest) {
+    if (dest == null) {
+      throw new NullPointerException("'dest' is null.");
+    }
 
-    return sb.toString();
+    BufferAppendable out = new BufferAppendable(dest);
+
+    try {
+      HttpUtils.urlEncode(data, out);
+    } catch (IOException e) {
+      throw out.overflow();
+    }
+
+    return dest.position() - out.start;
   }
 
-  public static Map<String, String> urlDecode(String urlEncoded) {
-    // TODO: check input ...
+  public static int urlEncodeAll(Map<String, ? extends Iterable<String>> data, ByteBuffer dest) {
+    if (dest == null) {
+      throw new NullPointerException("'dest' is null.");
+    }
+
+    BufferAppendable out = new BufferAppendable(dest);
+
+    try {
+      HttpUtils.urlEncodeAll(data, out);
+    } catch (IOException e) {
+      throw out.overflow();
+    }
+
+    return dest.position() - out.start;
+  }
+
+  /**
+   * Parses a form, the same as URLDecoder would. A repeated key keeps its
+   * last value and a key without '=' gets "".
+   */
+  public static Map<String, String> urlDecode(CharSequence urlEncoded) {
+    if (urlEncoded == null) {
+      throw new NullPointerException("'urlEncoded' is null.");
+    }
+
     Map<String, String> data = new HashMap<>();
-    String[] pairs = urlEncoded.split(Pattern.quote("&"), 0);
+    new FormParser(urlEncoded, false).parse(data::put);
+    return data;
+  }
+
+  /**
+   * Multi-valued version, with keys and values in the order they appear.
+   */
+  public static Map<String, List<String>> urlDecodeAll(CharSequence urlEncoded) {
+    if (urlEncoded == null) {
+      throw new NullPointerException("'urlEncoded' is null.");
+    }
 
-    if (pairs != null && pairs.length > 0) {
-      for (String pair : pairs) {
-        if (!StringUtils.isNullOrBlank(pair)) {
-          String[] keyValue = pair.split(Pattern.quote("="), 2);
+    Map<String, List<String>> data = new LinkedHashMap<>();
+    new FormParser(urlEncoded, false).parse((key, value) -> data.computeIfAbsent(key, k -> new ArrayList<>()).add(value));
+    return data;
+  }
 
-          if (keyValue.length > 0) {
-            String key = URLDecoder.decode(keyValue[0], StringUtils.defaultCharset());
-            String value = keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StringUtils.defaultCharset()) : "";
-            data.put(key, value);
+  /**
+   * Parses the form in src's remaining bytes, advancing it. Raw bytes
+   * outside ascii are taken as UTF-8 like escaped ones.
+   */
+  public static Map<String, String> urlDecode(ByteBuffer src) {
+    if (src == null) {
+      throw new NullPointerException("'src' is null.");
+    }
+
+    Map<String, String> data = new HashMap<>();
+    new FormParser(new BufferChars(src), true).parse(data::put);
+    src.position(src.limit());
+    return data;
+  }
+
+  public static Map<String, List<String>> urlDecodeAll(ByteBuffer src) {
+    if (src == null) {
+      throw new NullPointerException("'src' is null.");
+    }
+
+    Map<String, List<String>> data = new LinkedHashMap<>();
+    new FormParser(new BufferChars(src), true).parse((key, value) -> data.computeIfAbsent(key, k -> new ArrayList<>()).add(value));
+    src.position(src.limit());
+    return data;
+  }
+
+  // returns the new value of first
+  private static boolean appendPair(String key, String value, Appendable out, boolean first) throws IOException {
+    if (StringUtils.isNullOrBlank(key)) {
+      return first;
+    }
+
+    if (!first) {
+      out.append('&');
+    }
+
+    HttpUtils.appendEncoded(key, out);
+
+    if (!StringUtils.isNullOrBlank(value)) {
+      out.append('=');
+      HttpUtils.appendEncoded(value, out);
+    }
+
+    return false;
+  }
+
+  private static void appendEncoded(CharSequence str, Appendable out) throws IOException {
+    int length = str.length();
+
+    for (int i = 0; i < length; i++) {
+      char c = str.charAt(i);
+
+      if (c < 0x80) {
+        if (HttpUtils.UNRESERVED[c]) {
+          // hand over runs of plain chars in one append
+          int end = i + 1;
+          while (end < length && str.charAt(end) < 0x80 && HttpUtils.UNRESERVED[str.charAt(end)]) {
+            end++;
           }
+
+          out.append(str, i, end);
+          i = end - 1;
+        } else if (c == ' ') {
+          out.append('+');
+        } else {
+          HttpUtils.appendEscaped(c, out);
         }
+      } else if (c < 0x800) {
+        HttpUtils.appendEscaped(0xC0 | (c >> 6), out);
+        HttpUtils.appendEscaped(0x80 | (c & 0x3F), out);
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, str.charAt(++i));
+        HttpUtils.appendEscaped(0xF0 | (cp >> 18), out);
+        HttpUtils.appendEscaped(0x80 | ((cp >> 12) & 0x3F), out);
+        HttpUtils.appendEscaped(0x80 | ((cp >> 6) & 0x3F), out);
+        HttpUtils.appendEscaped(0x80 | (cp & 0x3F), out);
+      } else if (Character.isSurrogate(c)) {
+        // unpaired, encoded as the '?' getBytes would have made of it
+        HttpUtils.appendEscaped('?', out);
+      } else {
+        HttpUtils.appendEscaped(0xE0 | (c >> 12), out);
+        HttpUtils.appendEscaped(0x80 | ((c >> 6) & 0x3F), out);
+        HttpUtils.appendEscaped(0x80 | (c & 0x3F), out);
       }
     }
+  }
 
-    return data;
+  private static void appendEscaped(int b, Appendable out) throws IOException {
+    out.append('%');
+    out.append(HttpUtils.HEX_DIGITS[(b >> 4) & 0x0F]);
+    out.append(HttpUtils.HEX_DIGITS[b & 0x0F]);
+  }
+
+  /**
+   * One pass over the input: splits pairs, unescapes and collects UTF-8 byte
+   * runs as it goes, reusing one builder for every key and value.
+   */
+  private static final class FormParser {
+    private final CharSequence src;
+    // chars 0x80-0xFF are raw bytes rather than chars
+    private final boolean bytes;
+    private final StringBuilder token = new StringBuilder();
+    private byte[] pending = new byte[16];
+    private int pendingLen;
+    private boolean pendingAscii = true;
+
+    private FormParser(CharSequence src, boolean bytes) {
+      this.src = src;
+      this.bytes = bytes;
+    }
+
+    private void parse(BiConsumer<String, String> sink) {
+      int length = this.src.length();
+      int start = 0;
+
+      while (start < length) {
+        int end = start;
+        String key = null;
+        boolean blank = true;
+
+        for (; end < length; end++) {
+          char c = this.src.charAt(end);
+
+          if (c == '&') {
+            break;
+          }
+
+          if (c == '=' && key == null) {
+            key = this.finish();
+          } else {
+            end = this.append(c, end);
+          }
+
+          blank &= Character.isWhitespace(c);
+        }
+
+        String value = this.finish();
+
+        if (end > start && !blank) {
+          if (key == null) {
+            sink.accept(value, "");
+          } else {
+            sink.accept(key, value);
+          }
+        }
+
+        start = end + 1;
+      }
+    }
+
+    // returns the index of the last char used
+    private int append(char c, int index) {
+      if (c == '%') {
+        if (index + 2 >= this.src.length()) {
+          throw new IllegalArgumentException("Incomplete trailing escape (%) pattern at index " + index + ".");
+        }
+
+        int hi = FormParser.hexValue(this.src.charAt(index + 1));
+        int lo = FormParser.hexValue(this.src.charAt(index + 2));
+
+        if (hi < 0 || lo < 0) {
+          throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern at index " + index + ".");
+        }
+
+        this.pend((byte) ((hi << 4) | lo));
+        return index + 2;
+      }
+
+      if (this.bytes && c >= 0x80) {
+        this.pend((byte) c);
+      } else {
+        this.flush();
+        this.token.append(c == '+' ? ' ' : c);
+      }
+
+      return index;
+    }
+
+    private void pend(byte b) {
+      if (this.pendingLen == this.pending.length) {
+        this.pending = Arrays.copyOf(this.pending, this.pending.length * 2);
+      }
+
+      this.pending[this.pendingLen++] = b;
+      this.pendingAscii &= b >= 0;
+    }
+
+    private void flush() {
+      if (this.pendingLen == 0) {
+        return;
+      }
+
+      if (this.pendingAscii) {
+        for (int i = 0; i < this.pendingLen; i++) {
+          this.token.append((char) this.pending[i]);
+        }
+      } else {
+        this.token.append(new String(this.pending, 0, this.pendingLen, StringUtils.defaultCharset()));
+      }
+
+      this.pendingLen = 0;
+      this.pendingAscii = true;
+    }
+
+    private String finish() {
+      this.flush();
+      String str = this.token.toString();
+      this.token.setLength(0);
+      return str;
+    }
+
+    private static int hexValue(char c) {
+      return c < 0x80 ? Character.digit(c, 16) : -1;
+    }
   }
 
+  // bytes as latin1 chars, so the parser can walk a buffer without copying it
+  private static final class BufferChars implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    private BufferChars(ByteBuffer buffer) {
+      this(buffer, buffer.position(), buffer.remaining());
+    }
+
+    private BufferChars(ByteBuffer buffer, int offset, int length) {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (this.buffer.get(this.offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      Objects.checkFromToIndex(start, end, this.length);
+      return new BufferChars(this.buffer, this.offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder(this.length).append(this).toString();
+    }
+  }
+
+  // ascii only, which is all the encoder produces
+  private static final class BufferAppendable implements Appendable {
+    private final ByteBuffer dest;
+    private final int start;
+
+    private BufferAppendable(ByteBuffer dest) {
+      this.dest = dest;
+      this.start = dest.position();
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      if (!this.dest.hasRemaining()) {
+        throw new IOException("'dest' is too small.");
+      }
+
+      this.dest.put((byte) c);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      for (int i = start; i < end; i++) {
+        this.append(csq.charAt(i));
+      }
+
+      return this;
+    }
+
+    private IllegalArgumentException overflow() {
+      this.dest.position(this.start);
+      return new IllegalArgumentException("'dest' is too small.");
+    }
+  }
+
+  /**
+   * @deprecated opens a connection per call and blocks; use WebClient.post
+   */
   @Deprecated
   public static byte[] legacyPost(String destination, Map<String, String> postData) throws IOException {
     // TODO: check input
@@ -91,26 +484,28 @@ public class HttpUtils {
     conn.setRequestMethod("POST");
     conn.setDoOutput(true);
 
-    byte[] data = StringUtils.toBytes(HttpUtils.urlEncode(postData));
-    int length = data.length;
+    String form = HttpUtils.urlEncode(postData);
+    ByteBuffer data = BufferPool.getHeapInstance().acquire(StringUtils.utf8Length(form));
 
-    conn.setFixedLengthStreamingMode(length);
-    conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
-    conn.connect();
+    try {
+      int length = StringUtils.encode(form, data);
 
-    try (OutputStream out = conn.getOutputStream()) {
-      out.write(data);
-    }
-
-    try (InputStream in = conn.getInputStream(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-      int bytesRead = 0;
-      byte[] buffer = new byte[1024];
+      conn.setFixedLengthStreamingMode(length);
+      conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+      conn.connect();
 
-      while ((bytesRead = in.read(buffer)) >= 0) {
-        out.write(buffer, 0, bytesRead);
+      try (OutputStream out = conn.getOutputStream()) {
+        out.write(data.array(), 0, length);
       }
+    } finally {
+      BufferPool.getHeapInstance().release(data);
+    }
+
+    // the server's Content-Length is a hint, not something to allocate up front
+    int initial = Math.min(Math.max(conn.getContentLength(), 32), BufferPool.MAX_SIZE);
 
-      out.flush();
+    try (InputStream in = conn.getInputStream(); ByteArrayOutputStream out = new ByteArrayOutputStream(initial)) {
+      StreamUtils.copy(in, out);
       return out.toByteArray();
     }
   }
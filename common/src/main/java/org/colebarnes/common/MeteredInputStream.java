@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Counts what is read through it, optionally holds reads to a TokenBucket,
+ * and reports progress to a listener at most once per report interval plus
+ * once more at end of stream.
+ */
+public class MeteredInputStream extends FilterInputStream {
+	public static final long UNKNOWN_LENGTH = -1;
+	public static final long DEFAULT_REPORT_INTERVAL_MILLIS = 1000;
+
+	/**
+	 * A snapshot of the copy. bytesPerSecond covers the time since the
+	 * previous report; etaMillis is -1 while the length or the rate is
+	 * unknown.
+	 */
+	public record Progress(long bytesRead, long expectedLength, long elapsedMillis, long bytesPerSecond, long averageBytesPerSecond, long etaMillis,
+			boolean done) {
+	}
+
+	public static MeteredInputStream getInstance(InputStream in, TokenBucket bucket) {
+		if (bucket == null) {
+			throw new NullPointerException("'bucket' is null.");
+		}
+
+		return new MeteredInputStream(in, MeteredInputStream.UNKNOWN_LENGTH, bucket, null, MeteredInputStream.DEFAULT_REPORT_INTERVAL_MILLIS);
+	}
+
+	public static MeteredInputStream getInstance(InputStream in, long expectedLength, Consumer<Progress> listener) {
+		if (listener == null) {
+			throw new NullPointerException("'listener' is null.");
+		}
+
+		return new MeteredInputStream(in, expectedLength, null, listener, MeteredInputStream.DEFAULT_REPORT_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * bucket and listener are both optional.
+	 */
+	public static MeteredInputStream getInstance(InputStream in, long expectedLength, TokenBucket bucket, Consumer<Progress> listener, long reportIntervalMillis) {
+		if (reportIntervalMillis < 0) {
+			throw new IllegalArgumentException("'reportIntervalMillis' is negative.");
+		}
+
+		return new MeteredInputStream(in, expectedLength, bucket, listener, reportIntervalMillis);
+	}
+
+	private final long expectedLength;
+	private final TokenBucket bucket;
+	private final Consumer<Progress> listener;
+	private final long reportIntervalNanos;
+	private final long start;
+	private long bytesRead;
+	private long lastReport;
+	private long lastReportBytes;
+	private boolean done;
+
+	private MeteredInputStream(InputStream in, long expectedLength, TokenBucket bucket, Consumer<Progress> listener, long reportIntervalMillis) {
+		super(in);
+
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		this.expectedLength = expectedLength < 0 ? MeteredInputStream.UNKNOWN_LENGTH : expectedLength;
+		this.bucket = bucket;
+		this.listener = listener;
+		this.reportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reportIntervalMillis);
+		this.start = System.nanoTime();
+		this.lastReport = this.start;
+	}
+
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		this.throttle(b < 0 ? 0 : 1);
+		this.count(b < 0 ? -1 : 1);
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		// never take more than one burst at a time, or the rate turns lumpy
+		if (this.bucket != null && len > this.bucket.getBurstBytes()) {
+			len = (int) this.bucket.getBurstBytes();
+		}
+
+		int bytesRead = super.read(b, off, len);
+		this.throttle(bytesRead);
+		this.count(bytesRead);
+		return bytesRead;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		this.count(skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private void throttle(int bytes) throws IOException {
+		if (this.bucket == null || bytes <= 0) {
+			return;
+		}
+
+		try {
+			this.bucket.acquire(bytes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while throttled.");
+		}
+	}
+
+	private void count(long bytes) {
+		if (bytes < 0) {
+			if (!this.done) {
+				this.done = true;
+				this.report(System.nanoTime());
+			}
+
+			return;
+		}
+
+		this.bytesRead += bytes;
+
+		if (this.listener != null) {
+			long now = System.nanoTime();
+
+			if (now - this.lastReport >= this.reportIntervalNanos) {
+				this.report(now);
+			}
+		}
+	}
+
+	private void report(long now) {
+		if (this.listener == null) {
+			return;
+		}
+
+		long elapsed = now - this.start;
+		long sinceLast = now - this.lastReport;
+		long rate = MeteredInputStream.perSecond(this.bytesRead - this.lastReportBytes, sinceLast);
+		long average = MeteredInputStream.perSecond(this.bytesRead, elapsed);
+		long eta = -1;
+
+		if (this.done) {
+			eta = 0;
+		} else if (this.expectedLength >= 0 && rate > 0) {
+			eta = TimeUnit.SECONDS.toMillis(Math.max(0, this.expectedLength - this.bytesRead)) / rate;
+		}
+
+		this.lastReport = now;
+		this.lastReportBytes = this.bytesRead;
+
+		this.listener.accept(new Progress(this.bytesRead, this.expectedLength, TimeUnit.NANOSECONDS.toMillis(elapsed), rate, average, eta, this.done));
+	}
+
+	private static long perSecond(long bytes, long nanos) {
+		return nanos <= 0 ? 0 : (long) ((double) bytes * TimeUnit.SECONDS.toNanos(1) / nanos);
+	}
+}
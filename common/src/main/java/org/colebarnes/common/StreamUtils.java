@@ -21,36 +21,495 @@
 
 package org.colebarnes.common;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Checksum;
 
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 public class StreamUtils {
+	private static final LogHandle LOGGER = Logger.getHandle(StreamUtils.class);
+
 	public static int DEFAULT_BUFFER_LEN = 1024;
 
+	// fallback buffer for channels the OS cannot transfer between directly
+	public static final int DEFAULT_CHANNEL_BUFFER_LEN = 256 * 1024;
+
+	public static final int DEFAULT_PIPELINE_BUFFER_LEN = 64 * 1024;
+	public static final int DEFAULT_PIPELINE_BUFFERS = 4;
+
+	// transferTo/transferFrom may stop short, and some platforms cap a single
+	// call (2 GB on Linux) anyway
+	private static final long MAX_TRANSFER_LEN = 64L * 1024 * 1024;
+
+	private static final Checksum[] NO_CHECKSUMS = {};
+	private static final MessageDigest[] NO_DIGESTS = {};
+
 	public static long copy(InputStream in, OutputStream out) throws IOException {
 		return StreamUtils.copy(in, out, DEFAULT_BUFFER_LEN);
 	}
 
 	public static long copy(InputStream in, OutputStream out, int bufferLen) throws IOException {
-		Logger.entering();
-		// TODO: check inputs
+		return StreamUtils.copy(in, out, bufferLen, StreamUtils.NO_CHECKSUMS, StreamUtils.NO_DIGESTS);
+	}
+
+	/**
+	 * Copies and feeds every byte to the checksums on the way through, so a
+	 * CRC of the data costs no second pass. out may be null to only checksum.
+	 */
+	public static long copy(InputStream in, OutputStream out, Checksum... checksums) throws IOException {
+		return StreamUtils.copy(in, out, StreamUtils.DEFAULT_BUFFER_LEN, checksums, StreamUtils.NO_DIGESTS);
+	}
+
+	/**
+	 * Copies and feeds every byte to the digests on the way through. The
+	 * digests are updated, not finished; call digest() on them afterwards.
+	 */
+	public static long copy(InputStream in, OutputStream out, MessageDigest... digests) throws IOException {
+		return StreamUtils.copy(in, out, StreamUtils.DEFAULT_BUFFER_LEN, StreamUtils.NO_CHECKSUMS, digests);
+	}
+
+	/**
+	 * Copies no faster than the bucket allows. Share one bucket between jobs
+	 * to cap them together.
+	 */
+	public static long copy(InputStream in, OutputStream out, TokenBucket bucket) throws IOException {
+		return StreamUtils.copy(MeteredInputStream.getInstance(in, bucket), out);
+	}
+
+	public static long copy(InputStream in, OutputStream out, int bufferLen, Checksum[] checksums, MessageDigest[] digests) throws IOException {
+		StreamUtils.LOGGER.entering();
+
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (checksums == null) {
+			throw new NullPointerException("'checksums' is null.");
+		}
+
+		if (digests == null) {
+			throw new NullPointerException("'digests' is null.");
+		}
 
-		byte[] buffer = new byte[bufferLen];
+		// file to file never needs to come up into a byte[], unless someone
+		// wants to see the bytes; subclasses may override read/write, and
+		// pipes, devices and /proc files report a size of 0
+		if (in.getClass() == FileInputStream.class && out != null && out.getClass() == FileOutputStream.class && checksums.length == 0
+				&& digests.length == 0 && StreamUtils.isRegularFile((FileInputStream) in)) {
+			FileInputStream fin = (FileInputStream) in;
+			FileOutputStream fout = (FileOutputStream) out;
+			long totalBytesRead = StreamUtils.copy(fin.getChannel(), fout.getChannel());
+			StreamUtils.LOGGER.exiting(totalBytesRead);
+			return totalBytesRead;
+		}
+
+		byte[] buffer = BufferPool.getHeapInstance().acquireArray(bufferLen);
 		int bytesRead = 0;
 		long totalBytesRead = 0;
 
-		while ((bytesRead = in.read(buffer)) >= 0) {
-			if (out != null) {
-				out.write(buffer, 0, bytesRead);
+		try {
+			while ((bytesRead = in.read(buffer, 0, bufferLen)) >= 0) {
+				if (out != null) {
+					out.write(buffer, 0, bytesRead);
+				}
+
+				for (Checksum checksum : checksums) {
+					checksum.update(buffer, 0, bytesRead);
+				}
+
+				for (MessageDigest digest : digests) {
+					digest.update(buffer, 0, bytesRead);
+				}
+
+				totalBytesRead += bytesRead;
 			}
+		} finally {
+			BufferPool.getHeapInstance().release(buffer);
+		}
+
+		StreamUtils.LOGGER.exiting(totalBytesRead);
+		return totalBytesRead;
+	}
 
-			totalBytesRead += bytesRead;
+	public static long pipelinedCopy(InputStream in, OutputStream out) throws IOException {
+		return StreamUtils.pipelinedCopy(in, out, StreamUtils.DEFAULT_PIPELINE_BUFFER_LEN, StreamUtils.DEFAULT_PIPELINE_BUFFERS);
+	}
+
+	/**
+	 * Like copy(), but reads and writes on two virtual threads that hand a ring
+	 * of bufferCount buffers back and forth, so a slow source and a slow sink
+	 * overlap instead of taking turns. The first failure on either side stops
+	 * both and is rethrown here. Interrupting the caller cancels the copy with
+	 * an InterruptedIOException; it still waits for a reader blocked in read()
+	 * to return, so neither stream is touched after this method exits.
+	 */
+	public static long pipelinedCopy(InputStream in, OutputStream out, int bufferLen, int bufferCount) throws IOException {
+		StreamUtils.LOGGER.entering();
+
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (bufferLen <= 0) {
+			throw new IllegalArgumentException("'bufferLen' must be positive.");
 		}
 
-		Logger.exiting(totalBytesRead);
+		if (bufferCount < 2) {
+			throw new IllegalArgumentException("'bufferCount' must be at least 2.");
+		}
+
+		Pipeline pipeline = new Pipeline(in, out, bufferLen, bufferCount);
+		long totalBytesWritten = pipeline.run();
+
+		StreamUtils.LOGGER.exiting(totalBytesWritten);
+		return totalBytesWritten;
+	}
+
+	public static long copy(Path source, Path target) throws IOException {
+		if (source == null) {
+			throw new NullPointerException("'source' is null.");
+		}
+
+		if (target == null) {
+			throw new NullPointerException("'target' is null.");
+		}
+
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			return StreamUtils.copy(in, out);
+		}
+	}
+
+	public static long copy(FileChannel in, FileChannel out) throws IOException {
+		return StreamUtils.copy(in, (WritableByteChannel) out);
+	}
+
+	/**
+	 * Copies from the channel's position until it reads end of file, which
+	 * need not be size() for /proc and device files, and leaves the position
+	 * there. Uses transferTo, so file to file and file to socket copies stay
+	 * in the kernel where the OS supports it.
+	 */
+	public static long copy(FileChannel in, WritableByteChannel out) throws IOException {
+		StreamUtils.LOGGER.entering();
+		StreamUtils.checkChannels(in, out);
+
+		long position = in.position();
+		long totalBytesRead = 0;
+		ByteBuffer buffer = null;
+
+		try {
+			while (true) {
+				long transferred = in.transferTo(position, StreamUtils.MAX_TRANSFER_LEN, out);
+
+				if (transferred > 0) {
+					position += transferred;
+					totalBytesRead += transferred;
+					continue;
+				}
+
+				// 0 at the end of the file, but also while a pipe or socket
+				// catches up, or for files whose size() is 0 like /proc; a
+				// plain read tells them apart and keeps things moving
+				if (buffer == null) {
+					buffer = BufferPool.getDirectInstance().acquire(StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN);
+				}
+
+				buffer.clear();
+				int bytesRead = in.read(buffer, position);
+
+				if (bytesRead < 0) {
+					break;
+				}
+
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					out.write(buffer);
+				}
+
+				position += bytesRead;
+				totalBytesRead += bytesRead;
+			}
+		} finally {
+			if (buffer != null) {
+				BufferPool.getDirectInstance().release(buffer);
+			}
+		}
+
+		in.position(position);
+
+		StreamUtils.LOGGER.exiting(totalBytesRead);
 		return totalBytesRead;
 	}
+
+	/**
+	 * Copies everything readable from the channel into the file at its
+	 * position, which is advanced past the copied bytes. Uses transferFrom.
+	 */
+	public static long copy(ReadableByteChannel in, FileChannel out) throws IOException {
+		StreamUtils.LOGGER.entering();
+		StreamUtils.checkChannels(in, out);
+
+		if (in instanceof FileChannel fin) {
+			long totalBytesRead = StreamUtils.copy(fin, out);
+			StreamUtils.LOGGER.exiting(totalBytesRead);
+			return totalBytesRead;
+		}
+
+		long position = out.position();
+		long totalBytesRead = 0;
+		ByteBuffer probe = null;
+
+		try {
+			while (true) {
+				long transferred = out.transferFrom(in, position, StreamUtils.MAX_TRANSFER_LEN);
+
+				if (transferred > 0) {
+					position += transferred;
+					totalBytesRead += transferred;
+					continue;
+				}
+
+				// transferFrom cannot tell end of stream from an empty read, ask
+				// the channel directly
+				if (probe == null) {
+					probe = BufferPool.getDirectInstance().acquire(StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN);
+				}
+
+				probe.clear();
+				int bytesRead = in.read(probe);
+
+				if (bytesRead < 0) {
+					break;
+				}
+
+				probe.flip();
+				while (probe.hasRemaining()) {
+					position += out.write(probe, position);
+				}
+
+				totalBytesRead += bytesRead;
+			}
+		} finally {
+			if (probe != null) {
+				BufferPool.getDirectInstance().release(probe);
+			}
+		}
+
+		out.position(position);
+
+		StreamUtils.LOGGER.exiting(totalBytesRead);
+		return totalBytesRead;
+	}
+
+	/**
+	 * Picks transferTo / transferFrom when either side is a file, otherwise
+	 * pumps through a direct buffer. Channels must be in blocking mode.
+	 */
+	public static long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		if (in instanceof FileChannel fin) {
+			return StreamUtils.copy(fin, out);
+		}
+
+		if (out instanceof FileChannel fout) {
+			return StreamUtils.copy(in, fout);
+		}
+
+		StreamUtils.LOGGER.entering();
+		StreamUtils.checkChannels(in, out);
+
+		long totalBytesRead = StreamUtils.copyBuffered(in, out);
+
+		StreamUtils.LOGGER.exiting(totalBytesRead);
+		return totalBytesRead;
+	}
+
+	private static boolean isRegularFile(FileInputStream in) throws IOException {
+		return in.getChannel().size() > 0;
+	}
+
+	private static long copyBuffered(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer buffer = BufferPool.getDirectInstance().acquire(StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN);
+		long totalBytesRead = 0;
+
+		try {
+			while (in.read(buffer) >= 0 || buffer.position() > 0) {
+				buffer.flip();
+				totalBytesRead += out.write(buffer);
+				buffer.compact();
+			}
+		} finally {
+			BufferPool.getDirectInstance().release(buffer);
+		}
+
+		return totalBytesRead;
+	}
+
+	private static void checkChannels(Channel in, Channel out) {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		if ((in instanceof SelectableChannel sin && !sin.isBlocking()) || (out instanceof SelectableChannel sout && !sout.isBlocking())) {
+			throw new IllegalArgumentException("Channels must be in blocking mode.");
+		}
+	}
+
+	private static final class Pipeline {
+		private static final class Chunk {
+			private final byte[] bytes;
+			private int length;
+
+			private Chunk(byte[] bytes) {
+				this.bytes = bytes;
+			}
+		}
+
+		private final InputStream in;
+		private final OutputStream out;
+		private final BlockingQueue<Chunk> free;
+		private final BlockingQueue<Chunk> filled;
+		private final Chunk[] chunks;
+		private final int bufferLen;
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private Thread reader;
+		private Thread writer;
+		private long totalBytesWritten;
+
+		private Pipeline(InputStream in, OutputStream out, int bufferLen, int bufferCount) {
+			this.in = in;
+			this.out = out;
+			this.free = new ArrayBlockingQueue<>(bufferCount);
+			this.filled = new ArrayBlockingQueue<>(bufferCount);
+
+			this.chunks = new Chunk[bufferCount];
+			this.bufferLen = bufferLen;
+
+			for (int i = 0; i < bufferCount; i++) {
+				this.chunks[i] = new Chunk(BufferPool.getHeapInstance().acquireArray(bufferLen));
+				this.free.add(this.chunks[i]);
+			}
+		}
+
+		private long run() throws IOException {
+			this.reader = Thread.ofVirtual().name("copy-reader").unstarted(this::read);
+			this.writer = Thread.ofVirtual().name("copy-writer").unstarted(this::write);
+			this.reader.start();
+			this.writer.start();
+
+			try {
+				this.reader.join();
+				this.writer.join();
+			} catch (InterruptedException e) {
+				this.fail(new InterruptedIOException("Copy interrupted."));
+				this.joinUninterruptibly();
+				Thread.currentThread().interrupt();
+			}
+
+			// both sides are done with them now
+			for (Chunk chunk : this.chunks) {
+				BufferPool.getHeapInstance().release(chunk.bytes);
+			}
+
+			Throwable t = this.failure.get();
+
+			if (t == null) {
+				return this.totalBytesWritten;
+			} else if (t instanceof IOException e) {
+				throw e;
+			} else if (t instanceof RuntimeException e) {
+				throw e;
+			} else if (t instanceof Error e) {
+				throw e;
+			}
+
+			throw new IOException("Error copying stream.", t);
+		}
+
+		private void read() {
+			try {
+				Chunk chunk;
+
+				do {
+					chunk = this.free.take();
+					chunk.length = this.in.read(chunk.bytes, 0, this.bufferLen);
+					this.filled.put(chunk);
+				} while (chunk.length >= 0);
+			} catch (InterruptedException e) {
+				// cancelled, whoever interrupted us recorded why
+			} catch (Throwable t) {
+				this.fail(t);
+			}
+		}
+
+		private void write() {
+			try {
+				Chunk chunk;
+
+				// the reader may have failed before this thread was started,
+				// when an interrupt does not stick
+				if (this.failure.get() != null) {
+					return;
+				}
+
+				while ((chunk = this.filled.take()).length >= 0) {
+					if (this.out != null) {
+						this.out.write(chunk.bytes, 0, chunk.length);
+					}
+
+					this.totalBytesWritten += chunk.length;
+					this.free.put(chunk);
+				}
+
+			} catch (InterruptedException e) {
+				// cancelled, whoever interrupted us recorded why
+			} catch (Throwable t) {
+				this.fail(t);
+			}
+		}
+
+		// first failure wins, then both sides are woken up to stop
+		private void fail(Throwable t) {
+			if (this.failure.compareAndSet(null, t)) {
+				this.reader.interrupt();
+				this.writer.interrupt();
+			}
+		}
+
+		private void joinUninterruptibly() {
+			boolean done = false;
+
+			while (!done) {
+				try {
+					this.reader.join();
+					this.writer.join();
+					done = true;
+				} catch (InterruptedException e) {
+					// keep waiting, the flag is restored by the caller
+				}
+			}
+		}
+	}
 }
@@ -21,10 +21,19 @@
 
 package org.colebarnes.common;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 
 public class StringUtils {
+  // the last encoder and decoder each platform thread used
+  private static final ThreadLocal<Codecs> CODECS = ThreadLocal.withInitial(Codecs::new);
+
   public static String fromBytes(byte[] data) {
     return StringUtils.fromBytes(data, StringUtils.defaultCharset());
   }
@@ -43,6 +52,197 @@ public class StringUtils {
     return str.getBytes(charset);
   }
 
+  /**
+   * Encodes str into dest at its position, advancing it, and returns the
+   * number of bytes written. Malformed input is replaced the way
+   * String.getBytes does. If dest runs out of room it is left as it was.
+   */
+  public static int encode(CharSequence str, ByteBuffer dest) {
+    return StringUtils.encode(str, dest, StringUtils.defaultCharset());
+  }
+
+  public static int encode(CharSequence str, ByteBuffer dest, Charset charset) {
+    if (str == null) {
+      throw new NullPointerException("'str' is null.");
+    }
+
+    if (dest == null) {
+      throw new NullPointerException("'dest' is null.");
+    }
+
+    if (charset == null) {
+      throw new NullPointerException("'charset' is null.");
+    }
+
+    int start = dest.position();
+    int length = str.length();
+    int i = 0;
+
+    // ascii is the same bytes in all three, so it skips the encoder
+    if (StringUtils.isAsciiCompatible(charset)) {
+      int end = Math.min(length, dest.remaining());
+
+      if (dest.hasArray()) {
+        byte[] array = dest.array();
+        int offset = dest.arrayOffset() + start;
+
+        for (char c; i < end && (c = str.charAt(i)) < 0x80; i++) {
+          array[offset + i] = (byte) c;
+        }
+
+        dest.position(start + i);
+      } else {
+        for (char c; i < end && (c = str.charAt(i)) < 0x80; i++) {
+          dest.put((byte) c);
+        }
+      }
+    }
+
+    if (i < length && charset == StandardCharsets.UTF_8) {
+      if (!StringUtils.encodeUtf8(str, i, dest)) {
+        dest.position(start);
+        throw new IllegalArgumentException("'dest' is too small.");
+      }
+    } else if (i < length) {
+      CharsetEncoder encoder = StringUtils.encoder(charset);
+      CoderResult result = encoder.encode(CharBuffer.wrap(str, i, length), dest, true);
+
+      if (!result.isOverflow()) {
+        result = encoder.flush(dest);
+      }
+
+      if (result.isOverflow()) {
+        dest.position(start);
+        throw new IllegalArgumentException("'dest' is too small.");
+      }
+    }
+
+    return dest.position() - start;
+  }
+
+  /**
+   * Decodes everything left in src, advancing it.
+   */
+  public static String decode(ByteBuffer src) {
+    return StringUtils.decode(src, StringUtils.defaultCharset());
+  }
+
+  public static String decode(ByteBuffer src, Charset charset) {
+    if (src == null) {
+      throw new NullPointerException("'src' is null.");
+    }
+
+    if (charset == null) {
+      throw new NullPointerException("'charset' is null.");
+    }
+
+    int length = src.remaining();
+
+    // the String constructor has its own ascii fast path, so feed it an array
+    if (src.hasArray()) {
+      String str = new String(src.array(), src.arrayOffset() + src.position(), length, charset);
+      src.position(src.limit());
+      return str;
+    }
+
+    byte[] bytes = BufferPool.getHeapInstance().acquireArray(length);
+
+    try {
+      src.get(bytes, 0, length);
+      return new String(bytes, 0, length, charset);
+    } finally {
+      BufferPool.getHeapInstance().release(bytes);
+    }
+  }
+
+  /**
+   * Decodes everything left in src into dest, advancing both, and returns the
+   * number of chars written. If dest runs out of room both are left as they
+   * were.
+   */
+  public static int decode(ByteBuffer src, CharBuffer dest, Charset charset) {
+    if (src == null) {
+      throw new NullPointerException("'src' is null.");
+    }
+
+    if (dest == null) {
+      throw new NullPointerException("'dest' is null.");
+    }
+
+    if (charset == null) {
+      throw new NullPointerException("'charset' is null.");
+    }
+
+    int srcStart = src.position();
+    int destStart = dest.position();
+
+    if (StringUtils.isAsciiCompatible(charset)) {
+      int end = srcStart + Math.min(src.remaining(), dest.remaining());
+      int i = srcStart;
+
+      for (byte b; i < end && (b = src.get(i)) >= 0; i++) {
+        dest.put((char) b);
+      }
+
+      src.position(i);
+    }
+
+    if (src.hasRemaining()) {
+      CharsetDecoder decoder = StringUtils.decoder(charset);
+      CoderResult result = decoder.decode(src, dest, true);
+
+      if (!result.isOverflow()) {
+        result = decoder.flush(dest);
+      }
+
+      if (result.isOverflow()) {
+        src.position(srcStart);
+        dest.position(destStart);
+        throw new IllegalArgumentException("'dest' is too small.");
+      }
+    }
+
+    return dest.position() - destStart;
+  }
+
+  /**
+   * The number of bytes encode() will write for str in UTF-8, for sizing
+   * buffers without encoding twice.
+   */
+  public static int utf8Length(CharSequence str) {
+    if (str == null) {
+      throw new NullPointerException("'str' is null.");
+    }
+
+    int length = str.length();
+    long bytes = length;
+
+    for (int i = 0; i < length; i++) {
+      char c = str.charAt(i);
+
+      if (c < 0x80) {
+        continue;
+      }
+
+      if (c < 0x800) {
+        bytes += 1;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+        // four bytes for the pair
+        bytes += 2;
+        i++;
+      } else if (!Character.isSurrogate(c)) {
+        bytes += 2;
+      }
+      // a lone surrogate becomes a single '?'
+    }
+
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("'str' is too long to encode.");
+    }
+
+    return (int) bytes;
+  }
+
   public static boolean isNullOrBlank(String str) {
     return str == null || str.isBlank();
   }
@@ -50,4 +250,101 @@ public class StringUtils {
   public static Charset defaultCharset() {
     return StandardCharsets.UTF_8;
   }
+
+  // the rest of str from i, by hand; the generic encoder costs a CharBuffer
+  // and several times the time for the few non-ascii chars in a header
+  private static boolean encodeUtf8(CharSequence str, int i, ByteBuffer dest) {
+    int length = str.length();
+
+    for (; i < length; i++) {
+      char c = str.charAt(i);
+
+      if (c < 0x80) {
+        if (!dest.hasRemaining()) {
+          return false;
+        }
+
+        dest.put((byte) c);
+      } else if (c < 0x800) {
+        if (dest.remaining() < 2) {
+          return false;
+        }
+
+        dest.put((byte) (0xC0 | (c >> 6)));
+        dest.put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+        if (dest.remaining() < 4) {
+          return false;
+        }
+
+        int cp = Character.toCodePoint(c, str.charAt(++i));
+        dest.put((byte) (0xF0 | (cp >> 18)));
+        dest.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+        dest.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+        dest.put((byte) (0x80 | (cp & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        // unpaired, replaced like String.getBytes does
+        if (!dest.hasRemaining()) {
+          return false;
+        }
+
+        dest.put((byte) '?');
+      } else {
+        if (dest.remaining() < 3) {
+          return false;
+        }
+
+        dest.put((byte) (0xE0 | (c >> 12)));
+        dest.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        dest.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isAsciiCompatible(Charset charset) {
+    return charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII || charset == StandardCharsets.ISO_8859_1;
+  }
+
+  private static CharsetEncoder encoder(Charset charset) {
+    if (Thread.currentThread().isVirtual()) {
+      return StringUtils.newEncoder(charset);
+    }
+
+    Codecs codecs = StringUtils.CODECS.get();
+
+    if (codecs.encoder == null || !codecs.encoder.charset().equals(charset)) {
+      codecs.encoder = StringUtils.newEncoder(charset);
+    }
+
+    return codecs.encoder.reset();
+  }
+
+  private static CharsetDecoder decoder(Charset charset) {
+    if (Thread.currentThread().isVirtual()) {
+      return StringUtils.newDecoder(charset);
+    }
+
+    Codecs codecs = StringUtils.CODECS.get();
+
+    if (codecs.decoder == null || !codecs.decoder.charset().equals(charset)) {
+      codecs.decoder = StringUtils.newDecoder(charset);
+    }
+
+    return codecs.decoder.reset();
+  }
+
+  private static CharsetEncoder newEncoder(Charset charset) {
+    return charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  private static CharsetDecoder newDecoder(Charset charset) {
+    return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  private static final class Codecs {
+    private CharsetEncoder encoder;
+    private CharsetDecoder decoder;
+  }
 }
@@ -21,7 +21,16 @@
 
 package org.colebarnes.common;
 
+import java.lang.StackWalker.StackFrame;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
 public class ThreadUtils {
+	private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+	private static final ConcurrentMap<CallSiteKey, CallSite> CALL_SITES = new ConcurrentHashMap<>();
+
 	public static long threadId() {
 		return Thread.currentThread().threadId();
 	}
@@ -51,13 +60,102 @@ public class ThreadUtils {
 	}
 
 	public static StackTraceElement getCaller(int level) {
-		StackTraceElement element = null;
-		StackTraceElement[] elements = Thread.currentThread().getStackTrace();
+		// level is an index into Thread.getStackTrace(), which starts with
+		// getStackTrace itself; the walker starts with this method
+		Optional<StackFrame> frame = ThreadUtils.WALKER.walk(s -> s.skip(Math.max(level - 1, 0)).findFirst());
+		return frame.map(StackFrame::toStackTraceElement).orElse(null);
+	}
+
+	/**
+	 * Returns the first frame below ThreadUtils whose class is not matched by
+	 * 'skip', walking only as many frames as needed. The returned call site is
+	 * cached, so repeated calls from the same line share one instance.
+	 */
+	public static CallSite getCallSite(Predicate<Class<?>> skip) {
+		if (skip == null) {
+			throw new NullPointerException("'skip' is null.");
+		}
+
+		Optional<StackFrame> frame = ThreadUtils.WALKER.walk(s -> s.filter(f -> {
+			Class<?> clazz = f.getDeclaringClass();
+			return clazz != ThreadUtils.class && !skip.test(clazz);
+		}).findFirst());
+
+		if (frame.isEmpty()) {
+			return CallSite.UNKNOWN;
+		}
 
-		if (elements != null && elements.length >= level) {
-			element = elements[level];
+		StackFrame f = frame.get();
+		CallSiteKey key = new CallSiteKey(f.getDeclaringClass(), f.getMethodName(), f.getDescriptor(), f.getByteCodeIndex());
+		CallSite callSite = ThreadUtils.CALL_SITES.get(key);
+
+		if (callSite == null) {
+			callSite = ThreadUtils.CALL_SITES.computeIfAbsent(key, k -> new CallSite(f.toStackTraceElement()));
 		}
 
-		return element;
+		return callSite;
+	}
+
+	private record CallSiteKey(Class<?> declaringClass, String methodName, String descriptor, int bci) {
+	}
+
+	public static final class CallSite {
+		public static final CallSite UNKNOWN = new CallSite(null);
+
+		private final String className;
+		private final String methodName;
+		private final String fileName;
+		private final int lineNumber;
+		private final String methodString;
+		private final String locationString;
+
+		private CallSite(StackTraceElement element) {
+			if (element == null) {
+				this.className = "caller";
+				this.methodName = "unknown";
+				this.fileName = null;
+				this.lineNumber = -1;
+				this.methodString = "caller.unknown";
+				this.locationString = "caller.unknown";
+			} else {
+				this.className = element.getClassName();
+				this.methodName = element.getMethodName();
+				this.fileName = element.getFileName();
+				this.lineNumber = element.getLineNumber();
+				this.methodString = this.className + '.' + this.methodName;
+				this.locationString = this.methodString + ':' + this.fileName + ':' + this.lineNumber;
+			}
+		}
+
+		public String getClassName() {
+			return this.className;
+		}
+
+		public String getMethodName() {
+			return this.methodName;
+		}
+
+		public String getFileName() {
+			return this.fileName;
+		}
+
+		public int getLineNumber() {
+			return this.lineNumber;
+		}
+
+		/** class.method */
+		public String getMethodString() {
+			return this.methodString;
+		}
+
+		/** class.method:file:line */
+		public String getLocationString() {
+			return this.locationString;
+		}
+
+		@Override
+		public String toString() {
+			return this.locationString;
+		}
 	}
 }
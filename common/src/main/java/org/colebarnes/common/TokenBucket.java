@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte rate limiter that any number of threads can share. Each acquire()
+ * reserves its slot up front (virtual scheduling, as in GCRA), so callers
+ * sleep for their own share instead of spinning on a counter, and up to
+ * burstBytes can go through at once after an idle period.
+ */
+public final class TokenBucket {
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	public static TokenBucket getInstance(long bytesPerSecond) {
+		// a tenth of a second worth of burst
+		return TokenBucket.getInstance(bytesPerSecond, Math.max(1, bytesPerSecond / 10));
+	}
+
+	public static TokenBucket getInstance(long bytesPerSecond, long burstBytes) {
+		if (bytesPerSecond <= 0) {
+			throw new IllegalArgumentException("'bytesPerSecond' must be positive.");
+		}
+
+		if (burstBytes <= 0) {
+			throw new IllegalArgumentException("'burstBytes' must be positive.");
+		}
+
+		return new TokenBucket(bytesPerSecond, burstBytes);
+	}
+
+	private final long bytesPerSecond;
+	private final long burstBytes;
+	private final long burstNanos;
+	// when the bucket will have paid off every reservation so far
+	private final AtomicLong theoreticalArrival;
+
+	private TokenBucket(long bytesPerSecond, long burstBytes) {
+		this.bytesPerSecond = bytesPerSecond;
+		this.burstBytes = burstBytes;
+		this.burstNanos = this.nanosFor(burstBytes);
+		this.theoreticalArrival = new AtomicLong(System.nanoTime());
+	}
+
+	public long getBytesPerSecond() {
+		return this.bytesPerSecond;
+	}
+
+	public long getBurstBytes() {
+		return this.burstBytes;
+	}
+
+	/**
+	 * Blocks until bytes may go through.
+	 */
+	public void acquire(long bytes) throws InterruptedException {
+		long waitNanos = this.reserve(bytes);
+
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	/**
+	 * Takes bytes without waiting if the bucket allows it right now.
+	 */
+	public boolean tryAcquire(long bytes) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("'bytes' is negative.");
+		}
+
+		long cost = this.nanosFor(bytes);
+
+		while (true) {
+			long now = System.nanoTime();
+			long current = this.theoreticalArrival.get();
+			long next = Math.max(current, now) + cost;
+
+			if (next - this.burstNanos - now > 0) {
+				return false;
+			}
+
+			if (this.theoreticalArrival.compareAndSet(current, next)) {
+				return true;
+			}
+		}
+	}
+
+	// books the bytes and returns how long the caller owes
+	private long reserve(long bytes) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("'bytes' is negative.");
+		}
+
+		long cost = this.nanosFor(bytes);
+
+		while (true) {
+			long now = System.nanoTime();
+			long current = this.theoreticalArrival.get();
+			long next = Math.max(current, now) + cost;
+
+			if (this.theoreticalArrival.compareAndSet(current, next)) {
+				return next - this.burstNanos - now;
+			}
+		}
+	}
+
+	private long nanosFor(long bytes) {
+		// double keeps multi GB reservations from overflowing
+		return (long) ((double) bytes * TokenBucket.NANOS_PER_SECOND / this.bytesPerSecond);
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a stream of requests through a WebClient, one virtual thread each,
+ * with at most maxInFlight outstanding overall and maxPerHost against any one
+ * host. Failed attempts are retried with exponential backoff and full
+ * jitter: idempotent requests on any I/O error, 429 or 5xx, POST and PATCH
+ * only when the server cannot have acted on them, i.e. a failed connect,
+ * 429 or 503, so a slow server never sees a form twice. Results come back in
+ * completion order as they finish.
+ * 
+ * The overall limit belongs to the executor, so batches running side by
+ * side share it; the per-host limit belongs to one batch. A batch also holds
+ * at most maxInFlight results its caller has not taken yet, so a slow
+ * consumer pauses sending rather than piling up bodies. Requests start in
+ * stream order: one saturated host holds up the requests behind it in the
+ * same batch, but no slot other batches could use.
+ */
+public final class BulkExecutor {
+	public static final String PROP_MAX_IN_FLIGHT = "org.colebarnes.http.bulk.max.in.flight";
+	public static final String PROP_MAX_IN_FLIGHT_DFLT = "64";
+
+	public static final String PROP_MAX_PER_HOST = "org.colebarnes.http.bulk.max.per.host";
+	public static final String PROP_MAX_PER_HOST_DFLT = "16";
+
+	public static final String PROP_MAX_ATTEMPTS = "org.colebarnes.http.bulk.max.attempts";
+	public static final String PROP_MAX_ATTEMPTS_DFLT = "3";
+
+	public static final String PROP_BACKOFF_MILLIS = "org.colebarnes.http.bulk.backoff.millis";
+	public static final String PROP_BACKOFF_MILLIS_DFLT = "200";
+
+	private static final long MAX_BACKOFF_MILLIS = 30_000;
+	private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE");
+
+	/**
+	 * The outcome of one request: the body of a 2xx response, or the error
+	 * of the last attempt.
+	 */
+	public record Result(HttpRequest request, byte[] body, IOException error, int attempts) {
+		public boolean isSuccess() {
+			return this.error == null;
+		}
+	}
+
+	// posted by the feeder after its last submission
+	private record End(long submitted, Throwable failure) {
+	}
+
+	/**
+	 * An executor on the shared WebClient with limits from the system
+	 * properties.
+	 */
+	public static BulkExecutor getInstance() {
+		return BulkExecutor.getInstance(WebClient.getInstance(), Integer.parseInt(System.getProperty(BulkExecutor.PROP_MAX_IN_FLIGHT, BulkExecutor.PROP_MAX_IN_FLIGHT_DFLT)),
+				Integer.parseInt(System.getProperty(BulkExecutor.PROP_MAX_PER_HOST, BulkExecutor.PROP_MAX_PER_HOST_DFLT)),
+				Integer.parseInt(System.getProperty(BulkExecutor.PROP_MAX_ATTEMPTS, BulkExecutor.PROP_MAX_ATTEMPTS_DFLT)),
+				Duration.ofMillis(Long.parseLong(System.getProperty(BulkExecutor.PROP_BACKOFF_MILLIS, BulkExecutor.PROP_BACKOFF_MILLIS_DFLT))));
+	}
+
+	public static BulkExecutor getInstance(WebClient client, int maxInFlight, int maxPerHost, int maxAttempts, Duration backoff) {
+		if (client == null) {
+			throw new NullPointerException("'client' is null.");
+		}
+
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("'maxInFlight' must be positive.");
+		}
+
+		if (maxPerHost <= 0) {
+			throw new IllegalArgumentException("'maxPerHost' must be positive.");
+		}
+
+		if (maxAttempts <= 0) {
+			throw new IllegalArgumentException("'maxAttempts' must be positive.");
+		}
+
+		if (backoff == null) {
+			throw new NullPointerException("'backoff' is null.");
+		}
+
+		return new BulkExecutor(client, maxInFlight, maxPerHost, maxAttempts, backoff.toMillis());
+	}
+
+	private final WebClient client;
+	private final Semaphore inFlight;
+	private final int maxInFlight;
+	private final int maxPerHost;
+	private final int maxAttempts;
+	private final long backoffMillis;
+
+	private BulkExecutor(WebClient client, int maxInFlight, int maxPerHost, int maxAttempts, long backoffMillis) {
+		this.client = client;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.maxInFlight = maxInFlight;
+		this.maxPerHost = maxPerHost;
+		this.maxAttempts = maxAttempts;
+		this.backoffMillis = backoffMillis;
+	}
+
+	/**
+	 * Posts every form to uri, see execute.
+	 */
+	public Stream<Result> postAll(URI uri, Stream<Map<String, String>> forms) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		if (forms == null) {
+			throw new NullPointerException("'forms' is null.");
+		}
+
+		return this.execute(forms.map(form -> this.client.newPost(uri, form)));
+	}
+
+	/**
+	 * Starts sending requests right away, pulling from the stream only as
+	 * slots free up, and returns the results in completion order. Closing the
+	 * returned stream stops pulling new requests; ones already sent still
+	 * finish. A failure of the source stream is rethrown once the results of
+	 * everything sent before it have been returned.
+	 */
+	public Stream<Result> execute(Stream<HttpRequest> requests) {
+		if (requests == null) {
+			throw new NullPointerException("'requests' is null.");
+		}
+
+		BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+		Semaphore untaken = new Semaphore(this.maxInFlight);
+		Thread feeder = Thread.ofVirtual().name("bulk-feeder").start(() -> this.feed(requests, results, untaken));
+		Iterator<Result> iterator = new ResultIterator(results, untaken, feeder);
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false).onClose(feeder::interrupt);
+	}
+
+	private void feed(Stream<HttpRequest> requests, BlockingQueue<Object> results, Semaphore untaken) {
+		Map<String, Semaphore> hosts = new HashMap<>();
+		long submitted = 0;
+		Throwable failure = null;
+
+		try (requests) {
+			Iterator<HttpRequest> iterator = requests.iterator();
+
+			while (iterator.hasNext()) {
+				HttpRequest request = iterator.next();
+
+				if (request == null) {
+					throw new NullPointerException("'request' is null.");
+				}
+
+				// released by the iterator once the caller takes the result
+				untaken.acquire();
+
+				// host first, so requests queued on a busy host hold no global slot
+				String authority = request.uri().getAuthority();
+				Semaphore host = hosts.computeIfAbsent(authority == null ? "" : authority, k -> new Semaphore(this.maxPerHost));
+				host.acquire();
+
+				try {
+					this.inFlight.acquire();
+				} catch (InterruptedException e) {
+					host.release();
+					throw e;
+				}
+
+				Thread.ofVirtual().name("bulk-request").start(() -> {
+					try {
+						results.add(this.run(request));
+					} finally {
+						this.inFlight.release();
+						host.release();
+					}
+				});
+
+				submitted++;
+			}
+		} catch (InterruptedException e) {
+			// the result stream was closed
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		} finally {
+			results.add(new End(submitted, failure));
+		}
+	}
+
+	private Result run(HttpRequest request) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return new Result(request, this.client.request(request), null, attempt);
+			} catch (IOException e) {
+				if (attempt >= this.maxAttempts || !BulkExecutor.isRetryable(request, e)) {
+					return new Result(request, null, e, attempt);
+				}
+
+				try {
+					Thread.sleep(this.backoff(attempt));
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return new Result(request, null, e, attempt);
+				}
+			} catch (RuntimeException | Error e) {
+				// e.g. a failing BodyPublisher; the caller still gets a result
+				return new Result(request, null, new IOException(String.format("Request to %s failed.", request.uri()), e), attempt);
+			}
+		}
+	}
+
+	// full jitter: anywhere up to the exponential step, so retries spread out
+	private long backoff(int attempt) {
+		long step = Math.min(BulkExecutor.MAX_BACKOFF_MILLIS, this.backoffMillis << Math.min(attempt - 1, 20));
+		return ThreadLocalRandom.current().nextLong(step + 1);
+	}
+
+	private static boolean isRetryable(HttpRequest request, IOException e) {
+		boolean idempotent = BulkExecutor.IDEMPOTENT_METHODS.contains(request.method());
+
+		if (e instanceof HttpStatusException status) {
+			int code = status.getStatusCode();
+			return code == 429 || code == 503 || (idempotent && code >= 500);
+		}
+
+		// anything else may have failed after the request reached the server
+		return idempotent || e instanceof ConnectException || e instanceof HttpConnectTimeoutException;
+	}
+
+	private static final class ResultIterator implements Iterator<Result> {
+		private final BlockingQueue<Object> results;
+		private final Semaphore untaken;
+		private final Thread feeder;
+		private long taken;
+		private End end;
+		private Result next;
+
+		private ResultIterator(BlockingQueue<Object> results, Semaphore untaken, Thread feeder) {
+			this.results = results;
+			this.untaken = untaken;
+			this.feeder = feeder;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null) {
+				if (this.end != null && this.taken == this.end.submitted()) {
+					if (this.end.failure() instanceof Error error) {
+						throw error;
+					}
+
+					if (this.end.failure() != null) {
+						throw (RuntimeException) this.end.failure();
+					}
+
+					return false;
+				}
+
+				try {
+					Object item = this.results.take();
+
+					if (item instanceof End e) {
+						this.end = e;
+					} else {
+						this.next = (Result) item;
+					}
+				} catch (InterruptedException e) {
+					this.feeder.interrupt();
+					Thread.currentThread().interrupt();
+					throw new CancellationException("Interrupted while waiting for results.");
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public Result next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			Result result = this.next;
+			this.next = null;
+			this.taken++;
+			this.untaken.release();
+			return result;
+		}
+	}
+}
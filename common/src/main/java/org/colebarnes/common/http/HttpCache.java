@@ -0,0 +1,548 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.colebarnes.common.ByteUtils;
+
+/**
+ * Private cache for GETs made through a WebClient. It keeps an in-memory LRU
+ * and an optional directory on disk, each bounded by size. Responses are
+ * stored and served according to Cache-Control (no-store, no-cache, max-age),
+ * Expires and Age. When neither gives a lifetime, the cache falls back to a
+ * tenth of the time since Last-Modified. A stale entry with an ETag or
+ * Last-Modified is revalidated with If-None-Match / If-Modified-Since, so an
+ * unchanged resource costs a 304 instead of the whole body.
+ */
+public final class HttpCache {
+	public static final String PROP_MEMORY_BYTES = "org.colebarnes.http.cache.memory.bytes";
+	public static final String PROP_MEMORY_BYTES_DFLT = "67108864";
+
+	private static final int DISK_MAGIC = 0x48434531;
+	private static final String DISK_SUFFIX = ".entry";
+	// rough cost of an entry besides its body
+	private static final int ENTRY_OVERHEAD = 256;
+	// cap for the Last-Modified heuristic
+	private static final long MAX_HEURISTIC_MILLIS = 24L * 60 * 60 * 1000;
+
+	private record Entry(URI uri, byte[] body, String etag, String lastModified, long freshUntil) {
+		private long size() {
+			return (long) this.body.length + HttpCache.ENTRY_OVERHEAD;
+		}
+
+		private boolean hasValidators() {
+			return this.etag != null || this.lastModified != null;
+		}
+	}
+
+	/**
+	 * A memory only cache on the shared WebClient, sized by the system
+	 * property.
+	 */
+	public static HttpCache getInstance() {
+		return HttpCache.getInstance(WebClient.getInstance(), Long.parseLong(System.getProperty(HttpCache.PROP_MEMORY_BYTES, HttpCache.PROP_MEMORY_BYTES_DFLT)));
+	}
+
+	public static HttpCache getInstance(WebClient client, long maxMemoryBytes) {
+		return HttpCache.getInstance(client, maxMemoryBytes, null, 0);
+	}
+
+	/**
+	 * Adds a disk tier in dir, which may hold entries from an earlier run.
+	 */
+	public static HttpCache getInstance(WebClient client, long maxMemoryBytes, Path dir, long maxDiskBytes) {
+		if (client == null) {
+			throw new NullPointerException("'client' is null.");
+		}
+
+		if (maxMemoryBytes < 0) {
+			throw new IllegalArgumentException("'maxMemoryBytes' is negative.");
+		}
+
+		if (dir != null && maxDiskBytes <= 0) {
+			throw new IllegalArgumentException("'maxDiskBytes' must be positive.");
+		}
+
+		return new HttpCache(client, maxMemoryBytes, dir, maxDiskBytes);
+	}
+
+	private final WebClient client;
+	private final long maxMemoryBytes;
+	private final Path dir;
+	private final long maxDiskBytes;
+
+	// access ordered, so iteration starts at the least recently used
+	private final LinkedHashMap<URI, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoryBytes;
+	private long diskBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private HttpCache(WebClient client, long maxMemoryBytes, Path dir, long maxDiskBytes) {
+		this.client = client;
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.dir = dir;
+		this.maxDiskBytes = maxDiskBytes;
+
+		if (dir != null) {
+			this.loadDiskIndex();
+		}
+	}
+
+	/**
+	 * The body of uri from the cache if it is fresh, after a revalidation if
+	 * it is stale, or from the server otherwise.
+	 */
+	public CompletableFuture<byte[]> getAsync(URI uri) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		long now = System.currentTimeMillis();
+		Entry cached = this.lookup(uri);
+
+		if (cached != null && cached.freshUntil() > now) {
+			this.hits.increment();
+			return CompletableFuture.completedFuture(cached.body());
+		}
+
+		HttpRequest.Builder request = this.client.newRequest(uri).GET();
+
+		if (cached != null && cached.etag() != null) {
+			request.header("If-None-Match", cached.etag());
+		}
+
+		if (cached != null && cached.lastModified() != null) {
+			request.header("If-Modified-Since", cached.lastModified());
+		}
+
+		return this.client.sendAsync(request.build(), BodyHandlers.ofByteArray()).thenApply(response -> this.handle(uri, cached, response, now));
+	}
+
+	public byte[] get(URI uri) throws IOException {
+		return WebClient.await(this.getAsync(uri));
+	}
+
+	/**
+	 * Drops uri from both tiers.
+	 */
+	public void invalidate(URI uri) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		synchronized (this.memory) {
+			Entry removed = this.memory.remove(uri);
+
+			if (removed != null) {
+				this.memoryBytes -= removed.size();
+			}
+		}
+
+		if (this.dir != null) {
+			this.deleteFromDisk(HttpCache.fileName(uri));
+		}
+	}
+
+	/**
+	 * Requests answered without contacting the server.
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Requests answered with a 304 and the cached body.
+	 */
+	public long getRevalidations() {
+		return this.revalidations.sum();
+	}
+
+	/**
+	 * Requests that transferred a full body.
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	private byte[] handle(URI uri, Entry cached, HttpResponse<byte[]> response, long requested) {
+		HttpHeaders headers = response.headers();
+
+		if (response.statusCode() == 304 && cached != null) {
+			this.revalidations.increment();
+
+			// a 304 refreshes the lifetime and may carry new validators
+			String etag = headers.firstValue("ETag").orElse(cached.etag());
+			String lastModified = headers.firstValue("Last-Modified").orElse(cached.lastModified());
+			this.store(new Entry(uri, cached.body(), etag, lastModified, HttpCache.freshUntil(headers, lastModified, requested)));
+			return cached.body();
+		}
+
+		if (response.statusCode() / 100 != 2) {
+			throw new UncheckedIOException(new HttpStatusException(response.statusCode(), uri));
+		}
+
+		this.misses.increment();
+
+		if (response.statusCode() == 200 && HttpCache.isStorable(headers)) {
+			String etag = headers.firstValue("ETag").orElse(null);
+			String lastModified = headers.firstValue("Last-Modified").orElse(null);
+			Entry entry = new Entry(uri, response.body(), etag, lastModified, HttpCache.freshUntil(headers, lastModified, requested));
+
+			if (entry.freshUntil() > requested || entry.hasValidators()) {
+				this.store(entry);
+			} else {
+				this.invalidate(uri);
+			}
+		} else if (cached != null) {
+			this.invalidate(uri);
+		}
+
+		return response.body();
+	}
+
+	private static boolean isStorable(HttpHeaders headers) {
+		for (String directive : HttpCache.cacheControl(headers)) {
+			if (directive.equals("no-store")) {
+				return false;
+			}
+		}
+
+		// responses that vary by request header are left alone
+		return headers.firstValue("Vary").isEmpty();
+	}
+
+	// the time until which a response can be served without asking the server
+	private static long freshUntil(HttpHeaders headers, String lastModified, long requested) {
+		long maxAge = -1;
+
+		for (String directive : HttpCache.cacheControl(headers)) {
+			if (directive.equals("no-cache")) {
+				return requested;
+			}
+
+			if (directive.startsWith("max-age=")) {
+				try {
+					maxAge = Long.parseLong(directive.substring("max-age=".length()));
+				} catch (NumberFormatException e) {
+					// an unreadable lifetime means none
+					maxAge = 0;
+				}
+			}
+		}
+
+		if (maxAge >= 0) {
+			long age = headers.firstValueAsLong("Age").orElse(0);
+			return requested + Math.max(0, maxAge - age) * 1000;
+		}
+
+		long date = HttpCache.parseDate(headers.firstValue("Date").orElse(null), requested);
+		String expires = headers.firstValue("Expires").orElse(null);
+
+		if (expires != null) {
+			// an invalid Expires means already expired
+			return requested + Math.max(0, HttpCache.parseDate(expires, date) - date);
+		}
+
+		if (lastModified != null) {
+			long modified = HttpCache.parseDate(lastModified, date);
+			return requested + Math.min(HttpCache.MAX_HEURISTIC_MILLIS, Math.max(0, date - modified) / 10);
+		}
+
+		return requested;
+	}
+
+	private static List<String> cacheControl(HttpHeaders headers) {
+		List<String> directives = new ArrayList<>();
+
+		for (String value : headers.allValues("Cache-Control")) {
+			for (String directive : value.split(",")) {
+				directives.add(directive.trim().toLowerCase());
+			}
+		}
+
+		return directives;
+	}
+
+	private static long parseDate(String value, long fallback) {
+		if (value == null) {
+			return fallback;
+		}
+
+		try {
+			return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		} catch (DateTimeParseException e) {
+			return fallback;
+		}
+	}
+
+	private Entry lookup(URI uri) {
+		synchronized (this.memory) {
+			Entry entry = this.memory.get(uri);
+
+			if (entry != null || this.dir == null) {
+				return entry;
+			}
+		}
+
+		Entry entry = this.readFromDisk(uri);
+
+		if (entry != null) {
+			this.putInMemory(entry);
+		}
+
+		return entry;
+	}
+
+	private void store(Entry entry) {
+		this.putInMemory(entry);
+
+		if (this.dir != null) {
+			this.writeToDisk(entry);
+		}
+	}
+
+	private void putInMemory(Entry entry) {
+		synchronized (this.memory) {
+			Entry previous = this.memory.remove(entry.uri());
+
+			if (previous != null) {
+				this.memoryBytes -= previous.size();
+			}
+
+			// entries bigger than the whole tier only live on disk
+			if (entry.size() > this.maxMemoryBytes) {
+				return;
+			}
+
+			this.memory.put(entry.uri(), entry);
+			this.memoryBytes += entry.size();
+
+			Iterator<Entry> eldest = this.memory.values().iterator();
+
+			while (this.memoryBytes > this.maxMemoryBytes) {
+				this.memoryBytes -= eldest.next().size();
+				eldest.remove();
+			}
+		}
+	}
+
+	private Entry readFromDisk(URI uri) {
+		String name = HttpCache.fileName(uri);
+
+		synchronized (this.disk) {
+			if (this.disk.get(name) == null) {
+				return null;
+			}
+		}
+
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(this.dir.resolve(name)))) {
+			if (in.readInt() != HttpCache.DISK_MAGIC || !in.readUTF().equals(uri.toString())) {
+				throw new IOException("Unexpected cache entry.");
+			}
+
+			String etag = HttpCache.emptyToNull(in.readUTF());
+			String lastModified = HttpCache.emptyToNull(in.readUTF());
+			long freshUntil = in.readLong();
+			int length = in.readInt();
+
+			if (length < 0 || length > this.maxDiskBytes) {
+				throw new IOException("Bad cache entry length.");
+			}
+
+			// readFully fails on a truncated body, and nothing may follow it
+			byte[] body = new byte[length];
+			in.readFully(body);
+
+			if (in.read() >= 0) {
+				throw new IOException("Trailing bytes after cache entry.");
+			}
+
+			return new Entry(uri, body, etag, lastModified, freshUntil);
+		} catch (IOException e) {
+			// a missing or damaged entry is just a miss
+			this.deleteFromDisk(name);
+			return null;
+		}
+	}
+
+	private void writeToDisk(Entry entry) {
+		String name = HttpCache.fileName(entry.uri());
+		Path file = this.dir.resolve(name);
+
+		if (entry.size() > this.maxDiskBytes) {
+			this.deleteFromDisk(name);
+			return;
+		}
+
+		Path tmp = null;
+		long size;
+
+		try {
+			// readers only ever see complete entries
+			tmp = Files.createTempFile(this.dir, name, ".tmp");
+
+			try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+				out.writeInt(HttpCache.DISK_MAGIC);
+				out.writeUTF(entry.uri().toString());
+				out.writeUTF(entry.etag() == null ? "" : entry.etag());
+				out.writeUTF(entry.lastModified() == null ? "" : entry.lastModified());
+				out.writeLong(entry.freshUntil());
+				out.writeInt(entry.body().length);
+				out.write(entry.body());
+			}
+
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			size = Files.size(file);
+		} catch (IOException e) {
+			// the disk tier is best effort, the memory tier still has it
+			if (tmp != null) {
+				this.deleteFile(tmp.getFileName().toString());
+			}
+
+			this.deleteFromDisk(name);
+			return;
+		}
+
+		List<String> evicted = new ArrayList<>();
+
+		synchronized (this.disk) {
+			Long previous = this.disk.put(name, size);
+			this.diskBytes += size - (previous == null ? 0 : previous);
+
+			Iterator<Map.Entry<String, Long>> eldest = this.disk.entrySet().iterator();
+
+			while (this.diskBytes > this.maxDiskBytes) {
+				Map.Entry<String, Long> next = eldest.next();
+				this.diskBytes -= next.getValue();
+				evicted.add(next.getKey());
+				eldest.remove();
+			}
+		}
+
+		for (String old : evicted) {
+			this.deleteFile(old);
+		}
+	}
+
+	private void deleteFromDisk(String name) {
+		synchronized (this.disk) {
+			Long size = this.disk.remove(name);
+
+			if (size != null) {
+				this.diskBytes -= size;
+			}
+		}
+
+		this.deleteFile(name);
+	}
+
+	private void deleteFile(String name) {
+		try {
+			Files.deleteIfExists(this.dir.resolve(name));
+		} catch (IOException e) {
+			// left for the next eviction pass
+		}
+	}
+
+	// oldest first, so the least recently written entries go first
+	private void loadDiskIndex() {
+		List<Path> files = new ArrayList<>();
+
+		try {
+			Files.createDirectories(this.dir);
+
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir, "*" + HttpCache.DISK_SUFFIX)) {
+				stream.forEach(files::add);
+			}
+
+			files.sort(Comparator.comparing(file -> {
+				try {
+					return Files.getLastModifiedTime(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+
+			for (Path file : files) {
+				long size = Files.size(file);
+				this.disk.put(file.getFileName().toString(), size);
+				this.diskBytes += size;
+			}
+		} catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException(String.format("Unable to use cache directory '%s'.", this.dir), e);
+		}
+
+		// the directory may have been filled under a larger limit
+		Iterator<Map.Entry<String, Long>> eldest = this.disk.entrySet().iterator();
+
+		while (this.diskBytes > this.maxDiskBytes) {
+			Map.Entry<String, Long> next = eldest.next();
+			this.diskBytes -= next.getValue();
+			this.deleteFile(next.getKey());
+			eldest.remove();
+		}
+	}
+
+	private static String fileName(URI uri) {
+		try {
+			MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			return ByteUtils.toHex(sha.digest(uri.toString().getBytes(StandardCharsets.UTF_8))) + HttpCache.DISK_SUFFIX;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String emptyToNull(String value) {
+		return value.isEmpty() ? null : value;
+	}
+}
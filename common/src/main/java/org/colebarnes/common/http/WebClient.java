@@ -0,0 +1,414 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLContext;
+
+import org.colebarnes.common.HttpUtils;
+import org.colebarnes.common.StreamUtils;
+import org.colebarnes.common.StringUtils;
+
+/**
+ * HTTP client on java.net.http: connections are pooled and reused across
+ * calls, HTTP/2 is used where the server offers it, and every call comes in
+ * a CompletableFuture flavour with a blocking one on top. Bodies can be
+ * streamed to an OutputStream or a file instead of being buffered; for those
+ * the request timeout only covers the wait for the response headers.
+ * 
+ * The calls that return a body fail with HttpStatusException on anything
+ * outside 2xx; sendAsync hands back the raw response instead.
+ */
+public final class WebClient implements Closeable {
+	public static final String PROP_CONNECT_TIMEOUT_MILLIS = "org.colebarnes.http.connect.timeout.millis";
+	public static final String PROP_CONNECT_TIMEOUT_MILLIS_DFLT = "10000";
+
+	public static final String PROP_REQUEST_TIMEOUT_MILLIS = "org.colebarnes.http.request.timeout.millis";
+	public static final String PROP_REQUEST_TIMEOUT_MILLIS_DFLT = "60000";
+
+	public static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded; charset=UTF-8";
+
+	private static final WebClient SHARED = new WebClient(Duration.ofMillis(Long.parseLong(System.getProperty(WebClient.PROP_CONNECT_TIMEOUT_MILLIS, WebClient.PROP_CONNECT_TIMEOUT_MILLIS_DFLT))),
+			Duration.ofMillis(Long.parseLong(System.getProperty(WebClient.PROP_REQUEST_TIMEOUT_MILLIS, WebClient.PROP_REQUEST_TIMEOUT_MILLIS_DFLT))), true);
+
+	/**
+	 * The process wide client, so connections are shared between callers. It
+	 * ignores close().
+	 */
+	public static WebClient getInstance() {
+		return WebClient.SHARED;
+	}
+
+	/**
+	 * A client with its own connection pool; close it when done.
+	 */
+	public static WebClient getInstance(Duration connectTimeout, Duration requestTimeout) {
+		if (connectTimeout == null) {
+			throw new NullPointerException("'connectTimeout' is null.");
+		}
+
+		if (requestTimeout == null) {
+			throw new NullPointerException("'requestTimeout' is null.");
+		}
+
+		return new WebClient(connectTimeout, requestTimeout, false);
+	}
+
+	private final HttpClient client;
+	private final ExecutorService executor;
+	private final Duration requestTimeout;
+	private final boolean shared;
+
+	private WebClient(Duration connectTimeout, Duration requestTimeout, boolean shared) {
+		// the client keeps its default executor so its selector work never
+		// queues behind pinned virtual threads; only body copies run on these
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(HttpClient.Redirect.NORMAL).connectTimeout(connectTimeout)
+				.sslContext(WebClient.sslContext()).build();
+		this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("web-client-", 0).factory());
+		this.requestTimeout = requestTimeout;
+		this.shared = shared;
+	}
+
+	/**
+	 * A request builder with this client's timeout already set, for
+	 * sendAsync.
+	 */
+	public HttpRequest.Builder newRequest(URI uri) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		return HttpRequest.newBuilder(uri).timeout(this.requestTimeout);
+	}
+
+	/**
+	 * Sends the request as is; the status is left for the caller to check.
+	 */
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+		if (request == null) {
+			throw new NullPointerException("'request' is null.");
+		}
+
+		if (handler == null) {
+			throw new NullPointerException("'handler' is null.");
+		}
+
+		return this.client.sendAsync(request, handler);
+	}
+
+	public CompletableFuture<byte[]> getAsync(URI uri) {
+		return this.bodyAsync(this.newRequest(uri).GET().build(), BodyHandlers.ofByteArray());
+	}
+
+	/**
+	 * The body as a stream once a 2xx status has arrived; the caller closes
+	 * it. The JDK timeout keeps running until a body is fully read, which
+	 * would cut off a large download, so only the wait for the headers is
+	 * timed here.
+	 */
+	public CompletableFuture<InputStream> openAsync(URI uri) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+		CompletableFuture<HttpResponse<InputStream>> sent = this.client.sendAsync(request, BodyHandlers.ofInputStream());
+		CompletableFuture<HttpResponse<InputStream>> headers = sent.copy().orTimeout(this.requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+		return headers.handle((response, t) -> {
+			if (t != null) {
+				Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+				if (cause instanceof TimeoutException) {
+					sent.cancel(true);
+					cause = new HttpTimeoutException("request timed out");
+				}
+
+				throw new CompletionException(cause);
+			}
+
+			if (response.statusCode() / 100 != 2) {
+				try {
+					// closing discards the rest of the body
+					response.body().close();
+				} catch (IOException e) {
+					// the failure below is the one that matters
+				}
+
+				throw new CompletionException(new HttpStatusException(response.statusCode(), uri));
+			}
+
+			return response.body();
+		});
+	}
+
+	/**
+	 * Streams the body into out as it arrives and completes with the number
+	 * of bytes written. out is not closed.
+	 */
+	public CompletableFuture<Long> getAsync(URI uri, OutputStream out) {
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		return this.openAsync(uri).thenApplyAsync(in -> WebClient.drain(in, out), this.executor);
+	}
+
+	/**
+	 * Streams the body into file, which is only created once a 2xx status
+	 * has arrived.
+	 */
+	public CompletableFuture<Path> getAsync(URI uri, Path file) {
+		if (file == null) {
+			throw new NullPointerException("'file' is null.");
+		}
+
+		return this.openAsync(uri).thenApplyAsync(in -> {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				WebClient.drain(in, out);
+				return file;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, this.executor);
+	}
+
+	/**
+	 * A POST of data as a UTF-8 form, like HttpUtils.legacyPost sent.
+	 */
+	public HttpRequest newPost(URI uri, Map<String, String> data) {
+		return this.newRequest(uri).header("Content-Type", WebClient.FORM_CONTENT_TYPE).POST(HttpRequest.BodyPublishers.ofByteArray(StringUtils.toBytes(HttpUtils.urlEncode(data))))
+				.build();
+	}
+
+	/**
+	 * Sends the request and completes with the body of a 2xx response.
+	 */
+	public CompletableFuture<byte[]> requestAsync(HttpRequest request) {
+		if (request == null) {
+			throw new NullPointerException("'request' is null.");
+		}
+
+		return this.bodyAsync(request, BodyHandlers.ofByteArray());
+	}
+
+	/**
+	 * Posts data as a UTF-8 form.
+	 */
+	public CompletableFuture<byte[]> postAsync(URI uri, Map<String, String> data) {
+		return this.requestAsync(this.newPost(uri, data));
+	}
+
+	public CompletableFuture<byte[]> postAsync(URI uri, String contentType, byte[] body) {
+		if (StringUtils.isNullOrBlank(contentType)) {
+			throw new NullPointerException("'contentType' is null or blank.");
+		}
+
+		if (body == null) {
+			throw new NullPointerException("'body' is null.");
+		}
+
+		HttpRequest request = this.newRequest(uri).header("Content-Type", contentType).POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+		return this.bodyAsync(request, BodyHandlers.ofByteArray());
+	}
+
+	/**
+	 * Streams body as the request body with chunked transfer, so its length
+	 * need not be known. body is read once and not closed, so a 307 or 308
+	 * redirect, which would have to send it again, fails the call instead. No
+	 * request timeout applies, as it would also cover the upload; the connect
+	 * timeout still does.
+	 */
+	public CompletableFuture<byte[]> postAsync(URI uri, String contentType, InputStream body) {
+		if (uri == null) {
+			throw new NullPointerException("'uri' is null.");
+		}
+
+		if (StringUtils.isNullOrBlank(contentType)) {
+			throw new NullPointerException("'contentType' is null or blank.");
+		}
+
+		if (body == null) {
+			throw new NullPointerException("'body' is null.");
+		}
+
+		// the stream is spent after the first send; a resend would go out empty
+		AtomicBoolean sent = new AtomicBoolean();
+		Supplier<InputStream> once = () -> {
+			if (sent.getAndSet(true)) {
+				throw new UncheckedIOException(new IOException(String.format("Cannot resend the streamed body to %s.", uri)));
+			}
+
+			return body;
+		};
+
+		HttpRequest request = HttpRequest.newBuilder(uri).header("Content-Type", contentType).POST(HttpRequest.BodyPublishers.ofInputStream(once)).build();
+		return this.bodyAsync(request, BodyHandlers.ofByteArray());
+	}
+
+	public InputStream open(URI uri) throws IOException {
+		return WebClient.await(this.openAsync(uri));
+	}
+
+	public byte[] get(URI uri) throws IOException {
+		return WebClient.await(this.getAsync(uri));
+	}
+
+	public long get(URI uri, OutputStream out) throws IOException {
+		return WebClient.await(this.getAsync(uri, out));
+	}
+
+	public Path get(URI uri, Path file) throws IOException {
+		return WebClient.await(this.getAsync(uri, file));
+	}
+
+	public byte[] request(HttpRequest request) throws IOException {
+		return WebClient.await(this.requestAsync(request));
+	}
+
+	public byte[] post(URI uri, Map<String, String> data) throws IOException {
+		return WebClient.await(this.postAsync(uri, data));
+	}
+
+	public byte[] post(URI uri, String contentType, byte[] body) throws IOException {
+		return WebClient.await(this.postAsync(uri, contentType, body));
+	}
+
+	public byte[] post(URI uri, String contentType, InputStream body) throws IOException {
+		return WebClient.await(this.postAsync(uri, contentType, body));
+	}
+
+	/**
+	 * Waits for a future from this class and rethrows what it failed with.
+	 * Interrupting the caller cancels the call.
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("HTTP call interrupted.");
+		} catch (CancellationException e) {
+			throw new InterruptedIOException("HTTP call cancelled.");
+		} catch (ExecutionException e) {
+			throw WebClient.unwrap(e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		if (!this.shared) {
+			this.client.close();
+			this.executor.close();
+		}
+	}
+
+	// only lets the body through on 2xx; anything else is discarded so the
+	// connection can go back to the pool, and the future fails
+	private <T> CompletableFuture<T> bodyAsync(HttpRequest request, BodyHandler<T> handler) {
+		BodyHandler<T> checked = info -> info.statusCode() / 100 == 2 ? handler.apply(info) : BodySubscribers.replacing(null);
+
+		return this.client.sendAsync(request, checked).thenCompose(response -> {
+			if (response.statusCode() / 100 != 2) {
+				return CompletableFuture.failedFuture(new HttpStatusException(response.statusCode(), request.uri()));
+			}
+
+			return CompletableFuture.completedFuture(response.body());
+		});
+	}
+
+	// the default context also loads client keys from the default keystore,
+	// which fails once a provider that insists on a keystore password (such
+	// as BCFIPS) is registered first; a client only needs the trust side
+	private static SSLContext sslContext() {
+		try {
+			return SSLContext.getDefault();
+		} catch (NoSuchAlgorithmException e) {
+			try {
+				SSLContext context = SSLContext.getInstance("TLS");
+				context.init(null, null, null);
+				return context;
+			} catch (GeneralSecurityException ex) {
+				throw new IllegalStateException("Unable to create an SSL context.", ex);
+			}
+		}
+	}
+
+	private static long drain(InputStream in, OutputStream out) {
+		try (InputStream body = in) {
+			return StreamUtils.copy(body, out, StreamUtils.DEFAULT_PIPELINE_BUFFER_LEN);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static IOException unwrap(Throwable t) {
+		while ((t instanceof CompletionException || t instanceof UncheckedIOException) && t.getCause() != null) {
+			t = t.getCause();
+		}
+
+		if (t instanceof IOException e) {
+			return e;
+		}
+
+		if (t instanceof RuntimeException e) {
+			throw e;
+		}
+
+		if (t instanceof Error e) {
+			throw e;
+		}
+
+		return new IOException(t);
+	}
+}
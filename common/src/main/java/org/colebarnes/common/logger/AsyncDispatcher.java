@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+final class AsyncDispatcher {
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+	private final LogRingBuffer ring;
+	private final OverflowPolicy policy;
+	private final int threshold;
+	private final Consumer<LogEvent> sink;
+	private final Thread writer;
+	private final LoggerMetrics metrics;
+
+	private volatile long consumed;
+	private volatile boolean running;
+
+	AsyncDispatcher(int capacity, OverflowPolicy policy, int threshold, Consumer<LogEvent> sink, LoggerMetrics metrics) {
+		if (policy == null) {
+			throw new NullPointerException("'policy' is null.");
+		}
+
+		if (sink == null) {
+			throw new NullPointerException("'sink' is null.");
+		}
+
+		this.ring = new LogRingBuffer(capacity);
+		this.policy = policy;
+		this.threshold = threshold;
+		this.sink = sink;
+		this.metrics = metrics;
+		this.consumed = 0;
+
+		this.writer = new Thread(this::drain, "logger-async-writer");
+		this.writer.setDaemon(true);
+	}
+
+	void start() {
+		this.running = true;
+		this.writer.start();
+	}
+
+	/**
+	 * Returns false only if the dispatcher has been shut down and the caller
+	 * should write the event itself. Dropped events count as handled.
+	 */
+	boolean publish(LogEvent event) {
+		// a closed ring refuses every offer, so nothing lands after the last drain
+		if (this.ring.offer(event)) {
+			return true;
+		}
+
+		if (this.ring.isClosed()) {
+			return false;
+		}
+
+		if (this.policy == OverflowPolicy.DROP_NEWEST
+				|| (this.policy == OverflowPolicy.DROP_BELOW_LEVEL && event.level > this.threshold)) {
+			this.metrics.dropped();
+			return true;
+		}
+
+		while (!this.ring.offer(event)) {
+			if (this.ring.isClosed()) {
+				return false;
+			}
+
+			LockSupport.unpark(this.writer);
+			LockSupport.parkNanos(this, AsyncDispatcher.BLOCKED_PARK_NANOS);
+		}
+
+		return true;
+	}
+
+	void flush() {
+		long target = this.ring.published();
+
+		while (this.consumed < target && this.writer.isAlive()) {
+			LockSupport.unpark(this.writer);
+			LockSupport.parkNanos(this, AsyncDispatcher.BLOCKED_PARK_NANOS);
+		}
+	}
+
+	void shutdown() {
+		this.ring.close();
+		this.running = false;
+		LockSupport.unpark(this.writer);
+
+		if (Thread.currentThread() != this.writer) {
+			try {
+				this.writer.join(AsyncDispatcher.SHUTDOWN_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void drain() {
+		while (this.running) {
+			if (!this.drainAvailable()) {
+				LockSupport.parkNanos(this, AsyncDispatcher.IDLE_PARK_NANOS);
+			}
+		}
+
+		// producers that claimed a slot before the close may still be
+		// publishing it, wait for them rather than leave their events behind
+		while (!this.ring.isDrained()) {
+			if (!this.drainAvailable()) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	private boolean drainAvailable() {
+		boolean drained = false;
+		LogEvent event;
+
+		while ((event = this.ring.poll()) != null) {
+			drained = true;
+
+			try {
+				this.sink.accept(event);
+			} catch (RuntimeException e) {
+				// never let a bad appender kill the writer thread
+				e.printStackTrace(System.err);
+			}
+
+			this.consumed = this.consumed + 1;
+		}
+
+		return drained;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.colebarnes.common.StringUtils;
+
+/**
+ * Renders logs written by a binary appender back into the regular text
+ * layout. Definitions carry over between calls, so rolled segments must be
+ * decoded in the order they were written. Files ending in .gz are unzipped.
+ *
+ * Usage: java org.colebarnes.common.logger.BinaryLogDecoder segment...
+ */
+public class BinaryLogDecoder {
+	private static final String GZIP_SUFFIX = ".gz";
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println(String.format("usage: %s <binary log file>...", BinaryLogDecoder.class.getName()));
+			System.exit(1);
+		}
+
+		BinaryLogDecoder decoder = new BinaryLogDecoder();
+		PrintStream out = System.out;
+
+		try {
+			for (String arg : args) {
+				decoder.decode(new File(arg), out);
+			}
+		} catch (IOException e) {
+			System.err.println(String.format("Error decoding log: %s", e.getMessage()));
+			System.exit(2);
+		} finally {
+			out.flush();
+		}
+	}
+
+	private final Map<Integer, String> formats;
+	private final Map<Integer, String> callSites;
+
+	public BinaryLogDecoder() {
+		this.formats = new HashMap<>();
+		this.callSites = new HashMap<>();
+	}
+
+	public long decode(File file, Appendable out) throws IOException {
+		if (file == null) {
+			throw new NullPointerException("'file' is null.");
+		}
+
+		try (InputStream fileIn = new FileInputStream(file)) {
+			InputStream in = file.getName().endsWith(BinaryLogDecoder.GZIP_SUFFIX) ? new GZIPInputStream(fileIn) : fileIn;
+			return this.decode(in, out);
+		}
+	}
+
+	/**
+	 * Writes one text line per event and returns the number of events.
+	 */
+	public long decode(InputStream in, Appendable out) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("'in' is null.");
+		}
+
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
+
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		long events = 0;
+		int tag;
+
+		while ((tag = data.read()) >= 0) {
+			switch (tag) {
+			case BinaryLogEncoder.TAG_FORMAT:
+				this.formats.put(data.readInt(), BinaryLogDecoder.readUtf8(data));
+				break;
+			case BinaryLogEncoder.TAG_CALL_SITE:
+				this.callSites.put(data.readInt(), BinaryLogDecoder.readUtf8(data));
+				break;
+			case BinaryLogEncoder.TAG_EVENT:
+				out.append(this.readEvent(data)).append(System.lineSeparator());
+				events++;
+				break;
+			case 0:
+				// zero padding left behind by a mapped file that was not closed
+				break;
+			default:
+				throw new IOException(String.format("Unknown record tag %d after %d events.", tag, events));
+			}
+		}
+
+		return events;
+	}
+
+	private String readEvent(DataInputStream data) throws IOException {
+		long timestampNanos = data.readLong();
+		int level = data.readByte();
+		long threadId = data.readLong();
+		int callSiteId = data.readInt();
+		int formatId = data.readInt();
+		int argc = data.readUnsignedByte();
+
+		Object[] args = new Object[argc];
+		for (int i = 0; i < argc; i++) {
+			args[i] = BinaryLogDecoder.readArg(data);
+		}
+
+		if (data.readByte() != BinaryLogEncoder.EVENT_END) {
+			throw new IOException("Event record is not terminated.");
+		}
+
+		String callSite = null;
+		if (callSiteId != BinaryLogEncoder.NO_CALL_SITE) {
+			callSite = this.callSites.getOrDefault(callSiteId, "caller.unknown");
+		}
+
+		String msgFmt = this.formats.get(formatId);
+		if (msgFmt == null) {
+			msgFmt = String.format("<unknown format #%d>", formatId);
+		}
+
+		return LogFormatter.get().formatToString(threadId, timestampNanos, level, callSite, msgFmt, args);
+	}
+
+	private static Object readArg(DataInputStream data) throws IOException {
+		byte type = data.readByte();
+
+		switch (type) {
+		case BinaryLogEncoder.ARG_NULL:
+			return null;
+		case BinaryLogEncoder.ARG_STRING:
+			return BinaryLogDecoder.readUtf8(data);
+		case BinaryLogEncoder.ARG_INT:
+			return data.readInt();
+		case BinaryLogEncoder.ARG_LONG:
+			return data.readLong();
+		case BinaryLogEncoder.ARG_BOOLEAN:
+			return data.readByte() != 0;
+		case BinaryLogEncoder.ARG_DOUBLE:
+			return data.readDouble();
+		case BinaryLogEncoder.ARG_CHAR:
+			return data.readChar();
+		default:
+			throw new IOException(String.format("Unknown argument type %d.", type));
+		}
+	}
+
+	private static String readUtf8(DataInputStream data) throws IOException {
+		int len = data.readInt();
+
+		if (len < 0) {
+			throw new EOFException("Negative string length.");
+		}
+
+		byte[] bytes = new byte[len];
+		data.readFully(bytes);
+
+		return StringUtils.fromBytes(bytes);
+	}
+}
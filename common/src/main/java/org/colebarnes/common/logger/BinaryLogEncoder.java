@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.colebarnes.common.ThreadUtils.CallSite;
+
+/**
+ * Encodes log events into a compact binary record instead of text, see
+ * BinaryLogDecoder for the reverse. Call sites and format strings are
+ * interned to ids; the definition record for an id is written in front of
+ * the first event that uses it, so a log has to be decoded from the start.
+ * The tables hold at most MAX_DEFINITIONS values each; when one fills up it
+ * is emptied and every definition is written again under a fresh id, so
+ * messages built by concatenation cannot grow them without bound.
+ * Events close with a non-zero byte, so a record never ends in the zero
+ * padding that MappedFileAppender trims when it reopens a file.
+ *
+ * <pre>
+ * format    : TAG_FORMAT    id:int utf8
+ * call site : TAG_CALL_SITE id:int utf8
+ * event     : TAG_EVENT     nanos:long level:byte thread:long callSite:int format:int argc:byte arg* EVENT_END
+ * arg       : ARG_* payload
+ * utf8      : length:int bytes
+ * </pre>
+ */
+final class BinaryLogEncoder {
+	static final byte TAG_FORMAT = 1;
+	static final byte TAG_CALL_SITE = 2;
+	static final byte TAG_EVENT = 3;
+	static final byte EVENT_END = (byte) 0xFF;
+
+	static final byte ARG_NULL = 0;
+	static final byte ARG_STRING = 1;
+	static final byte ARG_INT = 2;
+	static final byte ARG_LONG = 3;
+	static final byte ARG_BOOLEAN = 4;
+	static final byte ARG_DOUBLE = 5;
+	static final byte ARG_CHAR = 6;
+
+	static final int NO_CALL_SITE = -1;
+	static final int MAX_DEFINITIONS = 16 * 1024;
+	static final int MAX_ARGS = 255;
+
+	private static final ConcurrentMap<String, Definition> FORMATS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<CallSite, Definition> CALL_SITES = new ConcurrentHashMap<>();
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
+	private static final ThreadLocal<BinaryLogEncoder> LOCAL = ThreadLocal.withInitial(BinaryLogEncoder::new);
+
+	// bumped when a binary appender is added so it gets every definition again
+	private static volatile int generation;
+
+	static BinaryLogEncoder get() {
+		return BinaryLogEncoder.LOCAL.get();
+	}
+
+	static synchronized void newGeneration() {
+		BinaryLogEncoder.generation++;
+	}
+
+	private static void makeRoom(ConcurrentMap<?, Definition> definitions) {
+		if (definitions.size() >= BinaryLogEncoder.MAX_DEFINITIONS) {
+			synchronized (BinaryLogEncoder.class) {
+				if (definitions.size() >= BinaryLogEncoder.MAX_DEFINITIONS) {
+					// ids are never reused, so definitions already written stay valid
+					definitions.clear();
+					BinaryLogEncoder.newGeneration();
+				}
+			}
+		}
+	}
+
+	private static final class Definition {
+		final int id;
+		final String value;
+		volatile int generation;
+
+		Definition(String value) {
+			this.id = BinaryLogEncoder.NEXT_ID.getAndIncrement();
+			this.value = value;
+			this.generation = -1;
+		}
+	}
+
+	private ByteBuffer buffer;
+	private final Definition[] pending;
+	private int pendingCount;
+	private int pendingGeneration;
+
+	private BinaryLogEncoder() {
+		this.buffer = ByteBuffer.allocate(256);
+		this.pending = new Definition[2];
+	}
+
+	/**
+	 * The returned buffer is reused by the next call on this thread. Call
+	 * published() once the record has been handed to every appender.
+	 */
+	ByteBuffer encode(LogEvent event) {
+		this.buffer.clear();
+		this.pendingCount = 0;
+		this.pendingGeneration = BinaryLogEncoder.generation;
+
+		Definition callSite = null;
+		if (event.caller != null) {
+			callSite = BinaryLogEncoder.CALL_SITES.get(event.caller);
+			if (callSite == null) {
+				BinaryLogEncoder.makeRoom(BinaryLogEncoder.CALL_SITES);
+				callSite = BinaryLogEncoder.CALL_SITES.computeIfAbsent(event.caller, c -> new Definition(c.getLocationString()));
+			}
+			this.putDefinition(BinaryLogEncoder.TAG_CALL_SITE, callSite);
+		}
+
+		String msgFmt = (event.msgFmt == null) ? "null" : event.msgFmt;
+		Definition format = BinaryLogEncoder.FORMATS.get(msgFmt);
+		if (format == null) {
+			BinaryLogEncoder.makeRoom(BinaryLogEncoder.FORMATS);
+			format = BinaryLogEncoder.FORMATS.computeIfAbsent(msgFmt, Definition::new);
+		}
+		this.putDefinition(BinaryLogEncoder.TAG_FORMAT, format);
+
+		int argc = (event.args == null) ? 0 : Math.min(event.args.length, BinaryLogEncoder.MAX_ARGS);
+
+		this.ensure(1 + 8 + 1 + 8 + 4 + 4 + 1);
+		this.buffer.put(BinaryLogEncoder.TAG_EVENT);
+		this.buffer.putLong(event.timestampNanos);
+		this.buffer.put((byte) event.level);
+		this.buffer.putLong(event.threadId);
+		this.buffer.putInt((callSite == null) ? BinaryLogEncoder.NO_CALL_SITE : callSite.id);
+		this.buffer.putInt(format.id);
+		this.buffer.put((byte) argc);
+
+		for (int i = 0; i < argc; i++) {
+			this.putArg(event.args[i]);
+		}
+
+		this.ensure(1);
+		this.buffer.put(BinaryLogEncoder.EVENT_END);
+
+		this.buffer.flip();
+		return this.buffer;
+	}
+
+	void published() {
+		for (int i = 0; i < this.pendingCount; i++) {
+			this.pending[i].generation = this.pendingGeneration;
+			this.pending[i] = null;
+		}
+
+		this.pendingCount = 0;
+	}
+
+	private void putDefinition(byte tag, Definition definition) {
+		// racing threads may both write a definition, the decoder keeps the last
+		if (definition.generation != this.pendingGeneration) {
+			this.ensure(1 + 4);
+			this.buffer.put(tag);
+			this.buffer.putInt(definition.id);
+			this.putUtf8(definition.value);
+			this.pending[this.pendingCount++] = definition;
+		}
+	}
+
+	private void putArg(Object arg) {
+		this.ensure(1 + 8);
+
+		if (arg == null) {
+			this.buffer.put(BinaryLogEncoder.ARG_NULL);
+		} else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+			this.buffer.put(BinaryLogEncoder.ARG_INT).putInt(((Number) arg).intValue());
+		} else if (arg instanceof Long n) {
+			this.buffer.put(BinaryLogEncoder.ARG_LONG).putLong(n.longValue());
+		} else if (arg instanceof Double || arg instanceof Float) {
+			this.buffer.put(BinaryLogEncoder.ARG_DOUBLE).putDouble(((Number) arg).doubleValue());
+		} else if (arg instanceof Boolean b) {
+			this.buffer.put(BinaryLogEncoder.ARG_BOOLEAN).put((byte) (b.booleanValue() ? 1 : 0));
+		} else if (arg instanceof Character c) {
+			this.buffer.put(BinaryLogEncoder.ARG_CHAR).putChar(c.charValue());
+		} else {
+			this.buffer.put(BinaryLogEncoder.ARG_STRING);
+			this.putUtf8((arg instanceof String str) ? str : String.valueOf(arg));
+		}
+	}
+
+	private void putUtf8(String str) {
+		int len = str.length();
+		this.ensure(4 + 3 * len);
+
+		int lengthPos = this.buffer.position();
+		this.buffer.position(lengthPos + 4);
+
+		for (int i = 0; i < len; i++) {
+			char c = str.charAt(i);
+
+			if (c < 0x80) {
+				this.buffer.put((byte) c);
+			} else if (c < 0x800) {
+				this.buffer.put((byte) (0xC0 | (c >> 6)));
+				this.buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(str.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, str.charAt(++i));
+				this.buffer.put((byte) (0xF0 | (cp >> 18)));
+				this.buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+				this.buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+				this.buffer.put((byte) (0x80 | (cp & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				this.buffer.put((byte) '?');
+			} else {
+				this.buffer.put((byte) (0xE0 | (c >> 12)));
+				this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				this.buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+
+		this.buffer.putInt(lengthPos, this.buffer.position() - lengthPos - 4);
+	}
+
+	private void ensure(int needed) {
+		if (this.buffer.remaining() < needed) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + needed));
+			this.buffer.flip();
+			bigger.put(this.buffer);
+			this.buffer = bigger;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets: values are
+ * bucketed by power of two and each power of two is split into 32 linear
+ * sub-buckets, which keeps the relative error of a percentile around 3%.
+ */
+final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+	private static final int BUCKETS = (63 - LatencyHistogram.SUB_BUCKET_BITS + 1) * LatencyHistogram.SUB_BUCKETS;
+
+	private final AtomicLongArray counts;
+	private final LongAdder total;
+	private final LongAccumulator max;
+
+	LatencyHistogram() {
+		this.counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+		this.total = new LongAdder();
+		this.max = new LongAccumulator(Math::max, 0L);
+	}
+
+	void record(long nanos) {
+		long value = Math.max(nanos, 0L);
+
+		this.counts.getAndIncrement(LatencyHistogram.indexOf(value));
+		this.total.increment();
+		this.max.accumulate(value);
+	}
+
+	long count() {
+		return this.total.sum();
+	}
+
+	long max() {
+		return this.max.get();
+	}
+
+	/**
+	 * Returns the lower bound of the bucket holding the given percentile
+	 * (0-100), or 0 if nothing has been recorded.
+	 */
+	long percentile(double percentile) {
+		long count = this.count();
+
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0d), 100d) / 100d);
+		long seen = 0;
+
+		for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+			seen += this.counts.get(i);
+
+			if (seen >= Math.max(rank, 1)) {
+				return Math.min(LatencyHistogram.valueOf(i), this.max());
+			}
+		}
+
+		return this.max();
+	}
+
+	void reset() {
+		for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+			this.counts.set(i, 0);
+		}
+
+		this.total.reset();
+		this.max.reset();
+	}
+
+	static int indexOf(long value) {
+		if (value < LatencyHistogram.SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - LatencyHistogram.SUB_BUCKET_BITS;
+		int subBucket = (int) ((value >>> shift) & (LatencyHistogram.SUB_BUCKETS - 1));
+
+		return (shift + 1) * LatencyHistogram.SUB_BUCKETS + subBucket;
+	}
+
+	static long valueOf(int index) {
+		if (index < LatencyHistogram.SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = index / LatencyHistogram.SUB_BUCKETS - 1;
+		int subBucket = index % LatencyHistogram.SUB_BUCKETS;
+
+		return (long) (LatencyHistogram.SUB_BUCKETS + subBucket) << shift;
+	}
+}
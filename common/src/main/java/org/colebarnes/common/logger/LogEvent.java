@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.time.Instant;
+
+import org.colebarnes.common.ThreadUtils.CallSite;
+
+final class LogEvent {
+	static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	static long currentTimeNanos() {
+		Instant now = Instant.now();
+		return now.getEpochSecond() * LogEvent.NANOS_PER_SECOND + now.getNano();
+	}
+
+	final int level;
+	final long threadId;
+	final long timestampNanos;
+	final CallSite caller;
+	final String msgFmt;
+	final Object[] args;
+
+	LogEvent(int level, long threadId, long timestampNanos, CallSite caller, String msgFmt, Object[] args) {
+		this.level = level;
+		this.threadId = threadId;
+		this.timestampNanos = timestampNanos;
+		this.caller = caller;
+		this.msgFmt = msgFmt;
+		this.args = args;
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import org.colebarnes.common.DateUtils;
+import org.colebarnes.common.StringUtils;
+
+/**
+ * Formats a log event once into a reusable, thread-confined builder and
+ * encodes it into a reusable byte buffer. Messages use '{}' placeholders; a
+ * '\{}' is written as a literal '{}'.
+ */
+final class LogFormatter {
+	private static final ThreadLocal<LogFormatter> LOCAL = ThreadLocal.withInitial(LogFormatter::new);
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern(DateUtils.ISO_8601)
+			.withZone(ZoneId.systemDefault());
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final int INITIAL_CAPACITY = 512;
+
+	static LogFormatter get() {
+		return LogFormatter.LOCAL.get();
+	}
+
+	private final StringBuilder builder;
+	private final CharsetEncoder encoder;
+	private char[] chars;
+	private CharBuffer charBuffer;
+	private ByteBuffer bytes;
+
+	private long cachedSecond;
+	private String cachedDate;
+
+	private LogFormatter() {
+		this.builder = new StringBuilder(LogFormatter.INITIAL_CAPACITY);
+		this.encoder = StringUtils.defaultCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.chars = new char[LogFormatter.INITIAL_CAPACITY];
+		this.charBuffer = CharBuffer.wrap(this.chars);
+		this.bytes = ByteBuffer.allocate(LogFormatter.INITIAL_CAPACITY);
+		this.cachedSecond = Long.MIN_VALUE;
+	}
+
+	/**
+	 * The returned buffer is owned by this formatter and is only valid until the
+	 * next call on the same thread.
+	 */
+	ByteBuffer format(LogEvent event) {
+		this.builder.setLength(0);
+		this.formatTo(event, this.builder);
+		this.builder.append(LogFormatter.LINE_SEPARATOR);
+
+		return this.encode(this.builder);
+	}
+
+	String formatToString(LogEvent event) {
+		this.builder.setLength(0);
+		this.formatTo(event, this.builder);
+
+		return this.builder.toString();
+	}
+
+	String formatToString(long threadId, long timestampNanos, int level, String caller, String msgFmt, Object[] args) {
+		this.builder.setLength(0);
+		this.formatTo(threadId, timestampNanos, level, caller, msgFmt, args, this.builder);
+
+		return this.builder.toString();
+	}
+
+	private void formatTo(LogEvent event, StringBuilder sb) {
+		String caller = (event.caller == null) ? null : event.caller.getLocationString();
+		this.formatTo(event.threadId, event.timestampNanos, event.level, caller, event.msgFmt, event.args, sb);
+	}
+
+	private void formatTo(long threadId, long timestampNanos, int level, String caller, String msgFmt, Object[] args, StringBuilder sb) {
+		sb.append('[').append(threadId).append(']');
+		sb.append('[').append(this.date(timestampNanos)).append(']');
+		sb.append('[').append(LogFormatter.levelString(level)).append(']');
+
+		if (caller != null) {
+			sb.append('[').append(caller).append(']');
+		}
+
+		sb.append(':');
+		LogFormatter.substitute(sb, msgFmt, args);
+	}
+
+	static String levelString(int level) {
+		switch (level) {
+		case Logger.OFF:
+			return "OFF";
+		case Logger.ERROR:
+			return "ERR";
+		case Logger.WARN:
+			return "WRN";
+		case Logger.INFO:
+			return "INF";
+		case Logger.TRACE:
+			return "TRC";
+		default:
+			return "UNKNOWN";
+		}
+	}
+
+	static void substitute(StringBuilder sb, String msgFmt, Object[] args) {
+		if (msgFmt == null) {
+			sb.append("null");
+			return;
+		}
+
+		int argIdx = 0;
+		int argCount = (args == null) ? 0 : args.length;
+		int len = msgFmt.length();
+		int start = 0;
+
+		for (int i = 0; i < len - 1; i++) {
+			if (msgFmt.charAt(i) == '{' && msgFmt.charAt(i + 1) == '}') {
+				if (i > 0 && msgFmt.charAt(i - 1) == '\\') {
+					// escaped, drop the backslash and keep the braces
+					sb.append(msgFmt, start, i - 1).append("{}");
+				} else {
+					sb.append(msgFmt, start, i);
+
+					if (argIdx < argCount) {
+						LogFormatter.appendArg(sb, args[argIdx++]);
+					} else {
+						sb.append("{}");
+					}
+				}
+
+				start = i + 2;
+				i++;
+			}
+		}
+
+		sb.append(msgFmt, start, len);
+	}
+
+	private static void appendArg(StringBuilder sb, Object arg) {
+		// avoid String.valueOf() for the common boxed types
+		if (arg instanceof String str) {
+			sb.append(str);
+		} else if (arg instanceof Integer n) {
+			sb.append(n.intValue());
+		} else if (arg instanceof Long n) {
+			sb.append(n.longValue());
+		} else if (arg instanceof Boolean b) {
+			sb.append(b.booleanValue());
+		} else if (arg instanceof Character c) {
+			sb.append(c.charValue());
+		} else if (arg instanceof CharSequence cs) {
+			sb.append(cs);
+		} else {
+			sb.append(String.valueOf(arg));
+		}
+	}
+
+	private String date(long timestampNanos) {
+		long second = Math.floorDiv(timestampNanos, LogEvent.NANOS_PER_SECOND);
+
+		// the layout has second resolution, so only reformat when it changes
+		if (second != this.cachedSecond) {
+			this.cachedDate = LogFormatter.DATE_FORMAT.format(Instant.ofEpochSecond(second));
+			this.cachedSecond = second;
+		}
+
+		return this.cachedDate;
+	}
+
+	private ByteBuffer encode(StringBuilder text) {
+		int len = text.length();
+		this.ensureBytes(len);
+		this.bytes.clear();
+
+		byte[] out = this.bytes.array();
+		int i = 0;
+
+		// ASCII fast path, bail out to the encoder on the first wide char
+		for (; i < len; i++) {
+			char c = text.charAt(i);
+			if (c >= 0x80) {
+				break;
+			}
+			out[i] = (byte) c;
+		}
+
+		this.bytes.position(i);
+
+		if (i < len) {
+			this.encodeRemaining(text, i, len);
+		}
+
+		this.bytes.flip();
+		return this.bytes;
+	}
+
+	private void encodeRemaining(StringBuilder text, int from, int len) {
+		if (this.chars.length < len) {
+			this.chars = new char[Math.max(len, this.chars.length * 2)];
+			this.charBuffer = CharBuffer.wrap(this.chars);
+		}
+
+		text.getChars(from, len, this.chars, 0);
+		CharBuffer in = this.charBuffer;
+		in.clear().limit(len - from);
+
+		this.encoder.reset();
+		while (true) {
+			CoderResult result = this.encoder.encode(in, this.bytes, true);
+
+			if (result.isOverflow()) {
+				this.growBytes();
+			} else if (this.encoder.flush(this.bytes).isOverflow()) {
+				this.growBytes();
+			} else {
+				break;
+			}
+		}
+	}
+
+	private void ensureBytes(int len) {
+		if (this.bytes.capacity() < len) {
+			this.bytes = ByteBuffer.allocate(Math.max(len, this.bytes.capacity() * 2));
+		}
+	}
+
+	private void growBytes() {
+		ByteBuffer bigger = ByteBuffer.allocate(this.bytes.capacity() * 2);
+		this.bytes.flip();
+		bigger.put(this.bytes);
+		this.bytes = bigger;
+	}
+}
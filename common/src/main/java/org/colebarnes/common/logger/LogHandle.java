@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+/**
+ * A named logger whose effective level is resolved from the level hierarchy
+ * when it is created and pushed to it whenever levels change, so checking a
+ * level is a single field read.
+ */
+public final class LogHandle {
+	private final String name;
+	private volatile int level;
+
+	LogHandle(String name, int level) {
+		this.name = name;
+		this.level = level;
+	}
+
+	void setLevel(int level) {
+		this.level = level;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getLevel() {
+		return this.level;
+	}
+
+	public boolean isEnabled(int level) {
+		return level > Logger.OFF && this.level >= level;
+	}
+
+	public void error(Throwable cause) {
+		if (this.level >= Logger.ERROR) {
+			Logger.emitThrowable(Logger.ERROR, cause);
+		} else {
+			Logger.suppressed(Logger.ERROR);
+		}
+	}
+
+	public void error(String msgFmt, Object... args) {
+		if (this.level >= Logger.ERROR) {
+			Logger.emit(Logger.ERROR, msgFmt, args);
+		} else {
+			Logger.suppressed(Logger.ERROR);
+		}
+	}
+
+	public void warn(Throwable cause) {
+		if (this.level >= Logger.WARN) {
+			Logger.emitThrowable(Logger.WARN, cause);
+		} else {
+			Logger.suppressed(Logger.WARN);
+		}
+	}
+
+	public void warn(String msgFmt, Object... args) {
+		if (this.level >= Logger.WARN) {
+			Logger.emit(Logger.WARN, msgFmt, args);
+		} else {
+			Logger.suppressed(Logger.WARN);
+		}
+	}
+
+	public void info(String msgFmt, Object... args) {
+		if (this.level >= Logger.INFO) {
+			Logger.emit(Logger.INFO, msgFmt, args);
+		} else {
+			Logger.suppressed(Logger.INFO);
+		}
+	}
+
+	public void trace(String msgFmt, Object... args) {
+		if (this.level >= Logger.TRACE) {
+			Logger.emit(Logger.TRACE, msgFmt, args);
+		} else {
+			Logger.suppressed(Logger.TRACE);
+		}
+	}
+
+	public void entering() {
+		if (this.level >= Logger.TRACE) {
+			Logger.emitEntering();
+		} else {
+			Logger.suppressed(Logger.TRACE);
+		}
+	}
+
+	public void exiting() {
+		if (this.level >= Logger.TRACE) {
+			Logger.emitExiting();
+		} else {
+			Logger.suppressed(Logger.TRACE);
+		}
+	}
+
+	public void exiting(Object retVal) {
+		if (this.level >= Logger.TRACE) {
+			Logger.emitExiting(retVal);
+		} else {
+			Logger.suppressed(Logger.TRACE);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", this.name, LogFormatter.levelString(this.level));
+	}
+}
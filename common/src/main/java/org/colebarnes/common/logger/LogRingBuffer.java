@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer. Producers claim a slot
+ * with a CAS on the tail and publish it through the slot's sequence number, so
+ * no lock is taken on the logging path.
+ *
+ * close() sets a flag bit in the tail, so every later offer fails while
+ * slots claimed before it are still published and can be polled.
+ */
+final class LogRingBuffer {
+	private static final long CLOSED = Long.MIN_VALUE;
+
+	private final LogEvent[] slots;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail;
+
+	// only touched by the consumer thread
+	private long head;
+
+	LogRingBuffer(int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("'capacity' must be at least 2.");
+		}
+
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+
+		this.slots = new LogEvent[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.tail = new AtomicLong();
+		this.head = 0;
+
+		for (int i = 0; i < size; i++) {
+			this.sequences.set(i, i);
+		}
+	}
+
+	int capacity() {
+		return this.slots.length;
+	}
+
+	long published() {
+		return this.tail.get() & ~LogRingBuffer.CLOSED;
+	}
+
+	void close() {
+		long pos;
+
+		do {
+			pos = this.tail.get();
+		} while ((pos & LogRingBuffer.CLOSED) == 0 && !this.tail.compareAndSet(pos, pos | LogRingBuffer.CLOSED));
+	}
+
+	boolean isClosed() {
+		return (this.tail.get() & LogRingBuffer.CLOSED) != 0;
+	}
+
+	/**
+	 * Closed and every claimed slot polled. Only for the consumer thread.
+	 */
+	boolean isDrained() {
+		long pos = this.tail.get();
+		return (pos & LogRingBuffer.CLOSED) != 0 && this.head == (pos & ~LogRingBuffer.CLOSED);
+	}
+
+	/**
+	 * Returns false when the ring is full or closed.
+	 */
+	boolean offer(LogEvent event) {
+		long pos = this.tail.get();
+
+		while (true) {
+			if ((pos & LogRingBuffer.CLOSED) != 0) {
+				return false;
+			}
+
+			int idx = (int) (pos & this.mask);
+			long diff = this.sequences.getAcquire(idx) - pos;
+
+			if (diff == 0) {
+				if (this.tail.compareAndSet(pos, pos + 1)) {
+					this.slots[idx] = event;
+					this.sequences.setRelease(idx, pos + 1);
+					return true;
+				}
+
+				pos = this.tail.get();
+			} else if (diff < 0) {
+				// the consumer has not freed this slot yet, we are full
+				return false;
+			} else {
+				pos = this.tail.get();
+			}
+		}
+	}
+
+	LogEvent poll() {
+		int idx = (int) (this.head & this.mask);
+
+		if (this.sequences.getAcquire(idx) != this.head + 1) {
+			return null;
+		}
+
+		LogEvent event = this.slots[idx];
+		this.slots[idx] = null;
+		this.sequences.setRelease(idx, this.head + this.mask + 1);
+		this.head++;
+
+		return event;
+	}
+}
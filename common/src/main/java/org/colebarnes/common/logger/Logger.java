@@ -21,28 +21,30 @@
 
 package org.colebarnes.common.logger;
 
+import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-
-import org.colebarnes.common.DateUtils;
-import org.colebarnes.common.ThreadUtils;;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.colebarnes.common.StringUtils;
+import org.colebarnes.common.ThreadUtils;
+import org.colebarnes.common.ThreadUtils.CallSite;
 
 public class Logger {
 	private static Logger logger = new Logger();
 
 	public static void error(Throwable cause, Object... args) {
-		String msgFmt;
-
-		if (cause == null) {
-			msgFmt = "An unknown exception occured.";
+		if (Logger.logger.isLevelEnabled(ERROR)) {
+			Logger.emitThrowable(ERROR, cause);
 		} else {
-			msgFmt = String.format("An exception occured: %s", cause.getMessage());
+			Logger.suppressed(ERROR);
 		}
-
-		Logger.error(msgFmt);
 	}
 
 	public static void error(String msgFmt, Object... args) {
@@ -50,15 +52,11 @@ public class Logger {
 	}
 
 	public static void warn(Throwable cause, Object... args) {
-		String msgFmt;
-
-		if (cause == null) {
-			msgFmt = "an unknown exception occured";
+		if (Logger.logger.isLevelEnabled(WARN)) {
+			Logger.emitThrowable(WARN, cause);
 		} else {
-			msgFmt = String.format("An exception occured: %s", cause.getMessage());
+			Logger.suppressed(WARN);
 		}
-
-		Logger.warn(msgFmt);
 	}
 
 	public static void warn(String msgFmt, Object... args) {
@@ -74,25 +72,192 @@ public class Logger {
 	}
 
 	public static void entering() {
-		Logger.logger.log(TRACE, ">>> ENTERING %s", ThreadUtils.getCallerInfoString(4, false, false));
+		if (Logger.logger.isLevelEnabled(TRACE)) {
+			Logger.emitEntering();
+		} else {
+			Logger.suppressed(TRACE);
+		}
 	}
 
 	public static void exiting() {
-		Logger.logger.log(TRACE, "<<< EXITING %s", ThreadUtils.getCallerInfoString(4, false, false));
+		if (Logger.logger.isLevelEnabled(TRACE)) {
+			Logger.emitExiting();
+		} else {
+			Logger.suppressed(TRACE);
+		}
 	}
 
 	public static void exiting(Object retVal) {
-		Logger.logger.log(TRACE, "<<< EXITING %s: %s", ThreadUtils.getCallerInfoString(4, false, false),
-				(retVal == null) ? "" : retVal.toString());
+		if (Logger.logger.isLevelEnabled(TRACE)) {
+			Logger.emitExiting(retVal);
+		} else {
+			Logger.suppressed(TRACE);
+		}
+	}
+
+	/**
+	 * Controls how many entering/exiting pairs are written per call site while
+	 * TRACE is enabled, e.g. TraceSampling.oneIn(100) or perSecond(10).
+	 */
+	public static void setTraceSampling(TraceSampling sampling) {
+		if (sampling == null) {
+			throw new NullPointerException("'sampling' is null.");
+		}
+
+		Logger.logger.traceSampling = sampling;
+	}
+
+	public static boolean isEnabled(int level) {
+		return Logger.logger.isLevelEnabled(level);
+	}
+
+	public static LogHandle getHandle(Class<?> clazz) {
+		if (clazz == null) {
+			throw new NullPointerException("'clazz' is null.");
+		}
+
+		return Logger.getHandle(clazz.getName());
+	}
+
+	public static LogHandle getHandle(String name) {
+		if (name == null) {
+			throw new NullPointerException("'name' is null.");
+		}
+
+		return Logger.logger.handle(name);
+	}
+
+	public static void setIncludeCallerInfo(boolean includeCallerInfo) {
+		Logger.logger.includeCallerInfo = includeCallerInfo;
 	}
 
 	public static void setLogLevel(int level) {
-		Logger.logger.level = level;
+		Logger.logger.setRootLevel(level);
+	}
+
+	/**
+	 * Sets the level for a package or class name and everything below it, e.g.
+	 * "org.colebarnes.crypto". Takes effect immediately for existing handles.
+	 * The static Logger.info/trace/... calls have no name to match and only
+	 * follow the root level, so code that wants per-package control logs
+	 * through a LogHandle.
+	 */
+	public static void setLogLevel(String name, int level) {
+		if (StringUtils.isNullOrBlank(name)) {
+			throw new IllegalArgumentException("'name' cannot be null or blank.");
+		}
+
+		Logger.logger.configureLevel(name, level);
+	}
+
+	public static void clearLogLevel(String name) {
+		if (StringUtils.isNullOrBlank(name)) {
+			throw new IllegalArgumentException("'name' cannot be null or blank.");
+		}
+
+		Logger.logger.configureLevel(name, null);
+	}
+
+	/**
+	 * Applies a comma separated list of name=LEVEL pairs, for example
+	 * "root=INFO,org.colebarnes.crypto=TRACE,org.colebarnes.common.zip=WARN".
+	 */
+	public static void configureLevels(String spec) {
+		if (spec == null) {
+			throw new NullPointerException("'spec' is null.");
+		}
+
+		Logger.logger.applyLevels(spec);
+	}
+
+	public static int parseLevel(String level) {
+		if (level == null) {
+			throw new NullPointerException("'level' is null.");
+		}
+
+		switch (level.trim().toUpperCase()) {
+		case "OFF":
+			return Logger.OFF;
+		case "ERROR":
+		case "ERR":
+			return Logger.ERROR;
+		case "WARN":
+		case "WRN":
+			return Logger.WARN;
+		case "INFO":
+		case "INF":
+			return Logger.INFO;
+		case "TRACE":
+		case "TRC":
+			return Logger.TRACE;
+		default:
+			throw new IllegalArgumentException(String.format("Unknown log level: '%s'.", level));
+		}
 	}
 
 	public static void addPrintStream(PrintStream printStream) {
-		// TODO: check input
-		Logger.logger.printStreams.add(printStream);
+		Logger.addAppender(new PrintStreamAppender(printStream));
+	}
+
+	public static void removePrintStream(PrintStream printStream) {
+		Logger.removeAppender(new PrintStreamAppender(printStream));
+	}
+
+	public static void addAppender(Appender appender) {
+		if (appender == null) {
+			throw new NullPointerException("'appender' is null.");
+		}
+
+		Logger.logger.appenders.add(appender);
+		Logger.logger.installShutdownHook();
+	}
+
+	/**
+	 * Adds an appender that receives the compact binary encoding instead of
+	 * text; use BinaryLogDecoder to turn its output back into text.
+	 */
+	public static void addBinaryAppender(Appender appender) {
+		if (appender == null) {
+			throw new NullPointerException("'appender' is null.");
+		}
+
+		BinaryLogEncoder.newGeneration();
+		Logger.logger.binaryAppenders.add(appender);
+		Logger.logger.installShutdownHook();
+	}
+
+	public static void removeAppender(Appender appender) {
+		if (appender == null) {
+			throw new NullPointerException("'appender' is null.");
+		}
+
+		Logger.logger.appenders.remove(appender);
+		Logger.logger.binaryAppenders.remove(appender);
+		Logger.logger.metrics.removed(appender);
+	}
+
+	public static void enableAsync(int capacity, OverflowPolicy policy) {
+		Logger.enableAsync(capacity, policy, Logger.WARN);
+	}
+
+	public static void enableAsync(int capacity, OverflowPolicy policy, int dropThreshold) {
+		Logger.logger.startAsync(capacity, policy, dropThreshold);
+	}
+
+	public static void disableAsync() {
+		Logger.logger.stopAsync();
+	}
+
+	public static long getDroppedCount() {
+		return Logger.logger.metrics.getDroppedEvents();
+	}
+
+	public static LoggerMetricsMXBean getMetrics() {
+		return Logger.logger.metrics;
+	}
+
+	public static void flush() {
+		Logger.logger.flushAll();
 	}
 
 	/* IMPLEMENTATION */
@@ -102,66 +267,324 @@ public class Logger {
 	public static final int INFO = 3;
 	public static final int TRACE = 4;
 
+	public static final String PROP_LEVELS = "org.colebarnes.logger.levels";
+	public static final String PROP_JMX = "org.colebarnes.logger.jmx";
+	public static final String PROP_JMX_DFLT = "true";
+	public static final String ROOT = "root";
+
 	private volatile int level;
-	private Collection<PrintStream> printStreams;
+	private volatile boolean includeCallerInfo;
+	private volatile TraceSampling traceSampling;
+	private final Set<Appender> appenders;
+	private final Set<Appender> binaryAppenders;
+	private volatile AsyncDispatcher dispatcher;
+	private Thread shutdownHook;
+	private final ConcurrentMap<String, LogHandle> handles;
+	private final Map<String, Integer> configuredLevels;
+	private final LoggerMetrics metrics;
 
 	private Logger() {
 		this.level = Logger.WARN;
+		this.includeCallerInfo = true;
+		this.traceSampling = TraceSampling.all();
+		this.handles = new ConcurrentHashMap<>();
+		this.configuredLevels = new HashMap<>();
+
+		this.appenders = new CopyOnWriteArraySet<>();
+		this.appenders.add(new PrintStreamAppender(System.out));
+		this.binaryAppenders = new CopyOnWriteArraySet<>();
+
+		this.metrics = new LoggerMetrics();
+		if (Boolean.parseBoolean(System.getProperty(Logger.PROP_JMX, Logger.PROP_JMX_DFLT))) {
+			this.metrics.register();
+		}
+
+		String spec = System.getProperty(Logger.PROP_LEVELS);
+		if (spec != null) {
+			try {
+				this.applyLevels(spec);
+			} catch (IllegalArgumentException e) {
+				// nothing to log to yet
+				System.err.println(String.format("Ignoring %s: %s", Logger.PROP_LEVELS, e.getMessage()));
+			}
+		}
+	}
 
-		this.printStreams = Collections.synchronizedCollection(new HashSet<PrintStream>());
-		this.printStreams.add(System.out);
+	static void suppressed(int level) {
+		Logger.logger.metrics.suppressed(level);
 	}
 
-	private String getLevelString(int level) {
-		String levelName = "UNKNOWN";
+	static void emit(int level, String msgFmt, Object[] args) {
+		Logger.logger.dispatch(level, null, msgFmt, args);
+	}
 
-		switch (level) {
-		case Logger.OFF:
-			levelName = "OFF";
-			break;
-		case Logger.ERROR:
-			levelName = "ERR";
-			break;
-		case Logger.WARN:
-			levelName = "WRN";
-			break;
-		case Logger.INFO:
-			levelName = "INF";
-			break;
-		case Logger.TRACE:
-			levelName = "TRC";
-			break;
+	static void emitThrowable(int level, Throwable cause) {
+		if (cause == null) {
+			Logger.logger.dispatch(level, null, "An unknown exception occured.");
+		} else {
+			Logger.logger.dispatch(level, null, "An exception occured: {}", cause.getMessage());
 		}
+	}
+
+	static void emitEntering() {
+		CallSite callSite = Logger.getCallSite();
+		boolean sampled = Logger.logger.traceSampling.sample(callSite);
 
-		return levelName;
+		// the sampling decision travels with the frame so exiting() matches it
+		TraceStack.get().push(callSite.getMethodString(), System.nanoTime(), sampled);
+
+		if (sampled) {
+			Logger.logger.dispatch(TRACE, callSite, ">>> ENTERING {}", callSite.getMethodString());
+		} else {
+			Logger.suppressed(TRACE);
+		}
 	}
 
-	private String formatDefaultLogEntry(int level, String msgFmt, Object... args) {
-		StringBuffer msgBuffer = new StringBuffer();
+	static void emitExiting() {
+		Logger.emitExiting(false, null);
+	}
 
-		msgBuffer.append('[').append(ThreadUtils.threadId()).append(']');
-		msgBuffer.append('[').append(DateUtils.iso8601CurrentDate()).append(']');
-		msgBuffer.append('[').append(this.getLevelString(level)).append(']');
-		msgBuffer.append('[').append(ThreadUtils.getCallerInfoString(7, true, true)).append(']');
+	static void emitExiting(Object retVal) {
+		Logger.emitExiting(true, (retVal == null) ? "" : retVal);
+	}
 
-		// TODO: OTHER STUFF in log entry?
+	private static void emitExiting(boolean hasRetVal, Object retVal) {
+		long end = System.nanoTime();
+		CallSite callSite = Logger.getCallSite();
+		String method = callSite.getMethodString();
+		TraceStack stack = TraceStack.get();
+
+		if (!stack.pop(method)) {
+			// entered before TRACE was turned on, no duration to report
+			if (!Logger.logger.traceSampling.sample(callSite)) {
+				Logger.suppressed(TRACE);
+			} else if (hasRetVal) {
+				Logger.logger.dispatch(TRACE, callSite, "<<< EXITING {}: {}", method, retVal);
+			} else {
+				Logger.logger.dispatch(TRACE, callSite, "<<< EXITING {}", method);
+			}
+		} else if (!stack.poppedSampled) {
+			Logger.suppressed(TRACE);
+		} else if (hasRetVal) {
+			Logger.logger.dispatch(TRACE, callSite, "<<< EXITING {}: {} ({} ns)", method, retVal, end - stack.poppedStart);
+		} else {
+			Logger.logger.dispatch(TRACE, callSite, "<<< EXITING {} ({} ns)", method, end - stack.poppedStart);
+		}
+	}
 
-		msgBuffer.append(':').append(String.format(msgFmt, args));
+	private static CallSite getCallSite() {
+		return ThreadUtils.getCallSite(Logger::isLoggerClass);
+	}
 
-		return msgBuffer.toString();
+	private static boolean isLoggerClass(Class<?> clazz) {
+		return clazz == Logger.class || clazz == LogHandle.class;
 	}
 
-	private String formatLogEntry(int level, String msgFmt, Object... args) {
-		return this.formatDefaultLogEntry(level, msgFmt, args);
+	private boolean isLevelEnabled(int level) {
+		int current = this.level;
+		return current > Logger.OFF && current >= level;
 	}
 
 	private void log(int level, String msgFmt, Object... args) {
-		if (this.level > Logger.OFF && this.level >= level) {
-			synchronized (this.printStreams) {
-				Iterator<PrintStream> iter = this.printStreams.iterator();
-				while (iter.hasNext()) {
-					String logEntry = this.formatLogEntry(level, msgFmt, args);
-					iter.next().println(logEntry);
+		if (this.isLevelEnabled(level)) {
+			this.dispatch(level, null, msgFmt, args);
+		} else {
+			this.metrics.suppressed(level);
+		}
+	}
+
+	private void dispatch(int level, CallSite callSite, String msgFmt, Object... args) {
+		long start = System.nanoTime();
+
+		// the caller has to be captured here, on the logging thread, but only
+		// once we know the entry is going out and the layout wants it
+		if (callSite == null && this.includeCallerInfo) {
+			callSite = Logger.getCallSite();
+		} else if (!this.includeCallerInfo) {
+			callSite = null;
+		}
+
+		LogEvent event = new LogEvent(level, ThreadUtils.threadId(), LogEvent.currentTimeNanos(), callSite, msgFmt, args);
+
+		AsyncDispatcher dispatcher = this.dispatcher;
+		if (dispatcher == null || !dispatcher.publish(event)) {
+			this.write(event);
+		}
+
+		this.metrics.emitted(level, System.nanoTime() - start);
+	}
+
+	private LogHandle handle(String name) {
+		LogHandle handle = this.handles.get(name);
+
+		if (handle == null) {
+			synchronized (this.configuredLevels) {
+				handle = this.handles.computeIfAbsent(name, n -> new LogHandle(n, this.resolveLevel(n)));
+			}
+		}
+
+		return handle;
+	}
+
+	private void setRootLevel(int level) {
+		synchronized (this.configuredLevels) {
+			this.level = level;
+			this.refreshHandles();
+		}
+	}
+
+	private void configureLevel(String name, Integer level) {
+		synchronized (this.configuredLevels) {
+			if (level == null) {
+				this.configuredLevels.remove(name);
+			} else {
+				this.configuredLevels.put(name, level);
+			}
+
+			this.refreshHandles();
+		}
+	}
+
+	private void refreshHandles() {
+		for (LogHandle handle : this.handles.values()) {
+			handle.setLevel(this.resolveLevel(handle.getName()));
+		}
+	}
+
+	// walks up the name: a.b.C$D -> a.b.C -> a.b -> a -> root
+	private int resolveLevel(String name) {
+		String current = name;
+
+		while (!current.isEmpty()) {
+			Integer configured = this.configuredLevels.get(current);
+
+			if (configured != null) {
+				return configured;
+			}
+
+			int idx = Math.max(current.lastIndexOf('.'), current.lastIndexOf('$'));
+			if (idx < 0) {
+				break;
+			}
+
+			current = current.substring(0, idx);
+		}
+
+		return this.level;
+	}
+
+	private void applyLevels(String spec) {
+		for (String entry : spec.split(",")) {
+			if (StringUtils.isNullOrBlank(entry)) {
+				continue;
+			}
+
+			int idx = entry.indexOf('=');
+			if (idx <= 0) {
+				throw new IllegalArgumentException(String.format("Invalid level entry: '%s'.", entry));
+			}
+
+			String name = entry.substring(0, idx).trim();
+			int level = Logger.parseLevel(entry.substring(idx + 1));
+
+			if (name.equalsIgnoreCase(Logger.ROOT)) {
+				this.setRootLevel(level);
+			} else {
+				this.configureLevel(name, level);
+			}
+		}
+	}
+
+	private void write(LogEvent event) {
+		// format and encode once, then hand the same bytes to every appender
+		if (!this.appenders.isEmpty()) {
+			this.append(this.appenders, LogFormatter.get().format(event));
+		}
+
+		if (!this.binaryAppenders.isEmpty()) {
+			BinaryLogEncoder encoder = BinaryLogEncoder.get();
+			this.append(this.binaryAppenders, encoder.encode(event));
+			encoder.published();
+		}
+	}
+
+	private void append(Set<Appender> appenders, ByteBuffer entry) {
+		for (Appender appender : appenders) {
+			long start = System.nanoTime();
+
+			try {
+				appender.append(entry.array(), entry.arrayOffset(), entry.limit());
+				this.metrics.written(appender, entry.limit(), System.nanoTime() - start);
+			} catch (IOException e) {
+				Logger.reportAppenderError(appender, e);
+			}
+		}
+	}
+
+	private static void reportAppenderError(Appender appender, IOException e) {
+		// there is nowhere else to log this
+		System.err.println(String.format("Log appender %s failed: %s", appender, e.getMessage()));
+	}
+
+	private synchronized void startAsync(int capacity, OverflowPolicy policy, int dropThreshold) {
+		this.stopAsync();
+
+		AsyncDispatcher dispatcher = new AsyncDispatcher(capacity, policy, dropThreshold, this::write, this.metrics);
+		dispatcher.start();
+		this.dispatcher = dispatcher;
+
+		this.installShutdownHook();
+	}
+
+	private synchronized void stopAsync() {
+		AsyncDispatcher dispatcher = this.dispatcher;
+
+		if (dispatcher != null) {
+			this.dispatcher = null;
+			dispatcher.shutdown();
+		}
+
+		this.flushAppenders();
+	}
+
+	private synchronized void installShutdownHook() {
+		if (this.shutdownHook == null) {
+			this.shutdownHook = new Thread(this::shutdown, "logger-shutdown");
+			Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+		}
+	}
+
+	private void shutdown() {
+		this.stopAsync();
+
+		for (Set<Appender> appenders : List.of(this.appenders, this.binaryAppenders)) {
+			for (Appender appender : appenders) {
+				try {
+					appender.close();
+				} catch (IOException e) {
+					Logger.reportAppenderError(appender, e);
+				}
+			}
+		}
+	}
+
+	private void flushAll() {
+		AsyncDispatcher dispatcher = this.dispatcher;
+
+		if (dispatcher != null) {
+			dispatcher.flush();
+		}
+
+		this.flushAppenders();
+	}
+
+	private void flushAppenders() {
+		for (Set<Appender> appenders : List.of(this.appenders, this.binaryAppenders)) {
+			for (Appender appender : appenders) {
+				try {
+					appender.flush();
+				} catch (IOException e) {
+					Logger.reportAppenderError(appender, e);
 				}
 			}
 		}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+final class LoggerMetrics implements LoggerMetricsMXBean {
+	static final String OBJECT_NAME = "org.colebarnes.common.logger:type=Logger";
+
+	private static final String[] LEVEL_NAMES = { "OFF", "ERROR", "WARN", "INFO", "TRACE" };
+
+	private final LongAdder[] emitted;
+	private final LongAdder[] suppressed;
+	private final LongAdder dropped;
+	private final LongAdder bytesWritten;
+	private final LatencyHistogram logLatency;
+	private final ConcurrentMap<Appender, LatencyHistogram> appenderLatency;
+
+	LoggerMetrics() {
+		this.emitted = LoggerMetrics.adders(LoggerMetrics.LEVEL_NAMES.length);
+		this.suppressed = LoggerMetrics.adders(LoggerMetrics.LEVEL_NAMES.length);
+		this.dropped = new LongAdder();
+		this.bytesWritten = new LongAdder();
+		this.logLatency = new LatencyHistogram();
+		this.appenderLatency = new ConcurrentHashMap<>();
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+
+		return adders;
+	}
+
+	private static int slot(int level) {
+		return (level < 0 || level >= LoggerMetrics.LEVEL_NAMES.length) ? 0 : level;
+	}
+
+	void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(LoggerMetrics.OBJECT_NAME);
+
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		} catch (JMException | SecurityException e) {
+			System.err.println(String.format("Unable to register logger metrics: %s", e.getMessage()));
+		}
+	}
+
+	void emitted(int level, long nanos) {
+		this.emitted[LoggerMetrics.slot(level)].increment();
+		this.logLatency.record(nanos);
+	}
+
+	void suppressed(int level) {
+		this.suppressed[LoggerMetrics.slot(level)].increment();
+	}
+
+	void dropped() {
+		this.dropped.increment();
+	}
+
+	void written(Appender appender, int bytes, long nanos) {
+		this.bytesWritten.add(bytes);
+
+		LatencyHistogram histogram = this.appenderLatency.get(appender);
+		if (histogram == null) {
+			histogram = this.appenderLatency.computeIfAbsent(appender, a -> new LatencyHistogram());
+		}
+
+		histogram.record(nanos);
+	}
+
+	void removed(Appender appender) {
+		this.appenderLatency.remove(appender);
+	}
+
+	@Override
+	public Map<String, Long> getEmittedEvents() {
+		return LoggerMetrics.byLevel(this.emitted);
+	}
+
+	@Override
+	public Map<String, Long> getSuppressedEvents() {
+		return LoggerMetrics.byLevel(this.suppressed);
+	}
+
+	@Override
+	public long getDroppedEvents() {
+		return this.dropped.sum();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return this.bytesWritten.sum();
+	}
+
+	@Override
+	public long getLogLatencyCount() {
+		return this.logLatency.count();
+	}
+
+	@Override
+	public long getLogLatencyP50Nanos() {
+		return this.logLatency.percentile(50);
+	}
+
+	@Override
+	public long getLogLatencyP99Nanos() {
+		return this.logLatency.percentile(99);
+	}
+
+	@Override
+	public long getLogLatencyP999Nanos() {
+		return this.logLatency.percentile(99.9);
+	}
+
+	@Override
+	public long getLogLatencyMaxNanos() {
+		return this.logLatency.max();
+	}
+
+	@Override
+	public Map<String, Long> getAppenderWriteLatencyP99Nanos() {
+		return this.byAppender(h -> h.percentile(99));
+	}
+
+	@Override
+	public Map<String, Long> getAppenderWriteLatencyMaxNanos() {
+		return this.byAppender(LatencyHistogram::max);
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < LoggerMetrics.LEVEL_NAMES.length; i++) {
+			this.emitted[i].reset();
+			this.suppressed[i].reset();
+		}
+
+		this.dropped.reset();
+		this.bytesWritten.reset();
+		this.logLatency.reset();
+
+		for (LatencyHistogram histogram : this.appenderLatency.values()) {
+			histogram.reset();
+		}
+	}
+
+	private static Map<String, Long> byLevel(LongAdder[] adders) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+
+		for (int level = Logger.ERROR; level < adders.length; level++) {
+			counts.put(LoggerMetrics.LEVEL_NAMES[level], adders[level].sum());
+		}
+
+		return counts;
+	}
+
+	private Map<String, Long> byAppender(ToLongFunction<LatencyHistogram> value) {
+		Map<String, Long> values = new LinkedHashMap<>();
+
+		for (Map.Entry<Appender, LatencyHistogram> entry : this.appenderLatency.entrySet()) {
+			values.put(entry.getKey().toString(), value.applyAsLong(entry.getValue()));
+		}
+
+		return values;
+	}
+}
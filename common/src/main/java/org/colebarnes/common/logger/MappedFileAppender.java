@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.colebarnes.common.DateUtils;
+
+/**
+ * Appends log entries into a memory mapped window of the log file, so an
+ * append is a copy into the page cache rather than a write() per line. The
+ * file is rolled once it reaches maxFileSize bytes or is older than
+ * rollIntervalMillis, and rolled segments can be gzipped in the background.
+ *
+ * The mapped window extends the file past the last entry; close() trims it.
+ * After a crash the file may end in zero bytes, which are trimmed when the
+ * file is opened again.
+ *
+ * A mapping is only released when its buffer is garbage collected. Windows
+ * refuses to truncate or rename a file while any of it is still mapped, so
+ * there close() may leave the zero tail for the next open to trim, and
+ * rolling fails; pass NO_TIME_ROLL and a maxFileSize that is never reached.
+ */
+public final class MappedFileAppender implements Appender {
+	public static final long DEFAULT_REGION_SIZE = 4L * 1024 * 1024;
+	public static final long DEFAULT_MAX_FILE_SIZE = 64L * 1024 * 1024;
+	public static final long NO_TIME_ROLL = 0L;
+
+	private static final String ROLL_SUFFIX_FORMAT = "yyyyMMdd-HHmmss";
+	private static final String GZIP_SUFFIX = ".gz";
+
+	public static MappedFileAppender getInstance(File file) throws IOException {
+		return MappedFileAppender.getInstance(file, MappedFileAppender.DEFAULT_MAX_FILE_SIZE, MappedFileAppender.NO_TIME_ROLL, false);
+	}
+
+	public static MappedFileAppender getInstance(File file, long maxFileSize, long rollIntervalMillis, boolean compress) throws IOException {
+		return new MappedFileAppender(file, MappedFileAppender.DEFAULT_REGION_SIZE, maxFileSize, rollIntervalMillis, compress);
+	}
+
+	public static MappedFileAppender getInstance(File file, long regionSize, long maxFileSize, long rollIntervalMillis, boolean compress)
+			throws IOException {
+		return new MappedFileAppender(file, regionSize, maxFileSize, rollIntervalMillis, compress);
+	}
+
+	private final File file;
+	private final long regionSize;
+	private final long maxFileSize;
+	private final long rollIntervalMillis;
+	private final boolean compress;
+
+	private FileChannel channel;
+	private MappedByteBuffer region;
+	private long written;
+	private long openedAt;
+	private int rollSequence;
+	private ExecutorService compressor;
+
+	private MappedFileAppender(File file, long regionSize, long maxFileSize, long rollIntervalMillis, boolean compress) throws IOException {
+		if (file == null) {
+			throw new NullPointerException("'file' is null.");
+		}
+
+		if (regionSize <= 0 || regionSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("'regionSize' must be positive and fit in an int.");
+		}
+
+		if (maxFileSize <= 0) {
+			throw new IllegalArgumentException("'maxFileSize' must be positive.");
+		}
+
+		if (rollIntervalMillis < 0) {
+			throw new IllegalArgumentException("'rollIntervalMillis' cannot be negative.");
+		}
+
+		this.file = file.getAbsoluteFile();
+		this.regionSize = regionSize;
+		this.maxFileSize = maxFileSize;
+		this.rollIntervalMillis = rollIntervalMillis;
+		this.compress = compress;
+
+		this.open();
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MappedFile[%s]", this.file);
+	}
+
+	@Override
+	public synchronized void append(byte[] bytes, int offset, int length) throws IOException {
+		if (this.channel == null) {
+			throw new IOException("The appender is closed.");
+		}
+
+		if (this.shouldRoll(length)) {
+			this.roll();
+		}
+
+		while (length > 0) {
+			if (this.region == null || !this.region.hasRemaining()) {
+				this.mapNextRegion();
+			}
+
+			int n = Math.min(length, this.region.remaining());
+			this.region.put(bytes, offset, n);
+
+			offset += n;
+			length -= n;
+			this.written += n;
+		}
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		// entries are already in the page cache; force() would be an fsync
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			this.closeFile();
+		} finally {
+			if (this.compressor != null) {
+				this.compressor.shutdown();
+
+				try {
+					this.compressor.awaitTermination(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	private boolean shouldRoll(int length) {
+		// never roll an empty segment
+		if (this.written == 0) {
+			return false;
+		}
+
+		if (this.written + length > this.maxFileSize) {
+			return true;
+		}
+
+		return this.rollIntervalMillis > 0 && System.currentTimeMillis() - this.openedAt >= this.rollIntervalMillis;
+	}
+
+	private void open() throws IOException {
+		File parent = this.file.getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException(String.format("Unable to create log directory: %s", parent));
+		}
+
+		this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.written = MappedFileAppender.findEnd(this.channel);
+		this.region = null;
+		this.openedAt = System.currentTimeMillis();
+	}
+
+	private void mapNextRegion() throws IOException {
+		this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, this.written, this.regionSize);
+	}
+
+	private void closeFile() throws IOException {
+		if (this.channel != null) {
+			try {
+				// drop the mapping before trimming the unused tail of the window
+				this.region = null;
+				this.channel.truncate(this.written);
+			} catch (IOException e) {
+				// still mapped (Windows); the zero tail is trimmed on the next open
+			} finally {
+				this.channel.close();
+				this.channel = null;
+			}
+		}
+	}
+
+	private void roll() throws IOException {
+		this.closeFile();
+
+		String suffix = DateUtils.formatCurrentDate(MappedFileAppender.ROLL_SUFFIX_FORMAT);
+		File rolled = new File(this.file.getPath() + '.' + suffix + '.' + this.rollSequence++);
+		Files.move(this.file.toPath(), rolled.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+		if (this.compress) {
+			if (this.compressor == null) {
+				this.compressor = Executors.newSingleThreadExecutor(r -> {
+					Thread thread = new Thread(r, "logger-compressor");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+
+			this.compressor.execute(() -> MappedFileAppender.gzip(rolled));
+		}
+
+		this.open();
+	}
+
+	private static void gzip(File rolled) {
+		File gzipped = new File(rolled.getPath() + MappedFileAppender.GZIP_SUFFIX);
+
+		try (InputStream in = new FileInputStream(rolled); OutputStream out = new GZIPOutputStream(new FileOutputStream(gzipped))) {
+			// not StreamUtils.copy, which logs and could end up waiting on this appender
+			in.transferTo(out);
+		} catch (IOException e) {
+			// leave the uncompressed segment in place
+			e.printStackTrace(System.err);
+			return;
+		}
+
+		if (!rolled.delete()) {
+			System.err.println(String.format("Unable to delete rolled log segment: %s", rolled));
+		}
+	}
+
+	// a previous run may have died with part of its window still mapped
+	private static long findEnd(FileChannel channel) throws IOException {
+		long end = channel.size();
+		ByteBuffer block = ByteBuffer.allocate(8192);
+
+		while (end > 0) {
+			int len = (int) Math.min(block.capacity(), end);
+			long start = end - len;
+
+			block.clear().limit(len);
+			while (block.hasRemaining() && channel.read(block, start + block.position()) >= 0) {
+				// keep reading
+			}
+
+			for (int i = len - 1; i >= 0; i--) {
+				if (block.get(i) != 0) {
+					return start + i + 1;
+				}
+			}
+
+			end = start;
+		}
+
+		return 0;
+	}
+}
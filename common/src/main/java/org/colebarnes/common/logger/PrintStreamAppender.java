@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+final class PrintStreamAppender implements Appender {
+	private final PrintStream printStream;
+
+	PrintStreamAppender(PrintStream printStream) {
+		if (printStream == null) {
+			throw new NullPointerException("'printStream' is null.");
+		}
+
+		this.printStream = printStream;
+	}
+
+	@Override
+	public void append(byte[] bytes, int offset, int length) throws IOException {
+		this.printStream.write(bytes, offset, length);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.printStream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		// the stream belongs to whoever registered it
+		this.printStream.flush();
+	}
+
+	@Override
+	public String toString() {
+		if (this.printStream == System.out) {
+			return "stdout";
+		} else if (this.printStream == System.err) {
+			return "stderr";
+		}
+
+		return String.format("PrintStream@%x", System.identityHashCode(this.printStream));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return (obj instanceof PrintStreamAppender other) && other.printStream == this.printStream;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this.printStream);
+	}
+}
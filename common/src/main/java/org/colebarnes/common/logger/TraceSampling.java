@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.colebarnes.common.ThreadUtils.CallSite;
+
+/**
+ * How often entering/exiting trace entries are written for a call site: every
+ * time, one call in N, or at most N calls per second (token bucket with a
+ * burst of N). An exiting entry is written whenever its entering entry was.
+ */
+public final class TraceSampling {
+	private static final TraceSampling ALL = new TraceSampling(0, 0);
+
+	private static final int KIND_ALL = 0;
+	private static final int KIND_ONE_IN = 1;
+	private static final int KIND_PER_SECOND = 2;
+
+	public static TraceSampling all() {
+		return TraceSampling.ALL;
+	}
+
+	public static TraceSampling oneIn(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("'n' must be at least 1.");
+		}
+
+		return (n == 1) ? TraceSampling.ALL : new TraceSampling(TraceSampling.KIND_ONE_IN, n);
+	}
+
+	public static TraceSampling perSecond(int permits) {
+		if (permits < 1) {
+			throw new IllegalArgumentException("'permits' must be at least 1.");
+		}
+
+		return new TraceSampling(TraceSampling.KIND_PER_SECOND, permits);
+	}
+
+	private final int kind;
+	private final int rate;
+	private final ConcurrentMap<CallSite, Sampler> samplers;
+
+	private TraceSampling(int kind, int rate) {
+		this.kind = kind;
+		this.rate = rate;
+		this.samplers = new ConcurrentHashMap<>();
+	}
+
+	boolean sample(CallSite callSite) {
+		if (this.kind == TraceSampling.KIND_ALL) {
+			return true;
+		}
+
+		Sampler sampler = this.samplers.get(callSite);
+		if (sampler == null) {
+			sampler = this.samplers.computeIfAbsent(callSite, c -> this.newSampler());
+		}
+
+		return sampler.sample();
+	}
+
+	private Sampler newSampler() {
+		switch (this.kind) {
+		case TraceSampling.KIND_ONE_IN:
+			return new OneInSampler(this.rate);
+		case TraceSampling.KIND_PER_SECOND:
+			return new TokenBucketSampler(this.rate);
+		default:
+			return () -> true;
+		}
+	}
+
+	@Override
+	public String toString() {
+		switch (this.kind) {
+		case TraceSampling.KIND_ONE_IN:
+			return String.format("1 in %d", this.rate);
+		case TraceSampling.KIND_PER_SECOND:
+			return String.format("%d per second", this.rate);
+		default:
+			return "all";
+		}
+	}
+
+	interface Sampler {
+		boolean sample();
+	}
+
+	private static final class OneInSampler implements Sampler {
+		private final int n;
+		private final AtomicLong calls;
+
+		OneInSampler(int n) {
+			this.n = n;
+			this.calls = new AtomicLong();
+		}
+
+		@Override
+		public boolean sample() {
+			return this.calls.getAndIncrement() % this.n == 0;
+		}
+	}
+
+	// GCRA form of a token bucket: one CAS per sampled call, no refill thread
+	private static final class TokenBucketSampler implements Sampler {
+		private final long interval;
+		private final long burst;
+		private final AtomicLong theoreticalArrival;
+
+		TokenBucketSampler(int permitsPerSecond) {
+			this.interval = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+			this.burst = this.interval * (permitsPerSecond - 1);
+			this.theoreticalArrival = new AtomicLong(System.nanoTime());
+		}
+
+		@Override
+		public boolean sample() {
+			long now = System.nanoTime();
+
+			while (true) {
+				long tat = this.theoreticalArrival.get();
+
+				if (tat - now > this.burst) {
+					return false;
+				}
+
+				long next = Math.max(tat, now) + this.interval;
+				if (this.theoreticalArrival.compareAndSet(tat, next)) {
+					return true;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread stack of open entering() calls, used to pair each exiting()
+ * with its entering() for the sampling decision and the duration. Frames
+ * left behind by exceptions are discarded when an outer method exits.
+ */
+final class TraceStack {
+	private static final ThreadLocal<TraceStack> LOCAL = ThreadLocal.withInitial(TraceStack::new);
+	private static final int MAX_DEPTH = 256;
+
+	static TraceStack get() {
+		return TraceStack.LOCAL.get();
+	}
+
+	private String[] methods;
+	private long[] starts;
+	private boolean[] sampled;
+	private int depth;
+
+	// result of the last pop()
+	long poppedStart;
+	boolean poppedSampled;
+
+	private TraceStack() {
+		this.methods = new String[16];
+		this.starts = new long[16];
+		this.sampled = new boolean[16];
+		this.depth = 0;
+	}
+
+	void push(String method, long start, boolean sampled) {
+		if (this.depth == TraceStack.MAX_DEPTH) {
+			// exiting() is never reached on some path, start over
+			Arrays.fill(this.methods, null);
+			this.depth = 0;
+		}
+
+		if (this.depth == this.methods.length) {
+			int size = Math.min(this.depth * 2, TraceStack.MAX_DEPTH);
+			this.methods = Arrays.copyOf(this.methods, size);
+			this.starts = Arrays.copyOf(this.starts, size);
+			this.sampled = Arrays.copyOf(this.sampled, size);
+		}
+
+		this.methods[this.depth] = method;
+		this.starts[this.depth] = start;
+		this.sampled[this.depth] = sampled;
+		this.depth++;
+	}
+
+	/**
+	 * Pops up to and including the innermost frame for the method and returns
+	 * true, or returns false and leaves the stack alone if there is none.
+	 */
+	boolean pop(String method) {
+		for (int i = this.depth - 1; i >= 0; i--) {
+			if (this.methods[i].equals(method)) {
+				this.poppedStart = this.starts[i];
+				this.poppedSampled = this.sampled[i];
+
+				Arrays.fill(this.methods, i, this.depth, null);
+				this.depth = i;
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -25,23 +25,35 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
+import org.colebarnes.common.BufferPool;
 import org.colebarnes.common.ByteUtils;
 import org.colebarnes.common.StreamUtils;
 import org.colebarnes.common.StringUtils;
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 public abstract class ZipReader implements Closeable {
+	private static final LogHandle LOGGER = Logger.getHandle(ZipReader.class);
+
+	public static final int STREAM_ENTRY_BUFFER = 64 * 1024;
+	public static final int STREAM_RETAINED_BYTES = 64 * ZipReader.STREAM_ENTRY_BUFFER;
+
 	public static ZipReader getInstance(final File file) throws IOException {
 		return new ZipFileReader(file);
 	}
@@ -50,28 +62,87 @@ public abstract class ZipReader implements Closeable {
 		return new ZipMemoryReader(bytes);
 	}
 
+	/**
+	 * Reads an archive as it arrives, for example from a socket, without
+	 * holding all of it. Entries up to STREAM_ENTRY_BUFFER bytes are kept once
+	 * read or skipped, so they can be read again in any order. A larger entry
+	 * is streamed once and can only be read if it is asked for before any
+	 * entry that comes after it. entryNames() only knows the entries seen so
+	 * far. At most STREAM_RETAINED_BYTES are kept, names included; reading
+	 * past that fails rather than buffering the archive.
+	 */
+	public static ZipReader getInstance(final InputStream in) {
+		return new ZipStreamReader(in);
+	}
+
 	public long readLong(final String entryName) throws IOException {
-		byte[] bytes = this.readBytes(entryName);
-		return ByteUtils.toLong(bytes);
+		return ByteUtils.getLong(this.readPrefix(entryName, Long.BYTES), 0);
 	}
 
 	public int readInt(final String entryName) throws IOException {
-		byte[] bytes = this.readBytes(entryName);
-		return ByteUtils.toInt(bytes);
+		return ByteUtils.getInt(this.readPrefix(entryName, Integer.BYTES), 0);
 	}
 
 	public String readString(final String entryName) throws IOException {
-		byte[] bytes = this.readBytes(entryName);
-		return StringUtils.fromBytes(bytes);
+		long size = this.entrySize(entryName);
+
+		// decode straight out of a pooled buffer rather than a copy of the entry
+		if (size >= 0 && size <= BufferPool.MAX_SIZE) {
+			byte[] bytes = BufferPool.getHeapInstance().acquireArray((int) size);
+
+			try (InputStream in = this.getInputStream(entryName)) {
+				if (in.readNBytes(bytes, 0, (int) size) != size) {
+					throw new IOException("The specified entry is truncated.");
+				}
+
+				return StringUtils.decode(ByteBuffer.wrap(bytes, 0, (int) size));
+			} finally {
+				BufferPool.getHeapInstance().release(bytes);
+			}
+		}
+
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			this.readEntry(entryName, out);
+			return out.toString(StringUtils.defaultCharset());
+		}
 	}
 
 	public byte[] readBytes(final String entryName) throws IOException {
+		long size = this.entrySize(entryName);
+
+		// known sizes go straight into the result instead of a growing buffer;
+		// the size comes from the archive, so a huge one is not trusted
+		if (size >= 0 && size <= BufferPool.MAX_SIZE) {
+			byte[] bytes = new byte[(int) size];
+
+			try (InputStream in = this.getInputStream(entryName)) {
+				if (in.readNBytes(bytes, 0, bytes.length) != bytes.length) {
+					throw new IOException("The specified entry is truncated.");
+				}
+			}
+
+			return bytes;
+		}
+
 		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 			this.readEntry(entryName, out);
 			return out.toByteArray();
 		}
 	}
 
+	// just the leading bytes of an entry, without buffering the rest of it
+	private byte[] readPrefix(final String entryName, final int length) throws IOException {
+		byte[] bytes = new byte[length];
+
+		try (InputStream in = this.getInputStream(entryName)) {
+			if (in.readNBytes(bytes, 0, length) != length) {
+				throw new IOException("The specified entry is truncated.");
+			}
+		}
+
+		return bytes;
+	}
+
 	public void readEntry(final String entryName, final OutputStream out) throws IOException {
 		try (InputStream in = this.getInputStream(entryName)) {
 			StreamUtils.copy(in, out);
@@ -80,6 +151,11 @@ public abstract class ZipReader implements Closeable {
 
 	public abstract Set<String> entryNames();
 
+	// uncompressed size if the archive records it up front, -1 otherwise
+	long entrySize(final String entryName) throws IOException {
+		return -1;
+	}
+
 	public abstract InputStream getInputStream(final String entryName) throws IOException;
 
 	private static class ZipMemoryReader extends ZipReader {
@@ -131,13 +207,92 @@ public abstract class ZipReader implements Closeable {
 					entries.add(zipEntry.getName());
 				}
 			} catch (IOException e) {
-				Logger.warn(e);
+				ZipReader.LOGGER.warn(e);
 			}
 
 			return entries;
 		}
 	}
 
+	private static class ZipStreamReader extends ZipReader {
+		private final ZipInputStream in;
+		// small entries already read or skipped, by name
+		private final Map<String, byte[]> seen = new LinkedHashMap<>();
+		private long retained;
+
+		public ZipStreamReader(final InputStream in) {
+			if (in == null) {
+				throw new NullPointerException("'in' is null.");
+			}
+
+			this.in = new ZipInputStream(in);
+		}
+
+		@Override
+		public InputStream getInputStream(final String entryName) throws IOException {
+			if (entryName == null) {
+				throw new NullPointerException("'entryName' is null.");
+			}
+
+			byte[] bytes = this.seen.get(entryName);
+
+			if (bytes != null) {
+				return new ByteArrayInputStream(bytes);
+			}
+
+			ZipEntry zipEntry;
+
+			while ((zipEntry = this.in.getNextEntry()) != null) {
+				byte[] prefix = this.in.readNBytes(ZipReader.STREAM_ENTRY_BUFFER + 1);
+
+				if (prefix.length <= ZipReader.STREAM_ENTRY_BUFFER) {
+					this.retained += prefix.length + zipEntry.getName().length();
+
+					if (this.retained > ZipReader.STREAM_RETAINED_BYTES) {
+						throw new IOException(String.format("More than %d bytes of entries before '%s'.", ZipReader.STREAM_RETAINED_BYTES, entryName));
+					}
+
+					this.seen.put(zipEntry.getName(), prefix);
+
+					if (zipEntry.getName().equals(entryName)) {
+						return new ByteArrayInputStream(prefix);
+					}
+				} else if (zipEntry.getName().equals(entryName)) {
+					// the rest comes straight off the archive, which stays open
+					// for the entries after it
+					InputStream rest = new FilterInputStream(this.in) {
+						@Override
+						public void close() {
+							// nothing to do
+						}
+					};
+
+					return new SequenceInputStream(new ByteArrayInputStream(prefix), rest);
+				} else {
+					throw new IOException(String.format("Entry '%s' is too large to skip on the way to '%s'.", zipEntry.getName(), entryName));
+				}
+			}
+
+			throw new IOException("The specified entry does not exist.");
+		}
+
+		@Override
+		long entrySize(final String entryName) throws IOException {
+			byte[] bytes = this.seen.get(entryName);
+			return bytes == null ? -1 : bytes.length;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+
+		@Override
+		public Set<String> entryNames() {
+			return new TreeSet<>(this.seen.keySet());
+		}
+	}
+
 	private static class ZipFileReader extends ZipReader {
 		private ZipFile zipFile;
 
@@ -168,6 +323,12 @@ public abstract class ZipReader implements Closeable {
 			return this.zipFile.getInputStream(zipEntry);
 		}
 
+		@Override
+		long entrySize(final String entryName) throws IOException {
+			ZipEntry zipEntry = this.zipFile.getEntry(entryName);
+			return zipEntry == null ? -1 : zipEntry.getSize();
+		}
+
 		@Override
 		public void close() throws IOException {
 			this.zipFile.close();
@@ -21,7 +21,6 @@
 
 package org.colebarnes.common.zip;
 
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -29,9 +28,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.zip.Checksum;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.colebarnes.common.BufferPool;
 import org.colebarnes.common.ByteUtils;
 import org.colebarnes.common.StreamUtils;
 import org.colebarnes.common.StringUtils;
@@ -47,6 +50,8 @@ public class ZipWriter implements Closeable {
 	}
 
 	private ZipOutputStream zipOut;
+	// numbers are encoded here rather than into a fresh array each
+	private final byte[] scratch = new byte[Long.BYTES];
 
 	private ZipWriter(final OutputStream out) {
 		if (out == null) {
@@ -57,11 +62,11 @@ public class ZipWriter implements Closeable {
 	}
 
 	public long write(final String entryName, final long number) throws IOException {
-		return this.write(entryName, ByteUtils.fromLong(number));
+		return this.write(entryName, this.scratch, ByteUtils.putLong(this.scratch, 0, number));
 	}
 
 	public long write(final String entryName, final int number) throws IOException {
-		return this.write(entryName, ByteUtils.fromInt(number));
+		return this.write(entryName, this.scratch, ByteUtils.putInt(this.scratch, 0, number));
 	}
 
 	public long write(final String entryName, final String str) throws IOException {
@@ -69,7 +74,13 @@ public class ZipWriter implements Closeable {
 			throw new NullPointerException("'str' is null.");
 		}
 
-		return this.write(entryName, StringUtils.toBytes(str));
+		ByteBuffer buffer = BufferPool.getHeapInstance().acquire(StringUtils.utf8Length(str));
+
+		try {
+			return this.write(entryName, buffer.array(), StringUtils.encode(str, buffer));
+		} finally {
+			BufferPool.getHeapInstance().release(buffer);
+		}
 	}
 
 	public long write(final String entryName, final byte[] bytes) throws IOException {
@@ -77,12 +88,44 @@ public class ZipWriter implements Closeable {
 			throw new NullPointerException("'bytes' is null.");
 		}
 
-		try (InputStream in = new ByteArrayInputStream(bytes)) {
-			return this.write(entryName, in);
+		return this.write(entryName, bytes, bytes.length);
+	}
+
+	private long write(final String entryName, final byte[] bytes, final int length) throws IOException {
+		if (StringUtils.isNullOrBlank(entryName)) {
+			throw new NullPointerException("'entryName' is null or blank.");
+		}
+
+		try {
+			this.zipOut.putNextEntry(new ZipEntry(entryName));
+			this.zipOut.write(bytes, 0, length);
+			return length;
+		} finally {
+			this.zipOut.closeEntry();
 		}
 	}
 
 	public long write(final String entryName, final InputStream in) throws IOException {
+		return this.write(entryName, in, new Checksum[0], new MessageDigest[0]);
+	}
+
+	/**
+	 * Writes the entry and updates the checksums with its uncompressed bytes
+	 * in the same pass.
+	 */
+	public long write(final String entryName, final InputStream in, final Checksum... checksums) throws IOException {
+		return this.write(entryName, in, checksums, new MessageDigest[0]);
+	}
+
+	/**
+	 * Writes the entry and updates the digests with its uncompressed bytes in
+	 * the same pass. The digests are left for the caller to finish.
+	 */
+	public long write(final String entryName, final InputStream in, final MessageDigest... digests) throws IOException {
+		return this.write(entryName, in, new Checksum[0], digests);
+	}
+
+	private long write(final String entryName, final InputStream in, final Checksum[] checksums, final MessageDigest[] digests) throws IOException {
 		if (StringUtils.isNullOrBlank(entryName)) {
 			throw new NullPointerException("'entryName' is null or blank.");
 		}
@@ -94,7 +137,7 @@ public class ZipWriter implements Closeable {
 		try {
 			ZipEntry entry = new ZipEntry(entryName);
 			this.zipOut.putNextEntry(entry);
-			return StreamUtils.copy(in, this.zipOut);
+			return StreamUtils.copy(in, this.zipOut, StreamUtils.DEFAULT_BUFFER_LEN, checksums, digests);
 		} finally {
 			this.zipOut.closeEntry();
 		}
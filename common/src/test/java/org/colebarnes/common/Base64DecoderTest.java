@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class Base64DecoderTest {
+	@Test
+	public void decodesAcrossEverySplit() {
+		for (int length = 0; length < 10; length++) {
+			byte[] bytes = ByteUtils.random(length);
+			byte[] padded = Base64.getEncoder().encode(bytes);
+			byte[] unpadded = Base64.getEncoder().withoutPadding().encode(bytes);
+
+			for (byte[] encoded : new byte[][] { padded, unpadded }) {
+				for (int split = 0; split <= encoded.length; split++) {
+					assertArrayEquals(bytes, this.decode(encoded, split), "length " + length + " split " + split);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void stopsWhenDstIsFull() {
+		byte[] bytes = ByteUtils.random(100);
+		ByteBuffer src = ByteBuffer.wrap(Base64.getEncoder().encode(bytes));
+		ByteBuffer dst = ByteBuffer.allocate(bytes.length);
+		Base64Decoder decoder = Base64Decoder.getInstance();
+
+		while (src.hasRemaining()) {
+			ByteBuffer small = ByteBuffer.allocate(4);
+			decoder.update(src, small);
+			dst.put(small.flip());
+		}
+
+		decoder.finish(dst);
+		assertArrayEquals(bytes, dst.array());
+	}
+
+	@Test
+	public void rejectsBadInput() {
+		for (String encoded : new String[] { "AB?D", "A===", "AB=C", "AB==AB==", "ABC=D" }) {
+			assertThrows(IllegalArgumentException.class, () -> this.decode(encoded.getBytes(StandardCharsets.US_ASCII), 0), encoded);
+		}
+
+		for (String encoded : new String[] { "A", "ABCDE", "AB=" }) {
+			assertThrows(IllegalArgumentException.class, () -> this.decode(encoded.getBytes(StandardCharsets.US_ASCII), 0), encoded);
+		}
+	}
+
+	private byte[] decode(byte[] encoded, int split) {
+		Base64Decoder decoder = Base64Decoder.getInstance();
+		ByteBuffer dst = ByteBuffer.allocate(encoded.length);
+
+		decoder.update(ByteBuffer.wrap(encoded, 0, split), dst);
+		decoder.update(ByteBuffer.wrap(encoded, split, encoded.length - split), dst);
+		decoder.finish(dst);
+
+		return Arrays.copyOf(dst.array(), dst.position());
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundedPipeTest {
+	@Test
+	public void passesBytesThroughInOrder() throws IOException, InterruptedException {
+		byte[] bytes = ByteUtils.random(1_000_003);
+		BoundedPipe pipe = BoundedPipe.getInstance(4096);
+
+		// odd write sizes so the ring wraps at every offset
+		Thread writer = Thread.ofVirtual().start(() -> {
+			try (OutputStream out = pipe.getOutputStream()) {
+				for (int off = 0, len = 1; off < bytes.length; off += len, len = len % 9000 + 1337) {
+					out.write(bytes, off, Math.min(len, bytes.length - off));
+				}
+			} catch (IOException e) {
+				pipe.fail(e);
+			}
+		});
+
+		try (InputStream in = pipe.getInputStream()) {
+			assertArrayEquals(bytes, in.readAllBytes());
+		}
+
+		writer.join();
+	}
+
+	@Test
+	public void failsInsteadOfEnding() throws InterruptedException {
+		BoundedPipe pipe = BoundedPipe.getInstance(16);
+		IllegalStateException cause = new IllegalStateException("writer failed");
+
+		Thread writer = Thread.ofVirtual().start(() -> {
+			try {
+				pipe.getOutputStream().write(new byte[8]);
+			} catch (IOException e) {
+				// not expected
+			}
+
+			pipe.fail(cause);
+		});
+		writer.join();
+
+		IOException e = assertThrows(IOException.class, () -> pipe.getInputStream().readAllBytes());
+		assertSame(cause, e.getCause());
+	}
+
+	@Test
+	public void closingTheReaderStopsTheWriter() throws IOException, InterruptedException {
+		BoundedPipe pipe = BoundedPipe.getInstance(16);
+		AtomicReference<IOException> failure = new AtomicReference<>();
+
+		// blocks once the pipe is full, until the reader goes away
+		Thread writer = Thread.ofVirtual().start(() -> {
+			try {
+				pipe.getOutputStream().write(new byte[1024]);
+			} catch (IOException e) {
+				failure.set(e);
+			}
+		});
+
+		pipe.getInputStream().close();
+		writer.join();
+
+		assertEquals("Pipe closed by the reader.", failure.get().getMessage());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class BufferPoolTest {
+	@Test
+	public void roundsUpToSizeClasses() {
+		assertEquals(0, BufferPool.classIndex(0));
+		assertEquals(0, BufferPool.classIndex(BufferPool.MIN_SIZE));
+		assertEquals(1, BufferPool.classIndex(BufferPool.MIN_SIZE + 1));
+		assertEquals(BufferPool.MAX_SIZE, BufferPool.classSize(BufferPool.classIndex(BufferPool.MAX_SIZE)));
+
+		BufferPool pool = BufferPool.getInstance(false, false);
+		assertEquals(1024, pool.acquireArray(1000).length);
+		assertEquals(BufferPool.MAX_SIZE + 1, pool.acquireArray(BufferPool.MAX_SIZE + 1).length);
+	}
+
+	@Test
+	public void reusesReleasedBuffers() throws InterruptedException {
+		BufferPool pool = BufferPool.getInstance(false, false);
+
+		byte[] array = pool.acquireArray(4096);
+		pool.release(array);
+		assertSame(array, pool.acquireArray(3000));
+
+		// virtual threads skip the thread cache and go through the shared queue
+		AtomicReference<byte[]> seen = new AtomicReference<>();
+		Thread.ofVirtual().start(() -> pool.release(pool.acquireArray(100))).join();
+		Thread.ofVirtual().start(() -> seen.set(pool.acquireArray(100))).join();
+		assertEquals(BufferPool.MIN_SIZE, seen.get().length);
+
+		byte[] oversized = pool.acquireArray(BufferPool.MAX_SIZE + 1);
+		pool.release(oversized);
+		assertNotSame(oversized, pool.acquireArray(BufferPool.MAX_SIZE + 1));
+	}
+
+	@Test
+	public void directBuffersComeBackCleared() {
+		BufferPool pool = BufferPool.getInstance(true, false);
+
+		ByteBuffer buffer = pool.acquire(100);
+		assertTrue(buffer.isDirect());
+		buffer.put(new byte[10]).flip();
+		pool.release(buffer);
+
+		ByteBuffer again = pool.acquire(100);
+		assertSame(buffer, again);
+		assertEquals(0, again.position());
+		assertEquals(BufferPool.MIN_SIZE, again.limit());
+		assertThrows(IllegalStateException.class, () -> pool.acquireArray(100));
+	}
+
+	@Test
+	public void debugRejectsDoubleRelease() {
+		BufferPool pool = BufferPool.getInstance(false, true);
+
+		ByteBuffer buffer = pool.acquire(100);
+		pool.release(buffer);
+		assertThrows(IllegalStateException.class, () -> pool.release(buffer));
+		assertThrows(IllegalStateException.class, () -> pool.release(new byte[BufferPool.MIN_SIZE]));
+	}
+
+	@Test
+	public void debugReportsLeaks() throws InterruptedException {
+		BufferPool pool = BufferPool.getInstance(false, true);
+
+		pool.release(pool.acquireArray(100));
+		pool.acquireArray(100);
+
+		for (int i = 0; i < 50 && pool.getLeakCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+
+		assertEquals(1, pool.getLeakCount());
+	}
+}
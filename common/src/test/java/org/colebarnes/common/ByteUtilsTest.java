@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class ByteUtilsTest {
+	@Test
+	public void toHexMatchesFormat() {
+		byte[] bytes = new byte[256];
+		StringBuilder expected = new StringBuilder();
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+			expected.append(String.format("%02X", bytes[i]));
+		}
+
+		assertEquals(expected.toString(), ByteUtils.toHex(bytes));
+		assertEquals("", ByteUtils.toHex(new byte[0]));
+	}
+
+	@Test
+	public void fromHexRoundTrips() {
+		byte[] bytes = ByteUtils.random(1000);
+
+		assertArrayEquals(bytes, ByteUtils.fromHex(ByteUtils.toHex(bytes)));
+		assertArrayEquals(bytes, ByteUtils.fromHex(ByteUtils.toHex(bytes).toLowerCase()));
+	}
+
+	@Test
+	public void fromHexRejectsBadInput() {
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.fromHex("ABC"));
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.fromHex("0G"));
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.fromHex("0é"));
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.fromHex("00", new byte[1], 1));
+	}
+
+	@Test
+	public void hexIntoCallerBuffers() {
+		byte[] bytes = { 0x01, (byte) 0xAB, 0x7F, (byte) 0x80 };
+
+		char[] chars = new char[10];
+		assertEquals(4, ByteUtils.toHex(bytes, 1, 2, chars, 6));
+		assertEquals("AB7F", new String(chars, 6, 4));
+
+		byte[] ascii = new byte[8];
+		assertEquals(8, ByteUtils.toHex(bytes, 0, 4, ascii, 0));
+		assertEquals("01AB7F80", new String(ascii, StandardCharsets.US_ASCII));
+
+		ByteBuffer hex = ByteBuffer.allocateDirect(8);
+		assertEquals(8, ByteUtils.toHex(ByteBuffer.wrap(bytes), hex));
+		hex.flip();
+
+		ByteBuffer decoded = ByteBuffer.allocate(4);
+		assertEquals(4, ByteUtils.fromHex(hex, decoded));
+		assertArrayEquals(bytes, decoded.array());
+
+		byte[] dest = new byte[6];
+		assertEquals(2, ByteUtils.fromHex("ab7f", dest, 4));
+		assertEquals((byte) 0xAB, dest[4]);
+		assertEquals((byte) 0x7F, dest[5]);
+
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.toHex(bytes, 0, 4, new char[7], 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> ByteUtils.toHex(bytes, 3, 2, new char[8], 0));
+	}
+
+	@Test
+	public void base64IntoCallerBuffers() {
+		for (int length : new int[] { 0, 1, 2, 3, 3071, 3072, 3073, 10000 }) {
+			byte[] bytes = ByteUtils.random(length);
+			String expected = Base64.getEncoder().encodeToString(bytes);
+
+			byte[] encoded = new byte[ByteUtils.base64EncodedLength(length)];
+			assertEquals(encoded.length, ByteUtils.base64Encode(bytes, encoded));
+			assertEquals(expected, new String(encoded, StandardCharsets.US_ASCII));
+
+			ByteBuffer target = ByteBuffer.allocateDirect(encoded.length);
+			assertEquals(encoded.length, ByteUtils.base64Encode(ByteBuffer.wrap(bytes), target));
+			target.flip();
+			assertEquals(expected, StandardCharsets.US_ASCII.decode(target).toString());
+
+			byte[] decoded = new byte[length];
+			assertEquals(length, ByteUtils.base64Decode(encoded, decoded));
+			assertArrayEquals(bytes, decoded);
+		}
+	}
+
+	@Test
+	public void base64Streams() throws IOException {
+		byte[] bytes = ByteUtils.random(200_001);
+		String expected = Base64.getEncoder().encodeToString(bytes);
+
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		assertEquals(bytes.length, ByteUtils.base64Encode(new ByteArrayInputStream(bytes), encoded));
+		assertEquals(expected, encoded.toString(StandardCharsets.US_ASCII));
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		assertEquals(bytes.length, ByteUtils.base64Decode(new ByteArrayInputStream(encoded.toByteArray()), decoded));
+		assertArrayEquals(bytes, decoded.toByteArray());
+
+		// trickle the input in to split quanta between reads
+		decoded.reset();
+		InputStream trickle = new ByteArrayInputStream(encoded.toByteArray()) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 7));
+			}
+		};
+		ByteUtils.base64Decode(Channels.newChannel(trickle), Channels.newChannel(decoded));
+		assertArrayEquals(bytes, decoded.toByteArray());
+
+		ByteArrayOutputStream wrapped = new ByteArrayOutputStream();
+		try (OutputStream out = ByteUtils.base64EncodingStream(wrapped)) {
+			out.write(bytes);
+		}
+		assertEquals(expected, wrapped.toString(StandardCharsets.US_ASCII));
+
+		try (InputStream in = ByteUtils.base64DecodingStream(new ByteArrayInputStream(wrapped.toByteArray()))) {
+			assertArrayEquals(bytes, in.readAllBytes());
+		}
+	}
+
+	@Test
+	public void base64EncodeLeavesOutOpen() throws IOException {
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) {
+				encoded.write(b);
+			}
+
+			@Override
+			public void close() {
+				throw new IllegalStateException("closed");
+			}
+		};
+
+		ByteUtils.base64Encode(Channels.newChannel(new ByteArrayInputStream(new byte[] { 1, 2 })), Channels.newChannel(out));
+		assertEquals("AQI=", encoded.toString(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void primitivesAtOffsets() {
+		byte[] bytes = new byte[20];
+
+		assertEquals(9, ByteUtils.putLong(bytes, 1, 0x0102030405060708L));
+		assertEquals(0x0102030405060708L, ByteUtils.getLong(bytes, 1));
+		assertEquals(0x0807060504030201L, ByteUtils.getLong(bytes, 1, ByteOrder.LITTLE_ENDIAN));
+		assertArrayEquals(ByteBuffer.allocate(8).putLong(0x0102030405060708L).array(), Arrays.copyOfRange(bytes, 1, 9));
+
+		assertEquals(13, ByteUtils.putInt(bytes, 9, -2, ByteOrder.LITTLE_ENDIAN));
+		assertEquals(-2, ByteUtils.getInt(bytes, 9, ByteOrder.LITTLE_ENDIAN));
+		assertEquals(15, ByteUtils.putShort(bytes, 13, (short) 0x0A0B));
+		assertEquals((short) 0x0B0A, ByteUtils.getShort(bytes, 13, ByteOrder.LITTLE_ENDIAN));
+
+		assertEquals(42, ByteUtils.toInt(ByteUtils.fromInt(42)));
+		assertEquals(-42L, ByteUtils.toLong(ByteUtils.fromLong(-42L)));
+		assertThrows(IndexOutOfBoundsException.class, () -> ByteUtils.putLong(bytes, 13, 1L));
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(12, ByteUtils.putLong(buffer, 4, 7L, ByteOrder.BIG_ENDIAN));
+		assertEquals(7L, buffer.order(ByteOrder.BIG_ENDIAN).getLong(4));
+		assertEquals(0, buffer.position());
+		ByteUtils.putInt(buffer, 0, 9, ByteOrder.LITTLE_ENDIAN);
+		assertEquals(9, ByteUtils.getInt(buffer, 0, ByteOrder.LITTLE_ENDIAN));
+		ByteUtils.putShort(buffer, 12, (short) -3, ByteOrder.BIG_ENDIAN);
+		assertEquals((short) -3, ByteUtils.getShort(buffer, 12, ByteOrder.BIG_ENDIAN));
+	}
+
+	@Test
+	public void varints() {
+		long[] values = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+		byte[] bytes = new byte[12];
+		ByteBuffer buffer = ByteBuffer.allocate(12);
+
+		for (long value : values) {
+			int size = ByteUtils.varLongSize(value);
+			assertEquals(size + 1, ByteUtils.putVarLong(bytes, 1, value));
+			assertEquals(value, ByteUtils.getVarLong(bytes, 1));
+
+			buffer.clear();
+			ByteUtils.putVarLong(buffer, value);
+			assertEquals(size, buffer.position());
+			assertEquals(value, ByteUtils.getVarLong(buffer.flip()));
+
+			assertEquals(value, ByteUtils.fromZigZag(ByteUtils.toZigZag(value)));
+		}
+
+		assertEquals(2, ByteUtils.putVarLong(bytes, 0, 300));
+		assertEquals((byte) 0xAC, bytes[0]);
+		assertEquals((byte) 0x02, bytes[1]);
+		assertEquals(10, ByteUtils.varLongSize(-1));
+		assertEquals(1, ByteUtils.varLongSize(ByteUtils.toZigZag(-1)));
+		assertEquals(3, ByteUtils.toZigZag(-2));
+
+		byte[] endless = new byte[11];
+		Arrays.fill(endless, (byte) 0x80);
+		assertThrows(IllegalArgumentException.class, () -> ByteUtils.getVarLong(endless, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> ByteUtils.putVarLong(new byte[2], 0, 1L << 20));
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class HttpUtilsTest {
+	private static final String[] SAMPLES = { "plain", "My dog has fleas.", "&=/:@#$%!+~'", "café €5", "😀", "lone \ud800", "-_.*", "" };
+
+	@Test
+	public void encodesLikeUrlEncoder() {
+		for (String sample : HttpUtilsTest.SAMPLES) {
+			Map<String, String> data = Map.of("k", sample);
+			String expected = sample.isBlank() ? "k" : "k=" + URLEncoder.encode(sample, StandardCharsets.UTF_8);
+
+			assertEquals(expected, HttpUtils.urlEncode(data), sample);
+		}
+
+		Map<String, String> data = new LinkedHashMap<>();
+		data.put("a", "1");
+		data.put(" ", "skipped");
+		data.put("b", "");
+		data.put("c d", "x");
+		assertEquals("a=1&b&c+d=x", HttpUtils.urlEncode(data));
+	}
+
+	@Test
+	public void decodesLikeUrlDecoder() {
+		for (String sample : HttpUtilsTest.SAMPLES) {
+			String encoded = URLEncoder.encode(sample, StandardCharsets.UTF_8);
+			String expected = URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+
+			assertEquals(Map.of("k", expected), HttpUtils.urlDecode("k=" + encoded), sample);
+			assertEquals(Map.of("k", expected), HttpUtils.urlDecode(ByteBuffer.wrap(("k=" + encoded).getBytes(StandardCharsets.US_ASCII))), sample);
+		}
+
+		assertEquals(Map.of("a", "b=c", "d", "", "", "e"), HttpUtils.urlDecode("a=b=c&&d& &=e&"));
+		assertEquals(Map.of("é", "ü"), HttpUtils.urlDecode(ByteBuffer.wrap("é=%C3%BC".getBytes(StandardCharsets.UTF_8))));
+
+		assertThrows(IllegalArgumentException.class, () -> HttpUtils.urlDecode("a=%4"));
+		assertThrows(IllegalArgumentException.class, () -> HttpUtils.urlDecode("a=%G0"));
+	}
+
+	@Test
+	public void multiValued() throws IOException {
+		Map<String, List<String>> data = new LinkedHashMap<>();
+		data.put("tag", List.of("a b", "c&d"));
+		data.put("one", List.of("1"));
+
+		StringBuilder sb = new StringBuilder();
+		HttpUtils.urlEncodeAll(data, sb);
+		assertEquals("tag=a+b&tag=c%26d&one=1", sb.toString());
+		assertEquals(data, HttpUtils.urlDecodeAll(sb));
+		assertEquals(Map.of("tag", "c&d", "one", "1"), HttpUtils.urlDecode(sb));
+	}
+
+	@Test
+	public void encodesIntoBuffers() {
+		Map<String, String> data = Map.of("key", "välue");
+		String expected = HttpUtils.urlEncode(data);
+
+		ByteBuffer dest = ByteBuffer.allocateDirect(64).position(2);
+		assertEquals(expected.length(), HttpUtils.urlEncode(data, dest));
+		assertEquals(expected, StandardCharsets.US_ASCII.decode(dest.flip().position(2)).toString());
+
+		ByteBuffer small = ByteBuffer.allocate(8);
+		assertThrows(IllegalArgumentException.class, () -> HttpUtils.urlEncode(data, small));
+		assertEquals(0, small.position());
+
+		ByteBuffer multi = ByteBuffer.allocate(64);
+		HttpUtils.urlEncodeAll(Map.of("k", List.of("1", "2")), multi);
+		assertEquals(Map.of("k", List.of("1", "2")), HttpUtils.urlDecodeAll(multi.flip()));
+		assertEquals(0, multi.remaining());
+	}
+}
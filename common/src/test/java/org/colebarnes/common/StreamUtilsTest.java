@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StreamUtilsTest {
+	@TempDir
+	Path dir;
+
+	private Path randomFile(String name, int length) throws IOException {
+		return Files.write(this.dir.resolve(name), ByteUtils.random(length));
+	}
+
+	@Test
+	public void copiesStreams() throws IOException {
+		byte[] bytes = ByteUtils.random(10_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), out, 7));
+		assertArrayEquals(bytes, out.toByteArray());
+		assertEquals(bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), null));
+	}
+
+	@Test
+	public void updatesObserversWhileCopying() throws IOException, NoSuchAlgorithmException {
+		byte[] bytes = ByteUtils.random(10_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CRC32 crc = new CRC32();
+		Adler32 adler = new Adler32();
+		MessageDigest sha = MessageDigest.getInstance("SHA-256");
+
+		assertEquals(bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), out, crc, adler));
+		assertArrayEquals(bytes, out.toByteArray());
+		assertEquals(bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), null, sha));
+
+		CRC32 expectedCrc = new CRC32();
+		expectedCrc.update(bytes);
+		Adler32 expectedAdler = new Adler32();
+		expectedAdler.update(bytes);
+
+		assertEquals(expectedCrc.getValue(), crc.getValue());
+		assertEquals(expectedAdler.getValue(), adler.getValue());
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(bytes), sha.digest());
+	}
+
+	@Test
+	public void observersSkipTheFileFastPath() throws IOException {
+		Path source = this.randomFile("source.bin", 4096);
+		CRC32 crc = new CRC32();
+
+		try (FileInputStream in = new FileInputStream(source.toFile()); FileOutputStream out = new FileOutputStream(this.dir.resolve("target.bin").toFile())) {
+			assertEquals(4096, StreamUtils.copy(in, out, crc));
+		}
+
+		CRC32 expected = new CRC32();
+		expected.update(Files.readAllBytes(source));
+		assertEquals(expected.getValue(), crc.getValue());
+	}
+
+	@Test
+	public void copiesPaths() throws IOException {
+		Path source = this.randomFile("source.bin", 3 * StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN + 17);
+		Path target = Files.write(this.dir.resolve("target.bin"), new byte[5 * StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN]);
+
+		assertEquals(Files.size(source), StreamUtils.copy(source, target));
+		assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+	}
+
+	@Test
+	public void fileStreamsKeepTheirPositions() throws IOException {
+		Path source = this.randomFile("source.bin", 4096);
+		Path target = this.dir.resolve("target.bin");
+		byte[] bytes = Files.readAllBytes(source);
+
+		try (FileInputStream in = new FileInputStream(source.toFile()); FileOutputStream out = new FileOutputStream(target.toFile())) {
+			out.write(in.readNBytes(100));
+			assertEquals(bytes.length - 100, StreamUtils.copy(in, out));
+			assertEquals(-1, in.read());
+			out.write(1);
+		}
+
+		byte[] copied = Files.readAllBytes(target);
+		assertEquals(bytes.length + 1, copied.length);
+		assertArrayEquals(bytes, Arrays.copyOf(copied, bytes.length));
+	}
+
+	@Test
+	public void copiesFromFileChannelToPipe() throws Exception {
+		Path source = this.randomFile("source.bin", 1024 * 1024);
+		Pipe pipe = Pipe.open();
+
+		CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+			try (var in = Channels.newInputStream(pipe.source())) {
+				return in.readAllBytes();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		try (FileChannel in = FileChannel.open(source); Pipe.SinkChannel out = pipe.sink()) {
+			assertEquals(Files.size(source), StreamUtils.copy(in, out));
+			assertEquals(Files.size(source), in.position());
+		}
+
+		assertArrayEquals(Files.readAllBytes(source), received.get());
+	}
+
+	@Test
+	public void copiesFromStreamChannelToFile() throws IOException {
+		byte[] bytes = ByteUtils.random(1024 * 1024 + 3);
+		Path target = this.dir.resolve("target.bin");
+
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			out.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+			assertEquals(bytes.length, StreamUtils.copy(Channels.newChannel(new ByteArrayInputStream(bytes)), out));
+			assertEquals(3 + bytes.length, out.position());
+		}
+
+		byte[] copied = Files.readAllBytes(target);
+		assertEquals(3 + bytes.length, copied.length);
+		assertArrayEquals(bytes, Arrays.copyOfRange(copied, 3, copied.length));
+	}
+
+	@Test
+	public void copiesBetweenPlainChannels() throws IOException {
+		byte[] bytes = ByteUtils.random(3 * StreamUtils.DEFAULT_CHANNEL_BUFFER_LEN + 1);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(bytes.length, StreamUtils.copy(Channels.newChannel(new ByteArrayInputStream(bytes)), Channels.newChannel(out)));
+		assertArrayEquals(bytes, out.toByteArray());
+	}
+
+	@Test
+	public void copiesFileToSocket() throws Exception {
+		Path source = this.randomFile("source.bin", 2 * 1024 * 1024);
+
+		try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+			CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+				try (SocketChannel accepted = server.accept(); var in = Channels.newInputStream(accepted)) {
+					return in.readAllBytes();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			try (FileChannel in = FileChannel.open(source); SocketChannel out = SocketChannel.open(server.getLocalAddress())) {
+				assertEquals(Files.size(source), StreamUtils.copy(in, out));
+			}
+
+			assertArrayEquals(Files.readAllBytes(source), received.get());
+		}
+	}
+
+	@Test
+	public void copiesFilesWithoutASize() throws IOException {
+		// /proc files report a size of 0 but still have content
+		Path status = Path.of("/proc/self/status");
+		assumeTrue(Files.isReadable(status));
+
+		Path target = this.dir.resolve("status");
+		try (InputStream in = new FileInputStream(status.toFile()); OutputStream out = new FileOutputStream(target.toFile())) {
+			assertTrue(StreamUtils.copy(in, out) > 0);
+		}
+
+		assertTrue(Files.readString(target).startsWith("Name:"));
+
+		Path channelTarget = this.dir.resolve("status.channel");
+		assertTrue(StreamUtils.copy(status, channelTarget) > 0);
+		assertTrue(Files.readString(channelTarget).startsWith("Name:"));
+	}
+
+	@Test
+	public void rejectsNonBlockingChannels() throws IOException {
+		Pipe pipe = Pipe.open();
+
+		try (Pipe.SourceChannel in = pipe.source()) {
+			in.configureBlocking(false);
+			assertThrows(IllegalArgumentException.class, () -> StreamUtils.copy(in, Channels.newChannel(new ByteArrayOutputStream())));
+		} finally {
+			pipe.sink().close();
+		}
+	}
+
+	@Test
+	public void pipelinedCopyMatchesCopy() throws IOException {
+		byte[] bytes = ByteUtils.random(1024 * 1024 + 11);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(bytes.length, StreamUtils.pipelinedCopy(new ByteArrayInputStream(bytes), out, 1000, 3));
+		assertArrayEquals(bytes, out.toByteArray());
+		assertEquals(bytes.length, StreamUtils.pipelinedCopy(new ByteArrayInputStream(bytes), null));
+		assertEquals(0, StreamUtils.pipelinedCopy(new ByteArrayInputStream(new byte[0]), out));
+	}
+
+	@Test
+	public void pipelinedCopyPropagatesReadErrors() {
+		IOException cause = new IOException("source broke");
+		InputStream in = new InputStream() {
+			private int reads;
+
+			@Override
+			public int read() throws IOException {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (++this.reads > 3) {
+					throw cause;
+				}
+
+				return len;
+			}
+		};
+
+		assertSame(cause, assertThrows(IOException.class, () -> StreamUtils.pipelinedCopy(in, OutputStream.nullOutputStream(), 16, 2)));
+	}
+
+	@Test
+	public void pipelinedCopyPropagatesWriteErrors() {
+		RuntimeException cause = new IllegalStateException("sink broke");
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) {
+				throw cause;
+			}
+		};
+
+		// the reader blocks once the ring is full and has to be woken up
+		InputStream in = new InputStream() {
+			@Override
+			public int read() {
+				return 0;
+			}
+		};
+
+		assertSame(cause, assertThrows(IllegalStateException.class, () -> StreamUtils.pipelinedCopy(in, out, 16, 2)));
+	}
+
+	@Test
+	public void pipelinedCopyCancelsOnInterrupt() throws InterruptedException {
+		CountDownLatch reading = new CountDownLatch(1);
+		InputStream in = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				reading.countDown();
+
+				try {
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+
+				return -1;
+			}
+		};
+
+		AtomicReference<Throwable> thrown = new AtomicReference<>();
+		Thread copier = new Thread(() -> {
+			try {
+				StreamUtils.pipelinedCopy(in, OutputStream.nullOutputStream());
+			} catch (Throwable t) {
+				thrown.set(t);
+			}
+		});
+
+		copier.start();
+		reading.await();
+		copier.interrupt();
+		copier.join(10_000);
+
+		assertFalse(copier.isAlive());
+		assertTrue(thrown.get() instanceof InterruptedIOException);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class StringUtilsTest {
+	private static final String[] SAMPLES = { "", "plain ascii", "café", "ascii then € euro", "😀 pair", "lone \ud800 surrogate", "tail\udc00" };
+
+	@Test
+	public void encodeMatchesGetBytes() {
+		for (Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE }) {
+			for (String str : StringUtilsTest.SAMPLES) {
+				byte[] expected = str.getBytes(charset);
+
+				for (ByteBuffer dest : new ByteBuffer[] { ByteBuffer.allocate(64).position(3), ByteBuffer.allocateDirect(64).position(3) }) {
+					assertEquals(expected.length, StringUtils.encode(str, dest, charset), str);
+					assertEquals(3 + expected.length, dest.position());
+
+					byte[] actual = new byte[expected.length];
+					dest.get(3, actual);
+					assertArrayEquals(expected, actual, str);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void utf8LengthMatchesGetBytes() {
+		for (String str : StringUtilsTest.SAMPLES) {
+			assertEquals(str.getBytes(StandardCharsets.UTF_8).length, StringUtils.utf8Length(str), str);
+		}
+	}
+
+	@Test
+	public void encodeLeavesDestAloneWhenFull() {
+		ByteBuffer dest = ByteBuffer.allocate(5);
+
+		assertThrows(IllegalArgumentException.class, () -> StringUtils.encode("too long", dest));
+		assertEquals(0, dest.position());
+		assertThrows(IllegalArgumentException.class, () -> StringUtils.encode("cafés", dest));
+		assertEquals(0, dest.position());
+		assertEquals(5, StringUtils.encode("café", dest));
+	}
+
+	@Test
+	public void decodes() {
+		for (String str : StringUtilsTest.SAMPLES) {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			String expected = new String(bytes, StandardCharsets.UTF_8);
+
+			ByteBuffer heap = ByteBuffer.wrap(bytes);
+			assertEquals(expected, StringUtils.decode(heap));
+			assertEquals(bytes.length, heap.position());
+
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+			assertEquals(expected, StringUtils.decode(direct));
+
+			CharBuffer chars = CharBuffer.allocate(32);
+			assertEquals(expected.length(), StringUtils.decode(ByteBuffer.wrap(bytes), chars, StandardCharsets.UTF_8));
+			assertEquals(expected, chars.flip().toString());
+		}
+
+		ByteBuffer src = ByteBuffer.wrap("café".getBytes(StandardCharsets.UTF_8));
+		CharBuffer small = CharBuffer.allocate(3);
+		assertThrows(IllegalArgumentException.class, () -> StringUtils.decode(src, small, StandardCharsets.UTF_8));
+		assertEquals(0, src.position());
+		assertEquals(0, small.position());
+
+		byte[] bad = { 'a', (byte) 0xFF, 'b' };
+		assertEquals(new String(bad, StandardCharsets.UTF_8), StringUtils.decode(ByteBuffer.wrap(Arrays.copyOf(bad, 3))));
+	}
+}
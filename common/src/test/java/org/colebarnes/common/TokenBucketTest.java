@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.colebarnes.common.MeteredInputStream.Progress;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+	@Test
+	public void allowsBurstThenHoldsTheRate() throws InterruptedException {
+		TokenBucket bucket = TokenBucket.getInstance(1_000_000, 100_000);
+
+		assertTrue(bucket.tryAcquire(100_000));
+		assertFalse(bucket.tryAcquire(100_000));
+
+		long start = System.nanoTime();
+		bucket.acquire(200_000);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+	}
+
+	@Test
+	public void isSharedAcrossThreads() throws InterruptedException {
+		TokenBucket bucket = TokenBucket.getInstance(1_000_000, 10_000);
+		List<Thread> threads = new ArrayList<>();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 4; i++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				try {
+					for (int j = 0; j < 10; j++) {
+						bucket.acquire(10_000);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// 400 KB at 1 MB/s, less the initial burst
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 350);
+	}
+
+	@Test
+	public void throttlesCopy() throws IOException {
+		byte[] bytes = ByteUtils.random(300_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long start = System.nanoTime();
+		assertEquals(bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), out, TokenBucket.getInstance(1_000_000)));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+		assertArrayEquals(bytes, out.toByteArray());
+	}
+
+	@Test
+	public void reportsProgress() throws IOException {
+		byte[] bytes = ByteUtils.random(200_000);
+		List<Progress> reports = new ArrayList<>();
+
+		try (InputStream in = MeteredInputStream.getInstance(new ByteArrayInputStream(bytes), bytes.length, TokenBucket.getInstance(1_000_000), reports::add, 20)) {
+			assertEquals(bytes.length, StreamUtils.copy(in, null));
+		}
+
+		assertTrue(reports.size() > 2);
+
+		Progress middle = reports.get(reports.size() / 2);
+		assertFalse(middle.done());
+		assertTrue(middle.bytesPerSecond() > 0);
+		assertTrue(middle.etaMillis() >= 0);
+
+		Progress last = reports.get(reports.size() - 1);
+		assertTrue(last.done());
+		assertEquals(bytes.length, last.bytesRead());
+		assertEquals(0, last.etaMillis());
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.colebarnes.common.HttpUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class BulkExecutorTest {
+	private HttpServer server;
+	private WebClient client;
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger maxActive = new AtomicInteger();
+	private final ConcurrentMap<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+	@BeforeEach
+	public void start() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(Executors.newCachedThreadPool());
+
+		this.server.createContext("/form", exchange -> {
+			String q = HttpUtils.urlDecode(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).get("q");
+			this.calls.computeIfAbsent("form", k -> new AtomicInteger()).incrementAndGet();
+			int now = this.active.incrementAndGet();
+			this.maxActive.accumulateAndGet(now, Math::max);
+
+			try {
+				// the first one is slow so it finishes last
+				Thread.sleep("0".equals(q) ? 500 : 20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				this.active.decrementAndGet();
+			}
+
+			this.respond(exchange, 200, q);
+		});
+		this.server.createContext("/flaky", exchange -> {
+			int call = this.calls.computeIfAbsent(exchange.getRequestURI().getQuery(), k -> new AtomicInteger()).incrementAndGet();
+			exchange.getRequestBody().readAllBytes();
+			this.respond(exchange, call < 3 ? 503 : 200, "ok");
+		});
+		this.server.createContext("/drop", exchange -> {
+			// read the request, then hang up without answering
+			this.calls.computeIfAbsent(exchange.getRequestMethod(), k -> new AtomicInteger()).incrementAndGet();
+			exchange.getRequestBody().readAllBytes();
+			exchange.close();
+		});
+		this.server.createContext("/missing", exchange -> {
+			this.calls.computeIfAbsent("missing", k -> new AtomicInteger()).incrementAndGet();
+			this.respond(exchange, 404, "nope");
+		});
+
+		this.server.start();
+		this.client = WebClient.getInstance(Duration.ofSeconds(5), Duration.ofSeconds(5));
+	}
+
+	@AfterEach
+	public void stop() {
+		this.client.close();
+		this.server.stop(0);
+	}
+
+	@Test
+	public void postsInCompletionOrderWithinLimits() {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 16, 4, 1, Duration.ZERO);
+		Stream<Map<String, String>> forms = IntStream.range(0, 100).mapToObj(i -> Map.of("q", Integer.toString(i)));
+
+		List<BulkExecutor.Result> results;
+		try (Stream<BulkExecutor.Result> stream = executor.postAll(this.uri("/form"), forms)) {
+			results = stream.toList();
+		}
+
+		Set<String> bodies = new HashSet<>();
+		for (BulkExecutor.Result result : results) {
+			assertTrue(result.isSuccess());
+			assertEquals(1, result.attempts());
+			bodies.add(new String(result.body(), StandardCharsets.UTF_8));
+		}
+
+		assertEquals(100, bodies.size());
+		assertNotEquals("0", new String(results.get(0).body(), StandardCharsets.UTF_8));
+		assertTrue(this.maxActive.get() <= 4, "max active " + this.maxActive.get());
+
+		// the overall limit applies when it is the tighter one
+		this.maxActive.set(0);
+		BulkExecutor narrow = BulkExecutor.getInstance(this.client, 2, 8, 1, Duration.ZERO);
+
+		try (Stream<BulkExecutor.Result> stream = narrow.postAll(this.uri("/form"), IntStream.range(1, 20).mapToObj(i -> Map.of("q", Integer.toString(i))))) {
+			assertEquals(19, stream.filter(BulkExecutor.Result::isSuccess).count());
+		}
+
+		assertTrue(this.maxActive.get() <= 2, "max active " + this.maxActive.get());
+	}
+
+	@Test
+	public void pausesForASlowConsumer() throws InterruptedException {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 4, 4, 1, Duration.ZERO);
+		Stream<Map<String, String>> forms = IntStream.range(1, 100).mapToObj(i -> Map.of("q", Integer.toString(i)));
+
+		try (Stream<BulkExecutor.Result> stream = executor.postAll(this.uri("/form"), forms)) {
+			Iterator<BulkExecutor.Result> results = stream.iterator();
+			assertTrue(results.next().isSuccess());
+			Thread.sleep(500);
+
+			// one taken, so one more sent than the limit
+			assertEquals(5, this.calls.get("form").get());
+
+			int count = 1;
+			while (results.hasNext()) {
+				assertTrue(results.next().isSuccess());
+				count++;
+			}
+
+			assertEquals(99, count);
+		}
+	}
+
+	@Test
+	public void retriesWithBackoff() {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 8, 8, 3, Duration.ofMillis(10));
+		Stream<HttpRequest> requests = Stream.concat(IntStream.range(0, 5).mapToObj(i -> this.client.newPost(this.uri("/flaky?" + i), Map.of())),
+				Stream.of(this.client.newRequest(this.uri("/missing")).GET().build()));
+
+		try (Stream<BulkExecutor.Result> stream = executor.execute(requests)) {
+			for (BulkExecutor.Result result : stream.toList()) {
+				if (result.request().uri().getPath().equals("/missing")) {
+					// client errors are not retried
+					assertEquals(1, result.attempts());
+					assertEquals(404, assertInstanceOf(HttpStatusException.class, result.error()).getStatusCode());
+				} else {
+					assertTrue(result.isSuccess());
+					assertEquals(3, result.attempts());
+				}
+			}
+		}
+
+		assertEquals(1, this.calls.get("missing").get());
+	}
+
+	@Test
+	public void retriesPostsOnlyWhenUnsent() {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 4, 4, 3, Duration.ofMillis(10));
+		Stream<HttpRequest> requests = Stream.of(this.client.newPost(this.uri("/drop"), Map.of("q", "1")), this.client.newRequest(this.uri("/drop")).GET().build());
+
+		try (Stream<BulkExecutor.Result> stream = executor.execute(requests)) {
+			for (BulkExecutor.Result result : stream.toList()) {
+				assertInstanceOf(IOException.class, result.error());
+				// the post may have been acted on, the get is safe to repeat
+				assertEquals(result.request().method().equals("POST") ? 1 : 3, result.attempts());
+			}
+		}
+
+		assertEquals(1, this.calls.get("POST").get());
+	}
+
+	@Test
+	public void rethrowsSourceFailures() {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 4, 4, 1, Duration.ZERO);
+		Stream<Map<String, String>> forms = IntStream.range(1, 4).mapToObj(i -> {
+			if (i == 3) {
+				throw new IllegalStateException("source failed");
+			}
+
+			return Map.of("q", Integer.toString(i));
+		});
+
+		try (Stream<BulkExecutor.Result> stream = executor.postAll(this.uri("/form"), forms)) {
+			assertThrows(IllegalStateException.class, () -> stream.forEach(result -> assertTrue(result.isSuccess())));
+		}
+	}
+
+	@Test
+	public void reportsUncheckedFailures() {
+		BulkExecutor executor = BulkExecutor.getInstance(this.client, 4, 4, 3, Duration.ZERO);
+		HttpRequest.BodyPublisher broken = new HttpRequest.BodyPublisher() {
+			@Override
+			public long contentLength() {
+				throw new IllegalStateException("publisher failed");
+			}
+
+			@Override
+			public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+				throw new IllegalStateException("publisher failed");
+			}
+		};
+
+		Stream<HttpRequest> requests = Stream.of(this.client.newRequest(this.uri("/form")).POST(broken).build(),
+				this.client.newPost(this.uri("/form"), Map.of("q", "1")));
+
+		List<BulkExecutor.Result> results = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			try (Stream<BulkExecutor.Result> stream = executor.execute(requests)) {
+				return stream.toList();
+			}
+		});
+
+		assertEquals(2, results.size());
+		for (BulkExecutor.Result result : results) {
+			if (result.request().bodyPublisher().orElseThrow() == broken) {
+				assertEquals(1, result.attempts());
+				assertInstanceOf(IllegalStateException.class, result.error().getCause());
+			} else {
+				assertTrue(result.isSuccess());
+			}
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+	}
+}
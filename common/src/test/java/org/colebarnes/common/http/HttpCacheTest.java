@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpCacheTest {
+	private static final String LAST_MODIFIED = "Tue, 15 Nov 1994 08:12:31 GMT";
+
+	private HttpServer server;
+	private WebClient client;
+	private final ConcurrentMap<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+	private final AtomicInteger notModified = new AtomicInteger();
+	private final AtomicReference<String> version = new AtomicReference<>("v1");
+
+	@BeforeEach
+	public void start() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(Executors.newCachedThreadPool());
+
+		this.server.createContext("/fresh", exchange -> {
+			exchange.getResponseHeaders().add("Cache-Control", "public, max-age=60");
+			this.respond(exchange, 200, new byte[10 * 1024]);
+		});
+		this.server.createContext("/nostore", exchange -> {
+			exchange.getResponseHeaders().add("Cache-Control", "no-store");
+			this.respond(exchange, 200, "nostore".getBytes(StandardCharsets.UTF_8));
+		});
+		this.server.createContext("/etag", exchange -> {
+			String etag = "\"" + this.version.get() + "\"";
+			exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+			exchange.getResponseHeaders().add("ETag", etag);
+
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				this.notModified.incrementAndGet();
+				this.respond(exchange, 304, null);
+			} else {
+				this.respond(exchange, 200, this.version.get().getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		this.server.createContext("/modified", exchange -> {
+			exchange.getResponseHeaders().add("Cache-Control", "max-age=0");
+			exchange.getResponseHeaders().add("Last-Modified", HttpCacheTest.LAST_MODIFIED);
+
+			if (HttpCacheTest.LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+				this.notModified.incrementAndGet();
+				this.respond(exchange, 304, null);
+			} else {
+				this.respond(exchange, 200, "modified".getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		this.server.createContext("/missing", exchange -> this.respond(exchange, 404, "nope".getBytes(StandardCharsets.UTF_8)));
+
+		this.server.start();
+		this.client = WebClient.getInstance(Duration.ofSeconds(5), Duration.ofSeconds(5));
+	}
+
+	@AfterEach
+	public void stop() {
+		this.client.close();
+		this.server.stop(0);
+	}
+
+	@Test
+	public void servesFreshResponsesFromMemory() throws IOException {
+		HttpCache cache = HttpCache.getInstance(this.client, 1024 * 1024);
+
+		assertEquals(10 * 1024, cache.get(this.uri("/fresh")).length);
+		assertEquals(10 * 1024, cache.get(this.uri("/fresh")).length);
+		assertEquals(1, this.calls("/fresh"));
+
+		cache.get(this.uri("/nostore"));
+		cache.get(this.uri("/nostore"));
+		assertEquals(2, this.calls("/nostore"));
+
+		assertThrows(HttpStatusException.class, () -> cache.get(this.uri("/missing")));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void revalidatesStaleResponses() throws IOException {
+		HttpCache cache = HttpCache.getInstance(this.client, 1024 * 1024);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("v1", new String(cache.get(this.uri("/etag")), StandardCharsets.UTF_8));
+			assertEquals("modified", new String(cache.get(this.uri("/modified")), StandardCharsets.UTF_8));
+		}
+
+		assertEquals(4, this.notModified.get());
+		assertEquals(4, cache.getRevalidations());
+		assertEquals(2, cache.getMisses());
+
+		// a changed resource comes back in full
+		this.version.set("v2");
+		assertEquals("v2", new String(cache.get(this.uri("/etag")), StandardCharsets.UTF_8));
+		assertEquals("v2", new String(cache.get(this.uri("/etag")), StandardCharsets.UTF_8));
+		assertEquals(5, cache.getRevalidations());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void evictsBySize(@TempDir Path dir) throws IOException {
+		// room for two bodies in memory
+		HttpCache memory = HttpCache.getInstance(this.client, 25 * 1024);
+		memory.get(this.uri("/fresh?1"));
+		memory.get(this.uri("/fresh?2"));
+		memory.get(this.uri("/fresh?1"));
+		memory.get(this.uri("/fresh?3"));
+
+		// 2 was the least recently used
+		memory.get(this.uri("/fresh?1"));
+		assertEquals(3, this.calls("/fresh"));
+		memory.get(this.uri("/fresh?2"));
+		assertEquals(4, this.calls("/fresh"));
+
+		// and one on disk
+		HttpCache disk = HttpCache.getInstance(this.client, 0, dir, 15 * 1024);
+		disk.get(this.uri("/fresh?1"));
+		disk.get(this.uri("/fresh?2"));
+		assertEquals(1, this.entries(dir));
+		disk.get(this.uri("/fresh?2"));
+		assertEquals(6, this.calls("/fresh"));
+	}
+
+	@Test
+	public void keepsEntriesOnDiskAcrossInstances(@TempDir Path dir) throws IOException {
+		HttpCache first = HttpCache.getInstance(this.client, 1024 * 1024, dir, 1024 * 1024);
+		byte[] body = first.get(this.uri("/fresh"));
+		first.get(this.uri("/etag"));
+
+		HttpCache second = HttpCache.getInstance(this.client, 1024 * 1024, dir, 1024 * 1024);
+		assertArrayEquals(body, second.get(this.uri("/fresh")));
+		assertEquals("v1", new String(second.get(this.uri("/etag")), StandardCharsets.UTF_8));
+
+		assertEquals(1, this.calls("/fresh"));
+		assertEquals(1, second.getHits());
+		assertEquals(1, second.getRevalidations());
+		assertEquals(0, second.getMisses());
+
+		second.invalidate(this.uri("/fresh"));
+		second.get(this.uri("/fresh"));
+		assertEquals(2, this.calls("/fresh"));
+	}
+
+	@Test
+	public void dropsDamagedAndExcessDiskEntries(@TempDir Path dir) throws IOException {
+		HttpCache first = HttpCache.getInstance(this.client, 0, dir, 1024 * 1024);
+		first.get(this.uri("/fresh?1"));
+		first.get(this.uri("/fresh?2"));
+		first.get(this.uri("/fresh?3"));
+
+		// a smaller limit evicts the oldest entries on open
+		HttpCache second = HttpCache.getInstance(this.client, 0, dir, 25 * 1024);
+		assertEquals(2, this.entries(dir));
+
+		// a truncated entry is a miss, not a short body
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.write(file, Arrays.copyOf(Files.readAllBytes(file), (int) Files.size(file) - 100));
+			}
+		}
+
+		assertEquals(10 * 1024, second.get(this.uri("/fresh?3")).length);
+		assertEquals(0, second.getHits());
+		assertEquals(4, this.calls("/fresh"));
+	}
+
+	private int calls(String path) {
+		AtomicInteger count = this.calls.get(path);
+		return count == null ? 0 : count.get();
+	}
+
+	private long entries(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(file -> file.toString().endsWith(".entry")).count();
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		this.calls.computeIfAbsent(exchange.getRequestURI().getPath(), k -> new AtomicInteger()).incrementAndGet();
+		exchange.getRequestBody().readAllBytes();
+		exchange.sendResponseHeaders(status, body == null || body.length == 0 ? -1 : body.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			if (body != null) {
+				out.write(body);
+			}
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+	}
+}
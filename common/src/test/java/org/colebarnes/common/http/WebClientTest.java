@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.HttpUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class WebClientTest {
+	private static final byte[] LARGE = ByteUtils.random(5 * 1024 * 1024 + 17);
+
+	private HttpServer server;
+	private WebClient client;
+	private final Set<InetSocketAddress> peers = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	public void start() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(Executors.newCachedThreadPool());
+
+		this.server.createContext("/hello", exchange -> this.respond(exchange, 200, "hello".getBytes(StandardCharsets.UTF_8)));
+		this.server.createContext("/large", exchange -> this.respond(exchange, 200, WebClientTest.LARGE));
+		this.server.createContext("/missing", exchange -> this.respond(exchange, 404, "nope".getBytes(StandardCharsets.UTF_8)));
+		this.server.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.respond(exchange, 200, new byte[0]);
+		});
+		this.server.createContext("/echo", exchange -> {
+			String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			String type = exchange.getRequestHeaders().getFirst("Content-Type");
+			this.respond(exchange, 200, (type + "|" + HttpUtils.urlDecode(form).get("q")).getBytes(StandardCharsets.UTF_8));
+		});
+
+		this.server.createContext("/moved", exchange -> {
+			exchange.getResponseHeaders().set("Location", "/echo");
+			this.respond(exchange, 307, new byte[0]);
+		});
+
+		this.server.start();
+		this.client = WebClient.getInstance(Duration.ofSeconds(5), Duration.ofSeconds(2));
+	}
+
+	@AfterEach
+	public void stop() {
+		this.client.close();
+		this.server.stop(0);
+	}
+
+	@Test
+	public void getsAndReusesTheConnection() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			assertEquals("hello", new String(this.client.get(this.uri("/hello")), StandardCharsets.UTF_8));
+		}
+
+		assertEquals(1, this.peers.size());
+	}
+
+	@Test
+	public void postsForms() throws IOException {
+		byte[] response = this.client.post(this.uri("/echo"), Map.of("q", "a b&c=é"));
+		assertEquals(WebClient.FORM_CONTENT_TYPE + "|a b&c=é", new String(response, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void streamsPostsOnce() throws IOException {
+		byte[] response = this.client.post(this.uri("/echo"), "text/plain", new ByteArrayInputStream("q=x".getBytes(StandardCharsets.UTF_8)));
+		assertEquals("text/plain|x", new String(response, StandardCharsets.UTF_8));
+
+		// following the redirect would send the spent stream again
+		assertThrows(IOException.class, () -> this.client.post(this.uri("/moved"), "text/plain", new ByteArrayInputStream("q=x".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void streamsBodies(@TempDir Path dir) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(WebClientTest.LARGE.length, this.client.get(this.uri("/large"), out));
+		assertArrayEquals(WebClientTest.LARGE, out.toByteArray());
+
+		Path file = dir.resolve("large.bin");
+		assertEquals(file, this.client.get(this.uri("/large"), file));
+		assertArrayEquals(WebClientTest.LARGE, Files.readAllBytes(file));
+	}
+
+	@Test
+	public void failsOnStatusAndTimeout(@TempDir Path dir) {
+		HttpStatusException e = assertThrows(HttpStatusException.class, () -> this.client.get(this.uri("/missing")));
+		assertEquals(404, e.getStatusCode());
+
+		// nothing is written for an error response
+		Path file = dir.resolve("missing.bin");
+		assertThrows(HttpStatusException.class, () -> this.client.get(this.uri("/missing"), file));
+		assertFalse(Files.exists(file));
+
+		assertThrows(HttpTimeoutException.class, () -> this.client.get(this.uri("/slow"), OutputStream.nullOutputStream()));
+	}
+
+	@Test
+	public void runsCallsConcurrently() throws IOException {
+		List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+
+		for (int i = 0; i < 32; i++) {
+			futures.add(this.client.getAsync(this.uri("/hello")));
+		}
+
+		for (CompletableFuture<byte[]> future : futures) {
+			assertEquals("hello", new String(WebClient.await(future), StandardCharsets.UTF_8));
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+	}
+
+	private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		this.peers.add(exchange.getRemoteAddress());
+		exchange.getRequestBody().readAllBytes();
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncDispatcherTest {
+	@Test
+	public void losesNothingWhileShuttingDown() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 20_000;
+
+		for (int round = 0; round < 20; round++) {
+			AtomicLong written = new AtomicLong();
+			AsyncDispatcher dispatcher = new AsyncDispatcher(64, OverflowPolicy.BLOCK, Logger.INFO, event -> written.incrementAndGet(), new LoggerMetrics());
+			dispatcher.start();
+
+			CountDownLatch started = new CountDownLatch(producers);
+			List<Thread> threads = new ArrayList<>();
+
+			for (int p = 0; p < producers; p++) {
+				Thread thread = new Thread(() -> {
+					started.countDown();
+
+					for (int i = 0; i < perProducer; i++) {
+						LogEvent event = new LogEvent(Logger.INFO, i, 0L, null, "line", null);
+
+						// what Logger does once the dispatcher refuses an event
+						if (!dispatcher.publish(event)) {
+							written.incrementAndGet();
+						}
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+
+			started.await();
+			dispatcher.shutdown();
+
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			assertEquals(producers * perProducer, written.get(), "round " + round);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryLogDecoderTest {
+	@TempDir
+	Path dir;
+
+	private static void write(ByteArrayOutputStream out, LogEvent event) {
+		BinaryLogEncoder encoder = BinaryLogEncoder.get();
+		ByteBuffer record = encoder.encode(event);
+		out.write(record.array(), record.arrayOffset(), record.limit());
+		encoder.published();
+	}
+
+	private static void append(Appender appender, LogEvent event) throws IOException {
+		BinaryLogEncoder encoder = BinaryLogEncoder.get();
+		ByteBuffer record = encoder.encode(event);
+		appender.append(record.array(), record.arrayOffset(), record.limit());
+		encoder.published();
+	}
+
+	@Test
+	public void decodesToTheTextLayout() throws IOException {
+		BinaryLogEncoder.newGeneration();
+
+		LogEvent[] events = {
+				new LogEvent(Logger.INFO, 3L, 1_700_000_000_123_456_789L, null, "copied {} bytes to {} ({})",
+						new Object[] { 4096L, "out.bin", true }),
+				new LogEvent(Logger.WARN, 4L, 1_700_000_001_000_000_000L, null, "ratio {} for {} ünïcødé {}",
+						new Object[] { 0.5d, 'x', null }),
+				new LogEvent(Logger.INFO, 3L, 1_700_000_002_000_000_000L, null, "copied {} bytes to {} ({})",
+						new Object[] { 12, new StringBuilder("sb"), false }) };
+
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		StringBuilder expected = new StringBuilder();
+
+		for (LogEvent event : events) {
+			write(binary, event);
+			expected.append(LogFormatter.get().formatToString(event)).append(System.lineSeparator());
+		}
+
+		StringBuilder decoded = new StringBuilder();
+		long count = new BinaryLogDecoder().decode(new ByteArrayInputStream(binary.toByteArray()), decoded);
+
+		assertEquals(events.length, count);
+		assertEquals(expected.toString(), decoded.toString());
+	}
+
+	@Test
+	public void redefinesForANewGeneration() throws IOException {
+		LogEvent event = new LogEvent(Logger.ERROR, 1L, 0L, null, "generation test {}", new Object[] { 1 });
+		BinaryLogEncoder.newGeneration();
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		write(first, event);
+		write(first, event);
+
+		BinaryLogEncoder.newGeneration();
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		write(second, event);
+
+		StringBuilder decoded = new StringBuilder();
+		new BinaryLogDecoder().decode(new ByteArrayInputStream(second.toByteArray()), decoded);
+
+		assertTrue(decoded.toString().endsWith(":generation test 1" + System.lineSeparator()));
+		assertTrue(first.size() < 2 * second.size());
+	}
+
+	@Test
+	public void reopensAMappedLogEndingInZero() throws IOException {
+		BinaryLogEncoder.newGeneration();
+		File file = this.dir.resolve("binary.log").toFile();
+
+		// an int 0 followed by null leaves zero bytes at the end of the payload
+		LogEvent first = new LogEvent(Logger.INFO, 1L, 0L, null, "zero {} {}", new Object[] { 0, null });
+		LogEvent second = new LogEvent(Logger.INFO, 1L, 1L, null, "zero {} {}", new Object[] { 0L, null });
+
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file)) {
+			append(appender, first);
+		}
+
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file)) {
+			append(appender, second);
+		}
+
+		StringBuilder decoded = new StringBuilder();
+		long count = new BinaryLogDecoder().decode(file, decoded);
+
+		assertEquals(2, count);
+		assertEquals(LogFormatter.get().formatToString(first) + System.lineSeparator() + LogFormatter.get().formatToString(second)
+				+ System.lineSeparator(), decoded.toString());
+	}
+
+	@Test
+	public void redefinesPastTheCap() throws IOException {
+		BinaryLogEncoder.newGeneration();
+
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		int count = BinaryLogEncoder.MAX_DEFINITIONS + 2;
+
+		for (int i = 0; i < count; i++) {
+			write(binary, new LogEvent(Logger.INFO, 1L, i, null, "distinct format " + i + " {}", new Object[] { i }));
+		}
+
+		// the first format was dropped with the full table and is defined again
+		write(binary, new LogEvent(Logger.INFO, 1L, count, null, "distinct format 0 {}", new Object[] { -1 }));
+
+		StringBuilder decoded = new StringBuilder();
+		assertEquals(count + 1, new BinaryLogDecoder().decode(new ByteArrayInputStream(binary.toByteArray()), decoded));
+
+		String[] lines = decoded.toString().split(System.lineSeparator());
+		assertTrue(lines[count - 1].endsWith(":distinct format " + (count - 1) + " " + (count - 1)));
+		assertTrue(lines[count].endsWith(":distinct format 0 -1"));
+	}
+}
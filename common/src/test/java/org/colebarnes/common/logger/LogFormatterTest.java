@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+public class LogFormatterTest {
+	private static String substitute(String msgFmt, Object... args) {
+		StringBuilder sb = new StringBuilder();
+		LogFormatter.substitute(sb, msgFmt, args);
+		return sb.toString();
+	}
+
+	@Test
+	public void substitutesPlaceholders() {
+		assertEquals("a=1, b=two", substitute("a={}, b={}", 1, "two"));
+		assertEquals("no args {}", substitute("no args {}"));
+		assertEquals("extra", substitute("extra", 1, 2));
+		assertEquals("literal {} then 3", substitute("literal \\{} then {}", 3));
+		assertEquals("null", substitute("{}", (Object) null));
+		assertEquals("trailing {", substitute("trailing {"));
+	}
+
+	@Test
+	public void encodesMultiByteCharacters() {
+		LogEvent event = new LogEvent(Logger.INFO, 7L, 0L, null, "café {}", new Object[] { "✓" });
+		ByteBuffer bytes = LogFormatter.get().format(event);
+		String text = new String(bytes.array(), 0, bytes.limit(), java.nio.charset.StandardCharsets.UTF_8);
+
+		assertTrue(text.startsWith("[7]["));
+		assertTrue(text.contains("[INF]:café ✓"));
+	}
+
+	@Test
+	public void steadyStateFormattingDoesNotAllocate() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		LogEvent event = new LogEvent(Logger.INFO, 1L, 1_000_000_000L, null, "copied {} bytes to {}",
+				new Object[] { Long.valueOf(4096), "out.bin" });
+		LogFormatter formatter = LogFormatter.get();
+
+		for (int i = 0; i < 10_000; i++) {
+			formatter.format(event);
+		}
+
+		final int events = 10_000;
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < events; i++) {
+			formatter.format(event);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		assertTrue(allocated / events < 8, "allocated " + allocated + " bytes for " + events + " events");
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LogHandleTest {
+	@AfterEach
+	public void reset() {
+		Logger.clearLogLevel("org.colebarnes.test");
+		Logger.clearLogLevel("org.colebarnes.test.zip");
+		Logger.setLogLevel(Logger.WARN);
+	}
+
+	@Test
+	public void resolvesMostSpecificLevel() {
+		LogHandle crypto = Logger.getHandle("org.colebarnes.test.crypto.Hasher");
+		LogHandle zip = Logger.getHandle("org.colebarnes.test.zip.ZipReader$ZipFileReader");
+		LogHandle other = Logger.getHandle("org.colebarnes.other.Thing");
+
+		Logger.configureLevels("root=ERROR, org.colebarnes.test=TRACE, org.colebarnes.test.zip=WARN");
+
+		assertEquals(Logger.TRACE, crypto.getLevel());
+		assertEquals(Logger.WARN, zip.getLevel());
+		assertEquals(Logger.ERROR, other.getLevel());
+		assertFalse(zip.isEnabled(Logger.INFO));
+		assertTrue(crypto.isEnabled(Logger.TRACE));
+	}
+
+	@Test
+	public void followsRuntimeChanges() {
+		LogHandle handle = Logger.getHandle("org.colebarnes.test.Runtime");
+		assertSame(handle, Logger.getHandle("org.colebarnes.test.Runtime"));
+		assertEquals(Logger.WARN, handle.getLevel());
+
+		Logger.setLogLevel("org.colebarnes.test", Logger.OFF);
+		assertFalse(handle.isEnabled(Logger.ERROR));
+
+		Logger.clearLogLevel("org.colebarnes.test");
+		Logger.setLogLevel(Logger.INFO);
+		assertEquals(Logger.INFO, handle.getLevel());
+	}
+
+	@Test
+	public void rejectsUnknownLevels() {
+		assertEquals(Logger.TRACE, Logger.parseLevel(" trace "));
+		assertThrows(IllegalArgumentException.class, () -> Logger.parseLevel("verbose"));
+		assertThrows(IllegalArgumentException.class, () -> Logger.configureLevels("org.colebarnes"));
+	}
+}
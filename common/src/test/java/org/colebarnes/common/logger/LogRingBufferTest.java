@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class LogRingBufferTest {
+	private static LogEvent event(int n) {
+		return new LogEvent(Logger.INFO, n, 0L, null, "%d", new Object[] { n });
+	}
+
+	@Test
+	public void rejectsWhenFull() {
+		LogRingBuffer ring = new LogRingBuffer(4);
+
+		for (int i = 0; i < ring.capacity(); i++) {
+			assertTrue(ring.offer(event(i)));
+		}
+
+		assertFalse(ring.offer(event(99)));
+		assertEquals(0L, ring.poll().threadId);
+		assertTrue(ring.offer(event(99)));
+	}
+
+	@Test
+	public void refusesOffersOnceClosed() {
+		LogRingBuffer ring = new LogRingBuffer(4);
+		assertTrue(ring.offer(event(1)));
+
+		ring.close();
+		assertFalse(ring.offer(event(2)));
+		assertFalse(ring.isDrained());
+		assertEquals(1, ring.published());
+
+		assertEquals(1L, ring.poll().threadId);
+		assertTrue(ring.isDrained());
+	}
+
+	@Test
+	public void deliversEveryEventFromManyProducers() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 10_000;
+		LogRingBuffer ring = new LogRingBuffer(64);
+		List<Thread> threads = new ArrayList<>();
+
+		for (int p = 0; p < producers; p++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					LogEvent event = event(i);
+					while (!ring.offer(event)) {
+						Thread.yield();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		long sum = 0;
+		int received = 0;
+		while (received < producers * perProducer) {
+			LogEvent event = ring.poll();
+			if (event != null) {
+				sum += event.threadId;
+				received++;
+			} else {
+				Thread.yield();
+			}
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertNull(ring.poll());
+		assertEquals(producers * ((long) perProducer * (perProducer - 1) / 2), sum);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class LoggerMetricsTest {
+	@Test
+	public void histogramBucketsRoundTrip() {
+		for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1_000, 123_456_789L, Long.MAX_VALUE }) {
+			long lower = LatencyHistogram.valueOf(LatencyHistogram.indexOf(value));
+
+			assertTrue(lower <= value, "bucket for " + value);
+			assertTrue(value - lower <= Math.max(value / 32, 0), "precision for " + value);
+		}
+	}
+
+	@Test
+	public void histogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int i = 1; i <= 1_000; i++) {
+			histogram.record(i * 1_000L);
+		}
+
+		assertEquals(1_000, histogram.count());
+		assertEquals(1_000_000L, histogram.max());
+		assertTrue(Math.abs(histogram.percentile(50) - 500_000L) <= 500_000L / 32);
+		assertTrue(Math.abs(histogram.percentile(99) - 990_000L) <= 990_000L / 32);
+	}
+
+	@Test
+	public void countsSuppressedEventsAndIsRegistered() throws Exception {
+		LogHandle handle = Logger.getHandle("org.colebarnes.test.metrics.Quiet");
+		Logger.setLogLevel("org.colebarnes.test.metrics", Logger.ERROR);
+
+		try {
+			long before = Logger.getMetrics().getSuppressedEvents().get("TRACE");
+			handle.trace("not written {}", 1);
+			handle.entering();
+
+			assertEquals(before + 2, Logger.getMetrics().getSuppressedEvents().get("TRACE"));
+		} finally {
+			Logger.clearLogLevel("org.colebarnes.test.metrics");
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertTrue(server.isRegistered(new ObjectName(LoggerMetrics.OBJECT_NAME)));
+		assertTrue(server.getAttribute(new ObjectName(LoggerMetrics.OBJECT_NAME), "BytesWritten") instanceof Long);
+	}
+}
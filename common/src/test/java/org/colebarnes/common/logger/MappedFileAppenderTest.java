@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.colebarnes.common.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedFileAppenderTest {
+	@TempDir
+	Path dir;
+
+	private static void append(Appender appender, String line) throws IOException {
+		byte[] bytes = StringUtils.toBytes(line + "\n");
+		appender.append(bytes, 0, bytes.length);
+	}
+
+	@Test
+	public void spansRegionsAndTrimsOnClose() throws IOException {
+		File file = this.dir.resolve("app.log").toFile();
+		StringBuilder expected = new StringBuilder();
+
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file, 64, 1024 * 1024, MappedFileAppender.NO_TIME_ROLL, false)) {
+			for (int i = 0; i < 100; i++) {
+				String line = "entry number " + i;
+				append(appender, line);
+				expected.append(line).append('\n');
+			}
+		}
+
+		assertEquals(expected.toString(), Files.readString(file.toPath()));
+
+		// reopening appends after the existing content
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file)) {
+			append(appender, "after reopen");
+		}
+
+		assertEquals(expected + "after reopen\n", Files.readString(file.toPath()));
+	}
+
+	@Test
+	public void rollsBySizeAndCompresses() throws IOException {
+		File file = this.dir.resolve("roll.log").toFile();
+
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file, 4096, 100, MappedFileAppender.NO_TIME_ROLL, true)) {
+			for (int i = 0; i < 10; i++) {
+				append(appender, String.format("%039d", i));
+			}
+		}
+
+		File[] segments = this.dir.toFile().listFiles((d, name) -> name.startsWith("roll.log.") && name.endsWith(".gz"));
+		assertEquals(4, segments.length);
+
+		long total = Files.size(file.toPath());
+		for (File segment : segments) {
+			try (InputStream in = new GZIPInputStream(new FileInputStream(segment))) {
+				byte[] content = in.readAllBytes();
+				assertTrue(content.length <= 100);
+				total += content.length;
+			}
+		}
+
+		assertEquals(10 * 40, total);
+	}
+
+	@Test
+	public void rollsByTimeOnlyWhenNotEmpty() throws IOException, InterruptedException {
+		File file = this.dir.resolve("timed.log").toFile();
+
+		try (MappedFileAppender appender = MappedFileAppender.getInstance(file, 4096, 1024 * 1024, 1, false)) {
+			Thread.sleep(10);
+			append(appender, "first");
+			Thread.sleep(10);
+			append(appender, "second");
+		}
+
+		File[] segments = this.dir.toFile().listFiles((d, name) -> name.startsWith("timed.log."));
+		assertEquals(1, segments.length);
+		assertEquals("first\n", Files.readString(segments[0].toPath()));
+		assertEquals("second\n", Files.readString(file.toPath()));
+	}
+}
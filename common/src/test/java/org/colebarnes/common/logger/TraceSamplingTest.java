@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.colebarnes.common.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TraceSamplingTest {
+	private static final LogHandle LOGGER = Logger.getHandle(TraceSamplingTest.class);
+
+	private final List<String> lines = new ArrayList<>();
+	private final Appender capture = new Appender() {
+		@Override
+		public void append(byte[] bytes, int offset, int length) {
+			TraceSamplingTest.this.lines.add(new String(bytes, offset, length, StringUtils.defaultCharset()).trim());
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	@BeforeEach
+	public void setup() {
+		Logger.addAppender(this.capture);
+		Logger.setLogLevel(TraceSamplingTest.class.getName(), Logger.TRACE);
+	}
+
+	@AfterEach
+	public void reset() {
+		Logger.removeAppender(this.capture);
+		Logger.clearLogLevel(TraceSamplingTest.class.getName());
+		Logger.setTraceSampling(TraceSampling.all());
+	}
+
+	private void traced() {
+		TraceSamplingTest.LOGGER.entering();
+		TraceSamplingTest.LOGGER.exiting(42);
+	}
+
+	private void abandoned() {
+		TraceSamplingTest.LOGGER.entering();
+	}
+
+	@Test
+	public void samplesOneInNPerCallSite() {
+		Logger.setTraceSampling(TraceSampling.oneIn(3));
+
+		for (int i = 0; i < 9; i++) {
+			this.traced();
+		}
+
+		assertEquals(6, this.lines.size());
+		assertTrue(this.lines.get(0).endsWith(">>> ENTERING org.colebarnes.common.logger.TraceSamplingTest.traced"));
+		assertTrue(this.lines.get(1).matches(".*<<< EXITING org\\.colebarnes\\.common\\.logger\\.TraceSamplingTest\\.traced: 42 \\(\\d+ ns\\)"));
+	}
+
+	@Test
+	public void limitsPerSecond() {
+		Logger.setTraceSampling(TraceSampling.perSecond(5));
+
+		for (int i = 0; i < 1_000; i++) {
+			this.traced();
+		}
+
+		// a burst of 5, plus whatever refilled while the loop ran
+		assertTrue(this.lines.size() >= 10 && this.lines.size() < 100, "lines: " + this.lines.size());
+	}
+
+	@Test
+	public void pairsAcrossAbandonedFrames() {
+		TraceSamplingTest.LOGGER.entering();
+		this.abandoned();
+		TraceSamplingTest.LOGGER.exiting();
+
+		assertEquals(3, this.lines.size());
+		assertTrue(this.lines.get(2).matches(".*<<< EXITING .*pairsAcrossAbandonedFrames \\(\\d+ ns\\)"));
+	}
+}
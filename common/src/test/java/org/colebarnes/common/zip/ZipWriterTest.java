@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.common.zip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.colebarnes.common.ByteUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ZipWriterTest {
+	@Test
+	public void fingerprintsEntriesWhileWriting() throws IOException, NoSuchAlgorithmException {
+		byte[] bytes = ByteUtils.random(50_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CRC32 crc = new CRC32();
+		MessageDigest sha = MessageDigest.getInstance("SHA-256");
+
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			assertEquals(bytes.length, writer.write("a.bin", new ByteArrayInputStream(bytes), crc));
+			assertEquals(bytes.length, writer.write("b.bin", new ByteArrayInputStream(bytes), sha));
+		}
+
+		// the observer sees the same bytes the zip records for the entry
+		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry entry = in.getNextEntry();
+			assertArrayEquals(bytes, in.readAllBytes());
+			assertEquals(entry.getCrc(), crc.getValue());
+		}
+
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(bytes), sha.digest());
+
+		try (ZipReader reader = ZipReader.getInstance(out.toByteArray())) {
+			assertArrayEquals(bytes, reader.readBytes("b.bin"));
+		}
+	}
+
+	@Test
+	public void numbersRoundTrip() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			assertEquals(Long.BYTES, writer.write("long", Long.MIN_VALUE + 12345));
+			assertEquals(Integer.BYTES, writer.write("int", -42));
+			assertEquals(3, writer.write("bytes", new byte[] { 1, 2, 3 }));
+		}
+
+		try (ZipReader reader = ZipReader.getInstance(out.toByteArray())) {
+			assertEquals(Long.MIN_VALUE + 12345, reader.readLong("long"));
+			assertEquals(-42, reader.readInt("int"));
+			assertArrayEquals(new byte[] { 1, 2, 3 }, reader.readBytes("bytes"));
+		}
+	}
+
+	@Test
+	public void readsStreamedArchives() throws IOException {
+		byte[] large = ByteUtils.random(ZipReader.STREAM_ENTRY_BUFFER * 3 + 7);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			writer.write("name", "small");
+			writer.write("int", 7);
+			writer.write("large", large);
+			writer.write("after", "tail");
+		}
+
+		try (ZipReader reader = ZipReader.getInstance(new ByteArrayInputStream(out.toByteArray()))) {
+			// small entries can be read in any order and more than once
+			assertEquals(7, reader.readInt("int"));
+			assertEquals("small", reader.readString("name"));
+			assertEquals(7, reader.readInt("int"));
+			assertArrayEquals(large, reader.readBytes("large"));
+			assertEquals("tail", reader.readString("after"));
+			assertThrows(IOException.class, () -> reader.readBytes("large"));
+		}
+
+		// a large entry cannot be skipped over
+		try (ZipReader reader = ZipReader.getInstance(new ByteArrayInputStream(out.toByteArray()))) {
+			assertThrows(IOException.class, () -> reader.readString("after"));
+		}
+	}
+
+	@Test
+	public void capsWhatStreamedArchivesRetain() throws IOException {
+		byte[] entry = new byte[ZipReader.STREAM_ENTRY_BUFFER];
+		int count = ZipReader.STREAM_RETAINED_BYTES / entry.length + 1;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			for (int i = 0; i < count; i++) {
+				writer.write("entry" + i, entry);
+			}
+
+			writer.write("last", "tail");
+		}
+
+		try (ZipReader reader = ZipReader.getInstance(new ByteArrayInputStream(out.toByteArray()))) {
+			assertArrayEquals(entry, reader.readBytes("entry1"));
+			assertThrows(IOException.class, () -> reader.readString("last"));
+		}
+	}
+
+	@Test
+	public void distrustsDeclaredEntrySizes(@TempDir Path dir) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ZipWriter writer = ZipWriter.getInstance(out)) {
+			writer.write("bytes", new byte[] { 1, 2, 3 });
+		}
+
+		// claim close to 2 GB in the central directory entry
+		byte[] archive = out.toByteArray();
+		ByteBuffer zip = ByteBuffer.wrap(archive).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = archive.length - 4; i >= 0; i--) {
+			if (zip.getInt(i) == 0x02014b50) {
+				zip.putInt(i + 24, Integer.MAX_VALUE - 16);
+				break;
+			}
+		}
+
+		File file = Files.write(dir.resolve("crafted.zip"), archive).toFile();
+
+		try (ZipReader reader = ZipReader.getInstance(file)) {
+			assertArrayEquals(new byte[] { 1, 2, 3 }, reader.readBytes("bytes"));
+		}
+	}
+}
@@ -21,19 +21,22 @@
 
 package org.colebarnes.crypto;
 
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 public class App {
+	private static final LogHandle LOGGER = Logger.getHandle(App.class);
+
 	public static void main(String[] args) {
 		Logger.setLogLevel(Logger.INFO);
-		Logger.entering();
+		App.LOGGER.entering();
 
 		try {
-			Logger.info("crypto");
+			App.LOGGER.info("crypto");
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 
-		Logger.exiting();
+		App.LOGGER.exiting();
 	}
 }
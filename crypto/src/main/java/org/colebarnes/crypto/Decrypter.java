@@ -26,25 +26,34 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 
+import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.GCMParameterSpec;
 
+import org.colebarnes.common.BufferPool;
 import org.colebarnes.common.StreamUtils;
 import org.colebarnes.common.zip.ZipReader;
 import org.colebarnes.crypto.common.CryptoException;
 import org.colebarnes.crypto.common.CryptoUtils;
 
 public class Decrypter implements Closeable {
+	private interface Decryption {
+		void decryptTo(OutputStream out) throws CryptoException;
+	}
+
 	public static Decrypter getInstance(byte[] cipherText) throws IOException {
 		ZipReader reader = ZipReader.getInstance(cipherText);
 		return new Decrypter(reader);
@@ -55,6 +64,17 @@ public class Decrypter implements Closeable {
 		return new Decrypter(reader);
 	}
 
+	/**
+	 * Decrypts the envelope as it is read from cipherText, which is closed
+	 * with the Decrypter. PKI envelopes written before the wrapped key moved
+	 * ahead of the cipher text only decrypt this way while the cipher text
+	 * fits in ZipReader.STREAM_ENTRY_BUFFER.
+	 */
+	public static Decrypter getInstance(InputStream cipherText) {
+		ZipReader reader = ZipReader.getInstance(cipherText);
+		return new Decrypter(reader);
+	}
+
 	private ZipReader reader;
 
 	private Decrypter(ZipReader reader) {
@@ -63,7 +83,7 @@ public class Decrypter implements Closeable {
 
 	public byte[] decryptToBytes(char[] password) throws CryptoException {
 		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			this.decrypt(baos, password);
+			this.decryptToStream(baos, password);
 			return baos.toByteArray();
 		} catch (IOException e) {
 			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
@@ -71,14 +91,15 @@ public class Decrypter implements Closeable {
 	}
 
 	public void decryptToFile(File plainText, char[] password) throws CryptoException {
-		try (FileOutputStream fos = new FileOutputStream(plainText)) {
-			this.decrypt(fos, password);
-		} catch (IOException e) {
-			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
-		}
+		Decrypter.decryptToFile(plainText, out -> this.decryptToStream(out, password));
 	}
 
-	private void decrypt(OutputStream out, char[] password) throws CryptoException {
+	/**
+	 * Writes the plain text to out as it is decrypted. out is flushed but not
+	 * closed. The GCM tag is only checked at the end, so what reaches out is
+	 * unauthenticated until this returns normally; discard it on an exception.
+	 */
+	public void decryptToStream(OutputStream out, char[] password) throws CryptoException {
 		try {
 			String version = this.reader.readString(Encrypter.PARAM_VERSION);
 			String method = this.reader.readString(Encrypter.PARAM_METHOD);
@@ -100,7 +121,7 @@ public class Decrypter implements Closeable {
 
 	public byte[] decryptToBytes(PrivateKey privateKey) throws CryptoException {
 		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			this.decrypt(baos, privateKey);
+			this.decryptToStream(baos, privateKey);
 			return baos.toByteArray();
 		} catch (IOException e) {
 			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
@@ -108,14 +129,15 @@ public class Decrypter implements Closeable {
 	}
 
 	public void decryptToFile(File plainText, PrivateKey privateKey) throws CryptoException {
-		try (FileOutputStream fos = new FileOutputStream(plainText)) {
-			this.decrypt(fos, privateKey);
-		} catch (IOException e) {
-			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
-		}
+		Decrypter.decryptToFile(plainText, out -> this.decryptToStream(out, privateKey));
 	}
 
-	private void decrypt(OutputStream out, PrivateKey privateKey) throws CryptoException {
+	/**
+	 * Writes the plain text to out as it is decrypted. out is flushed but not
+	 * closed. The GCM tag is only checked at the end, so what reaches out is
+	 * unauthenticated until this returns normally; discard it on an exception.
+	 */
+	public void decryptToStream(OutputStream out, PrivateKey privateKey) throws CryptoException {
 		try {
 			String version = this.reader.readString(Encrypter.PARAM_VERSION);
 			String method = this.reader.readString(Encrypter.PARAM_METHOD);
@@ -131,6 +153,31 @@ public class Decrypter implements Closeable {
 		}
 	}
 
+	// a file that failed the tag check is removed rather than left half written
+	private static void decryptToFile(File plainText, Decryption decryption) throws CryptoException {
+		FileOutputStream fos;
+
+		try {
+			fos = new FileOutputStream(plainText);
+		} catch (IOException e) {
+			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
+		}
+
+		boolean decrypted = false;
+
+		try (fos) {
+			decryption.decryptTo(fos);
+			decrypted = true;
+		} catch (IOException e) {
+			decrypted = false;
+			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
+		} finally {
+			if (!decrypted) {
+				plainText.delete();
+			}
+		}
+	}
+
 	private String getCipherTransform() throws IOException {
 		String alg = this.reader.readString(Encrypter.PARAM_CIPHER_ALGORITHM);
 		String mode = this.reader.readString(Encrypter.PARAM_CIPHER_MODE);
@@ -147,15 +194,48 @@ public class Decrypter implements Closeable {
 			Cipher cipher = Cipher.getInstance(this.getCipherTransform(), CryptoUtils.getBouncyCastleProvider());
 			cipher.init(Cipher.DECRYPT_MODE, key, params);
 
-			try (CipherInputStream cin = new CipherInputStream(this.reader.getInputStream(Encrypter.PARAM_CIPHER_TEXT), cipher)) {
-				StreamUtils.copy(cin, out);
+			// whole chunks go to the cipher: CipherInputStream over the short,
+			// unaligned reads a ZipInputStream returns broke the GCM tag check
+			byte[] buffer = BufferPool.getHeapInstance().acquireArray(StreamUtils.DEFAULT_PIPELINE_BUFFER_LEN);
+			byte[] output = BufferPool.getHeapInstance().acquireArray(cipher.getOutputSize(buffer.length));
+
+			try (InputStream in = this.reader.getInputStream(Encrypter.PARAM_CIPHER_TEXT)) {
+				int n;
+
+				while ((n = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+					output = Decrypter.ensure(output, cipher.getOutputSize(n));
+					out.write(output, 0, cipher.update(buffer, 0, n, output));
+				}
+
+				output = Decrypter.ensure(output, cipher.getOutputSize(0));
+				out.write(output, 0, cipher.doFinal(output, 0));
 				out.flush();
+			} finally {
+				Decrypter.release(output);
+				Decrypter.release(buffer);
 			}
-		} catch (IOException | InvalidKeyException | InvalidAlgorithmParameterException | NoSuchAlgorithmException | NoSuchPaddingException e) {
+		} catch (IOException | InvalidKeyException | InvalidAlgorithmParameterException | NoSuchAlgorithmException | NoSuchPaddingException | ShortBufferException
+				| IllegalBlockSizeException | BadPaddingException e) {
 			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error decrypting data.", e);
 		}
 	}
 
+	// the cipher holds back the tag, so a chunk can come out a little longer
+	private static byte[] ensure(byte[] output, int size) {
+		if (output.length >= size) {
+			return output;
+		}
+
+		Decrypter.release(output);
+		return BufferPool.getHeapInstance().acquireArray(size);
+	}
+
+	// pooled arrays outlive this call, so no plain text goes back with them
+	private static void release(byte[] array) {
+		Arrays.fill(array, (byte) 0);
+		BufferPool.getHeapInstance().release(array);
+	}
+
 	@Override
 	public void close() throws IOException {
 		this.reader.close();
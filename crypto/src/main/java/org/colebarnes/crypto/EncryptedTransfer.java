@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.colebarnes.common.BoundedPipe;
+import org.colebarnes.common.http.WebClient;
+import org.colebarnes.crypto.common.CryptoException;
+
+/**
+ * Ships Encrypter envelopes over HTTP without a temp file or a whole copy in
+ * memory. upload() runs the Encrypter on a virtual thread into a BoundedPipe
+ * that feeds a chunked request body. download() hands the response body
+ * straight to a streamed Decrypter. Only the pipe's capacity sits between
+ * the two stages.
+ */
+public final class EncryptedTransfer {
+	public static final String CONTENT_TYPE = "application/octet-stream";
+
+	public static EncryptedTransfer getInstance() {
+		return EncryptedTransfer.getInstance(WebClient.getInstance());
+	}
+
+	public static EncryptedTransfer getInstance(WebClient client) {
+		if (client == null) {
+			throw new NullPointerException("'client' is null.");
+		}
+
+		return new EncryptedTransfer(client);
+	}
+
+	// the envelope writing stage of an upload
+	private interface Envelope {
+		void write(OutputStream out) throws CryptoException;
+	}
+
+	private final WebClient client;
+
+	private EncryptedTransfer(WebClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Encrypts plainText for password while posting it to uri and returns the
+	 * response body. plainText is not closed.
+	 */
+	public byte[] upload(URI uri, InputStream plainText, Encrypter encrypter, char[] password) throws CryptoException, IOException {
+		EncryptedTransfer.check(plainText, encrypter);
+		return this.upload(uri, out -> encrypter.encrypt(plainText, out, password));
+	}
+
+	/**
+	 * Encrypts plainText for recipient while posting it to uri and returns the
+	 * response body. plainText is not closed.
+	 */
+	public byte[] upload(URI uri, InputStream plainText, Encrypter encrypter, X509Certificate recipient) throws CryptoException, IOException {
+		EncryptedTransfer.check(plainText, encrypter);
+		return this.upload(uri, out -> encrypter.encrypt(plainText, out, recipient));
+	}
+
+	/**
+	 * Decrypts the envelope at uri into plainText as it downloads. plainText
+	 * is not closed. Nothing written to it is authenticated until this returns
+	 * normally, see Decrypter.decryptToStream.
+	 */
+	public void download(URI uri, OutputStream plainText, char[] password) throws CryptoException, IOException {
+		try (Decrypter decrypter = Decrypter.getInstance(this.client.open(uri))) {
+			decrypter.decryptToStream(plainText, password);
+		}
+	}
+
+	/**
+	 * Decrypts the envelope at uri into plainText as it downloads. plainText
+	 * is not closed. Nothing written to it is authenticated until this returns
+	 * normally, see Decrypter.decryptToStream.
+	 */
+	public void download(URI uri, OutputStream plainText, PrivateKey privateKey) throws CryptoException, IOException {
+		try (Decrypter decrypter = Decrypter.getInstance(this.client.open(uri))) {
+			decrypter.decryptToStream(plainText, privateKey);
+		}
+	}
+
+	private byte[] upload(URI uri, Envelope envelope) throws CryptoException, IOException {
+		BoundedPipe pipe = BoundedPipe.getInstance();
+		AtomicReference<Exception> failure = new AtomicReference<>();
+
+		// the Encrypter closes its output even when it fails, which would end
+		// the body cleanly, so only a finished envelope closes the pipe
+		OutputStream unclosed = new FilterOutputStream(pipe.getOutputStream()) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.out.write(b, off, len);
+			}
+
+			@Override
+			public void close() {
+				// closed below
+			}
+		};
+
+		Thread encrypter = Thread.ofVirtual().name("encrypted-upload").start(() -> {
+			try {
+				envelope.write(unclosed);
+				pipe.getOutputStream().close();
+			} catch (CryptoException | IOException | RuntimeException e) {
+				failure.set(e);
+				pipe.fail(e);
+			}
+		});
+
+		try {
+			return this.client.post(uri, EncryptedTransfer.CONTENT_TYPE, pipe.getInputStream());
+		} catch (IOException e) {
+			// an envelope that failed first is what broke the upload; looked
+			// at before closing the pipe, which fails the encrypter in turn
+			Exception cause = failure.get();
+
+			if (cause instanceof CryptoException ce) {
+				throw ce;
+			}
+
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+
+			throw e;
+		} finally {
+			// unblocks the encrypter if the request failed first
+			pipe.getInputStream().close();
+			EncryptedTransfer.joinUninterruptibly(encrypter);
+		}
+	}
+
+	private static void check(InputStream plainText, Encrypter encrypter) {
+		if (plainText == null) {
+			throw new NullPointerException("'plainText' is null.");
+		}
+
+		if (encrypter == null) {
+			throw new NullPointerException("'encrypter' is null.");
+		}
+	}
+
+	private static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
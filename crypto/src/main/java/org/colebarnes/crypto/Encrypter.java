@@ -43,7 +43,6 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 
-import org.colebarnes.common.ByteUtils;
 import org.colebarnes.common.zip.ZipWriter;
 import org.colebarnes.crypto.common.CryptoException;
 import org.colebarnes.crypto.common.CryptoUtils;
@@ -74,6 +73,9 @@ public class Encrypter implements Closeable {
 	public static final String METHOD_PBE = Encrypter.PARAM_PBE_PREFIX;
 	public static final String METHOD_PKI = Encrypter.PARAM_PKI_PREFIX;
 
+	// zip headers, parameters and wrapped key around the cipher text
+	private static final int ENVELOPE_OVERHEAD = 4096;
+
 	public static Encrypter getSerpentInstance() {
 		return new Encrypter("serpent", 256);
 	}
@@ -119,7 +121,7 @@ public class Encrypter implements Closeable {
 	}
 
 	public byte[] encrypt(byte[] plainText, char[] password) throws CryptoException {
-		try (ByteArrayInputStream bais = new ByteArrayInputStream(plainText); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+		try (ByteArrayInputStream bais = new ByteArrayInputStream(plainText); ByteArrayOutputStream baos = new ByteArrayOutputStream(plainText.length + Encrypter.ENVELOPE_OVERHEAD)) {
 			this.encrypt(bais, baos, password);
 			return baos.toByteArray();
 		} catch (IOException e) {
@@ -137,12 +139,16 @@ public class Encrypter implements Closeable {
 		}
 	}
 
-	private void encrypt(InputStream in, OutputStream out, char[] password) throws CryptoException {
+	/**
+	 * Writes the envelope for in to out as it goes, so neither needs to fit in
+	 * memory. out is closed when done.
+	 */
+	public void encrypt(InputStream in, OutputStream out, char[] password) throws CryptoException {
 		try (ZipWriter writer = ZipWriter.getInstance(out)) {
 			writer.write(Encrypter.PARAM_METHOD, Encrypter.METHOD_PBE);
 
 			// TODO: do not hard code pbe salt length
-			byte[] salt = ByteUtils.random(64);
+			byte[] salt = CryptoUtils.random(64);
 			writer.write(Encrypter.PARAM_PBE_SALT, salt);
 
 			// TODO: do not hard code pbe iteration count
@@ -159,7 +165,7 @@ public class Encrypter implements Closeable {
 	}
 
 	public byte[] encrypt(byte[] plainText, X509Certificate recipient) throws CryptoException {
-		try (ByteArrayInputStream bais = new ByteArrayInputStream(plainText); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+		try (ByteArrayInputStream bais = new ByteArrayInputStream(plainText); ByteArrayOutputStream baos = new ByteArrayOutputStream(plainText.length + Encrypter.ENVELOPE_OVERHEAD)) {
 			this.encrypt(bais, baos, recipient);
 			return baos.toByteArray();
 		} catch (IOException e) {
@@ -177,15 +183,21 @@ public class Encrypter implements Closeable {
 		}
 	}
 
-	private void encrypt(InputStream in, OutputStream out, X509Certificate recipient) throws CryptoException {
+	/**
+	 * Writes the envelope for in to out as it goes, so neither needs to fit in
+	 * memory. out is closed when done.
+	 */
+	public void encrypt(InputStream in, OutputStream out, X509Certificate recipient) throws CryptoException {
 		try (ZipWriter writer = ZipWriter.getInstance(out)) {
 			writer.write(Encrypter.PARAM_METHOD, Encrypter.METHOD_PKI);
 			SecretKey key = CryptoUtils.randomSecretKey(this.getCipherAlgorithm(), this.getKeySize());
-			encrypt(in, writer, key);
 
+			// the key goes ahead of the cipher text so a streamed reader has it
+			// by the time the cipher text arrives
 			byte[] wrappedKey = CryptoUtils.wrapKey(key, recipient.getPublicKey());
 			writer.write(Encrypter.PARAM_PKI_WRAPPED_KEY, wrappedKey);
 			writer.write(Encrypter.PARAM_PKI_RECIPIENT, recipient.getEncoded());
+			encrypt(in, writer, key);
 		} catch (IOException | CertificateEncodingException e) {
 			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error encrypting data.", e);
 		}
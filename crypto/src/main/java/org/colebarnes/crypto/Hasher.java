@@ -26,7 +26,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestInputStream;
+import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Provider.Service;
@@ -94,12 +94,39 @@ public class Hasher {
 		return ByteUtils.toHex(digest);
 	}
 
-	private byte[] hash(InputStream in) throws NoSuchAlgorithmException, IOException {
-		MessageDigest digest = MessageDigest.getInstance(this.algotithm, CryptoUtils.getBouncyCastleProvider());
+	/**
+	 * Copies in to out and returns the hash of everything that went through,
+	 * without a second read. Neither stream is closed.
+	 */
+	public String hash(InputStream in, OutputStream out) throws CryptoException {
+		if (out == null) {
+			throw new NullPointerException("'out' is null.");
+		}
 
-		try (DigestInputStream din = new DigestInputStream(in, digest)) {
-			StreamUtils.copy(din, null);
+		try {
+			MessageDigest digest = this.newMessageDigest();
+			StreamUtils.copy(in, out, digest);
+			return ByteUtils.toHex(digest.digest());
+		} catch (IOException e) {
+			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Error hashing data.", e);
 		}
+	}
+
+	/**
+	 * A fresh digest for this algorithm, to hand to StreamUtils.copy or
+	 * ZipWriter.write when the data is being moved anyway.
+	 */
+	public MessageDigest newMessageDigest() throws CryptoException {
+		try {
+			return MessageDigest.getInstance(this.algotithm, CryptoUtils.getBouncyCastleProvider());
+		} catch (NoSuchAlgorithmException e) {
+			throw new CryptoException(CryptoException.ERROR_UNKNOWN, "Unsupported hash algorithm.", e);
+		}
+	}
+
+	private byte[] hash(InputStream in) throws NoSuchAlgorithmException, IOException {
+		MessageDigest digest = MessageDigest.getInstance(this.algotithm, CryptoUtils.getBouncyCastleProvider());
+		StreamUtils.copy(in, null, digest);
 
 		return digest.digest();
 	}
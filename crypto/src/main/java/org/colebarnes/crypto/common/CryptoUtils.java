@@ -58,19 +58,21 @@ import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.crypto.fips.FipsDRBG;
 import org.bouncycastle.crypto.util.BasicEntropySourceProvider;
 import org.bouncycastle.jcajce.provider.BouncyCastleFipsProvider;
-import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 public class CryptoUtils {
+	private static final LogHandle LOGGER = Logger.getHandle(CryptoUtils.class);
+
 	public static final String PROP_FIPS = "org.colebarnes.fips";
 	public static final String PROP_FIPS_DFLT = "false";
 
 	public static synchronized Provider getBouncyCastleProvider() {
-		Logger.trace("getting bcfips provider");
+		CryptoUtils.LOGGER.trace("getting bcfips provider");
 		Provider provider = Security.getProvider("BCFIPS");
 
 		if (provider == null) {
-			Logger.info("creating and registering new BCFIPS provider ...");
+			CryptoUtils.LOGGER.info("creating and registering new BCFIPS provider ...");
 
 			CryptoServicesRegistrar.setSecureRandom(FipsDRBG.SHA512_HMAC.fromEntropySource(new BasicEntropySourceProvider(new SecureRandom(), true)).build(null, true));
 
@@ -90,12 +92,11 @@ public class CryptoUtils {
 	}
 
 	public static byte[] random(int size) {
-		// FIXME: do not use insecure random like this!!!
-		return ByteUtils.random(size);
+		return RandomSource.getInstance().nextBytes(size);
 	}
 
 	public static void random(byte[] bytes) {
-		CryptoServicesRegistrar.getSecureRandom().nextBytes(bytes);
+		RandomSource.getInstance().nextBytes(bytes);
 	}
 
 	public static SecretKey randomSecretKey(String algorithm, int keySize) {
@@ -129,7 +130,7 @@ public class CryptoUtils {
 
 	public static void printProviderInfo(Provider provider, String typeFilter) {
 		if (provider != null) {
-			Logger.info("Provider: %s v%s", provider.getName(), provider.getVersionStr());
+			CryptoUtils.LOGGER.info("Provider: {} v{}", provider.getName(), provider.getVersionStr());
 
 			Map<String, List<String>> services = new HashMap<>();
 			for (Service service : provider.getServices()) {
@@ -150,11 +151,11 @@ public class CryptoUtils {
 			}
 
 			for (String type : services.keySet()) {
-				Logger.info("\t%s", type);
+				CryptoUtils.LOGGER.info("\t{}", type);
 				List<String> algorithms = services.get(type);
 
 				for (String algorithm : algorithms) {
-					Logger.info("\t\t%s", algorithm);
+					CryptoUtils.LOGGER.info("\t\t{}", algorithm);
 				}
 			}
 		}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.crypto.common;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.fips.FipsDRBG;
+import org.bouncycastle.crypto.fips.FipsSecureRandom;
+import org.bouncycastle.crypto.util.BasicEntropySourceProvider;
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.logger.LogHandle;
+import org.colebarnes.common.logger.Logger;
+
+/**
+ * Random bytes for salts, IVs and keys. Each platform thread gets its own
+ * HMAC-SHA512 DRBG, seeded from the CryptoServicesRegistrar source, so
+ * callers never contend on one generator. Virtual threads share a few locked
+ * stripes instead of seeding a generator each.
+ * 
+ * Small requests are served from a prefetch buffer that is refilled with one
+ * DRBG call, and every generator reseeds itself after RESEED_BYTES or
+ * PROP_RESEED_MILLIS, whichever comes first.
+ */
+public final class RandomSource {
+	private static final LogHandle LOGGER = Logger.getHandle(RandomSource.class);
+
+	/** bytes buffered per generator, 0 turns prefetching off */
+	public static final String PROP_PREFETCH = "org.colebarnes.random.prefetch";
+	public static final String PROP_PREFETCH_DFLT = "8192";
+
+	public static final String PROP_RESEED_MILLIS = "org.colebarnes.random.reseed.millis";
+	public static final String PROP_RESEED_MILLIS_DFLT = "600000";
+
+	public static final long RESEED_BYTES = 1L << 30;
+
+	private static final RandomSource INSTANCE = new RandomSource(Integer.parseInt(System.getProperty(RandomSource.PROP_PREFETCH, RandomSource.PROP_PREFETCH_DFLT)),
+			Long.parseLong(System.getProperty(RandomSource.PROP_RESEED_MILLIS, RandomSource.PROP_RESEED_MILLIS_DFLT)));
+
+	public static RandomSource getInstance() {
+		return RandomSource.INSTANCE;
+	}
+
+	static RandomSource getInstance(int prefetchLen, long reseedMillis) {
+		return new RandomSource(prefetchLen, reseedMillis);
+	}
+
+	private final int prefetchLen;
+	private final long reseedNanos;
+	private final ThreadLocal<Generator> generators;
+	private final AtomicReferenceArray<Generator> stripes;
+
+	private RandomSource(int prefetchLen, long reseedMillis) {
+		if (prefetchLen < 0) {
+			throw new IllegalArgumentException("'prefetchLen' is negative.");
+		}
+
+		if (reseedMillis <= 0) {
+			throw new IllegalArgumentException("'reseedMillis' must be positive.");
+		}
+
+		this.prefetchLen = prefetchLen;
+		this.reseedNanos = TimeUnit.MILLISECONDS.toNanos(reseedMillis);
+		this.generators = ThreadLocal.withInitial(this::newGenerator);
+		this.stripes = new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+	}
+
+	public byte[] nextBytes(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("'size' is negative.");
+		}
+
+		byte[] bytes = new byte[size];
+		this.nextBytes(bytes);
+		return bytes;
+	}
+
+	public void nextBytes(byte[] bytes) {
+		if (bytes == null) {
+			throw new NullPointerException("'bytes' is null.");
+		}
+
+		if (!Thread.currentThread().isVirtual()) {
+			this.generators.get().nextBytes(bytes);
+			return;
+		}
+
+		int index = (int) (Thread.currentThread().threadId() % this.stripes.length());
+
+		Generator generator = this.stripes.get(index);
+		if (generator == null) {
+			// racing threads may both seed one, the first to land is kept
+			this.stripes.compareAndSet(index, null, this.newGenerator());
+			generator = this.stripes.get(index);
+		}
+
+		synchronized (generator) {
+			generator.nextBytes(bytes);
+		}
+	}
+
+	private Generator newGenerator() {
+		// registers the provider, which is what puts the FIPS DRBG in the registrar
+		CryptoUtils.getBouncyCastleProvider();
+		SecureRandom source = CryptoServicesRegistrar.getSecureRandom();
+
+		byte[] nonce = new byte[16];
+		source.nextBytes(nonce);
+
+		FipsSecureRandom drbg = FipsDRBG.SHA512_HMAC.fromEntropySource(new BasicEntropySourceProvider(source, true))
+				.setPersonalizationString(ByteUtils.fromLong(Thread.currentThread().threadId())).build(nonce, false);
+
+		RandomSource.LOGGER.trace("seeded {} for thread {}", drbg.getAlgorithm(), Thread.currentThread().threadId());
+		return new Generator(drbg, this.prefetchLen, this.reseedNanos);
+	}
+
+	private static final class Generator {
+		private final FipsSecureRandom drbg;
+		private final long reseedNanos;
+		private final byte[] buffer;
+		private int position;
+		private long generated;
+		private long seededAt;
+
+		private Generator(FipsSecureRandom drbg, int prefetchLen, long reseedNanos) {
+			this.drbg = drbg;
+			this.reseedNanos = reseedNanos;
+			this.buffer = new byte[prefetchLen];
+			this.position = prefetchLen;
+			this.seededAt = System.nanoTime();
+		}
+
+		private void nextBytes(byte[] bytes) {
+			if (bytes.length > this.buffer.length / 4) {
+				this.generate(bytes);
+				return;
+			}
+
+			if (this.buffer.length - this.position < bytes.length) {
+				this.generate(this.buffer);
+				this.position = 0;
+			}
+
+			System.arraycopy(this.buffer, this.position, bytes, 0, bytes.length);
+			// handed out bytes should not linger next to the ones still to come
+			Arrays.fill(this.buffer, this.position, this.position + bytes.length, (byte) 0);
+			this.position += bytes.length;
+		}
+
+		private void generate(byte[] bytes) {
+			long now = System.nanoTime();
+
+			if (this.generated >= RandomSource.RESEED_BYTES || now - this.seededAt >= this.reseedNanos) {
+				RandomSource.LOGGER.trace("reseeding after {} bytes", this.generated);
+				this.drbg.reseed();
+				this.generated = 0;
+				this.seededAt = now;
+			}
+
+			this.drbg.nextBytes(bytes);
+			this.generated += bytes.length;
+		}
+	}
+}
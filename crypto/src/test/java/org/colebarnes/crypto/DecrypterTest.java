@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.crypto.common.CryptoException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DecrypterTest {
+	private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+	// either side of a cipher block, and past one pipeline buffer
+	private static final int[] SIZES = { 511, 512, 64 * 1024 + 1 };
+
+	private static X509Certificate certificate;
+	private static PrivateKey privateKey;
+
+	// bc-fips has no certificate builder, so keytool makes a throw away one
+	@BeforeAll
+	public static void makeRecipient(@TempDir Path dir) throws IOException, GeneralSecurityException, InterruptedException {
+		File keyStoreFile = dir.resolve("recipient.p12").toFile();
+		File keytool = new File(new File(System.getProperty("java.home"), "bin"), "keytool");
+		Process process = new ProcessBuilder(keytool.getAbsolutePath(), "-genkeypair", "-alias", "test", "-keyalg", "RSA", "-keysize", "2048", "-dname",
+				"CN=test", "-validity", "1", "-storetype", "PKCS12", "-keystore", keyStoreFile.getAbsolutePath(), "-storepass", new String(DecrypterTest.PASSWORD))
+				.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		assertEquals(0, process.waitFor());
+
+		KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		try (InputStream in = new FileInputStream(keyStoreFile)) {
+			keyStore.load(in, DecrypterTest.PASSWORD);
+		}
+
+		DecrypterTest.certificate = (X509Certificate) keyStore.getCertificate("test");
+		DecrypterTest.privateKey = (PrivateKey) keyStore.getKey("test", DecrypterTest.PASSWORD);
+	}
+
+	@Test
+	public void roundTripsWithPasswords() throws CryptoException, IOException {
+		for (Encrypter encrypter : DecrypterTest.encrypters()) {
+			for (int size : DecrypterTest.SIZES) {
+				byte[] plainText = ByteUtils.random(size);
+				byte[] envelope = encrypter.encrypt(plainText, DecrypterTest.PASSWORD);
+
+				try (Decrypter decrypter = Decrypter.getInstance(envelope)) {
+					assertArrayEquals(plainText, decrypter.decryptToBytes(DecrypterTest.PASSWORD));
+				}
+
+				try (Decrypter decrypter = Decrypter.getInstance(new ByteArrayInputStream(envelope))) {
+					assertArrayEquals(plainText, decrypter.decryptToBytes(DecrypterTest.PASSWORD));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void roundTripsWithKeys() throws CryptoException, IOException {
+		for (Encrypter encrypter : DecrypterTest.encrypters()) {
+			for (int size : DecrypterTest.SIZES) {
+				byte[] plainText = ByteUtils.random(size);
+				byte[] envelope = encrypter.encrypt(plainText, DecrypterTest.certificate);
+
+				try (Decrypter decrypter = Decrypter.getInstance(envelope)) {
+					assertArrayEquals(plainText, decrypter.decryptToBytes(DecrypterTest.privateKey));
+				}
+
+				try (Decrypter decrypter = Decrypter.getInstance(new ByteArrayInputStream(envelope))) {
+					assertArrayEquals(plainText, decrypter.decryptToBytes(DecrypterTest.privateKey));
+				}
+			}
+		}
+	}
+
+	private static Encrypter[] encrypters() {
+		return new Encrypter[] { Encrypter.getAesInstance(), Encrypter.getSerpentInstance(), Encrypter.getTwofishInstance() };
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.colebarnes.common.ByteUtils;
+import org.colebarnes.common.http.WebClient;
+import org.colebarnes.crypto.common.CryptoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class EncryptedTransferTest {
+	private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+	private HttpServer server;
+	private WebClient client;
+	private final AtomicReference<byte[]> stored = new AtomicReference<>();
+	private final AtomicReference<String> transferEncoding = new AtomicReference<>();
+
+	@BeforeEach
+	public void start() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(Executors.newCachedThreadPool());
+
+		this.server.createContext("/envelope", exchange -> {
+			if (exchange.getRequestMethod().equals("POST")) {
+				this.transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+				byte[] body = exchange.getRequestBody().readAllBytes();
+				this.stored.set(body);
+				this.respond(exchange, 200, "stored".getBytes(StandardCharsets.UTF_8));
+			} else {
+				this.respond(exchange, 200, this.stored.get());
+			}
+		});
+
+		this.server.start();
+		this.client = WebClient.getInstance(Duration.ofSeconds(5), Duration.ofSeconds(30));
+	}
+
+	@AfterEach
+	public void stop() {
+		this.client.close();
+		this.server.stop(0);
+	}
+
+	@Test
+	public void roundTripsWithoutTempFiles() throws CryptoException, IOException {
+		EncryptedTransfer transfer = EncryptedTransfer.getInstance(this.client);
+
+		for (Encrypter encrypter : new Encrypter[] { Encrypter.getAesInstance(), Encrypter.getTwofishInstance() }) {
+			byte[] plainText = ByteUtils.random(3 * 1024 * 1024 + 13);
+
+			byte[] response = transfer.upload(this.uri(), new ByteArrayInputStream(plainText), encrypter, EncryptedTransferTest.PASSWORD);
+			assertEquals("stored", new String(response, StandardCharsets.UTF_8));
+			assertEquals("chunked", this.transferEncoding.get());
+
+			// the uploaded envelope is an ordinary one
+			try (Decrypter decrypter = Decrypter.getInstance(this.stored.get())) {
+				assertArrayEquals(plainText, decrypter.decryptToBytes(EncryptedTransferTest.PASSWORD));
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			transfer.download(this.uri(), out, EncryptedTransferTest.PASSWORD);
+			assertArrayEquals(plainText, out.toByteArray());
+		}
+
+		assertThrows(CryptoException.class, () -> transfer.download(this.uri(), OutputStream.nullOutputStream(), "wrong".toCharArray()));
+	}
+
+	@Test
+	public void failedEncryptionFailsTheUpload() {
+		EncryptedTransfer transfer = EncryptedTransfer.getInstance(this.client);
+
+		// fails part way through, after some of the body has gone out
+		InputStream broken = new InputStream() {
+			private int remaining = 1024 * 1024;
+
+			@Override
+			public int read() throws IOException {
+				if (this.remaining-- == 0) {
+					throw new IOException("disk went away");
+				}
+
+				return 42;
+			}
+		};
+
+		assertThrows(CryptoException.class, () -> transfer.upload(this.uri(), broken, Encrypter.getAesInstance(), EncryptedTransferTest.PASSWORD));
+		assertNull(this.stored.get());
+	}
+
+	@Test
+	public void failedDecryptionLeavesNoFile(@TempDir Path dir) throws CryptoException, IOException {
+		byte[] envelope = Encrypter.getAesInstance().encrypt(ByteUtils.random(256 * 1024), EncryptedTransferTest.PASSWORD);
+		File plainText = dir.resolve("plain.bin").toFile();
+
+		try (Decrypter decrypter = Decrypter.getInstance(envelope)) {
+			assertThrows(CryptoException.class, () -> decrypter.decryptToFile(plainText, "wrong".toCharArray()));
+		}
+
+		assertFalse(plainText.exists());
+	}
+
+	private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private URI uri() {
+		return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + "/envelope");
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2025 cole@colebarnes.org, https://colebarnes.org
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR  COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.colebarnes.crypto.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.colebarnes.common.ByteUtils;
+import org.junit.jupiter.api.Test;
+
+public class RandomSourceTest {
+	@Test
+	public void neverRepeats() {
+		RandomSource source = RandomSource.getInstance(256, 60_000);
+		Set<String> seen = new HashSet<>();
+
+		// mixes prefetched and direct requests, across several refills
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = source.nextBytes(i % 2 == 0 ? 16 : 100);
+			assertEquals(i % 2 == 0 ? 16 : 100, bytes.length);
+			assertFalse(Arrays.equals(new byte[bytes.length], bytes));
+			assertTrue(seen.add(ByteUtils.toHex(bytes)));
+		}
+	}
+
+	@Test
+	public void worksWithoutPrefetchAndAcrossReseeds() throws InterruptedException {
+		RandomSource source = RandomSource.getInstance(0, 1);
+
+		byte[] first = source.nextBytes(32);
+		Thread.sleep(5);
+		assertFalse(Arrays.equals(first, source.nextBytes(32)));
+		assertEquals(0, source.nextBytes(0).length);
+		assertThrows(IllegalArgumentException.class, () -> source.nextBytes(-1));
+	}
+
+	@Test
+	public void threadsGetDifferentBytes() throws InterruptedException {
+		RandomSource source = RandomSource.getInstance(1024, 60_000);
+		Set<String> seen = new HashSet<>();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			Thread.Builder builder = i % 2 == 0 ? Thread.ofPlatform() : Thread.ofVirtual();
+			threads.add(builder.start(() -> {
+				for (int j = 0; j < 200; j++) {
+					String hex = ByteUtils.toHex(source.nextBytes(16));
+					synchronized (seen) {
+						seen.add(hex);
+					}
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(8 * 200, seen.size());
+	}
+}
@@ -23,26 +23,29 @@ package org.colebarnes.gui;
 
 import java.io.File;
 
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 import org.colebarnes.gui.common.GuiUtils;
 
 public class App {
+  private static final LogHandle LOGGER = Logger.getHandle(App.class);
+
   public static void main(String[] args) {
     Logger.setLogLevel(Logger.TRACE);
-    Logger.entering();
+    App.LOGGER.entering();
 
     GuiUtils.installDarculaLaf();
     File[] files = GuiUtils.promptForFiles(true);
 
     if (files == null) {
-      Logger.info("no file selected ...");
+      App.LOGGER.info("no file selected ...");
     } else {
-      Logger.info("Selected files:");
+      App.LOGGER.info("Selected files:");
       for (File file : files) {
-        Logger.info("%s", file.getAbsolutePath());
+        App.LOGGER.info("{}", file.getAbsolutePath());
       }
     }
 
-    Logger.exiting();
+    App.LOGGER.exiting();
   }
 }
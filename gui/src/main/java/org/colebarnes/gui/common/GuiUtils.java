@@ -27,6 +27,7 @@ import java.io.File;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
+import org.colebarnes.common.logger.LogHandle;
 import org.colebarnes.common.logger.Logger;
 
 import com.github.weisj.darklaf.LafManager;
@@ -34,6 +35,8 @@ import com.github.weisj.darklaf.theme.DarculaTheme;
 import com.github.weisj.darklaf.theme.Theme;
 
 public class GuiUtils {
+  private static final LogHandle LOGGER = Logger.getHandle(GuiUtils.class);
+
   public static final String DEFAULT_TITLE = ".:: org.colebarnes ::.";
 
   public static void installDarculaLaf() {
@@ -50,7 +53,7 @@ public class GuiUtils {
   }
 
   public static void info(Component parent, String message) {
-    Logger.info("GUI message: %s", message);
+    GuiUtils.LOGGER.info("GUI message: {}", message);
     GuiUtils.prompt(parent, message, JOptionPane.INFORMATION_MESSAGE);
   }
 
@@ -59,7 +62,7 @@ public class GuiUtils {
   }
 
   public static void message(Component parent, String message) {
-    Logger.info("GUI message: %s", message);
+    GuiUtils.LOGGER.info("GUI message: {}", message);
     GuiUtils.prompt(parent, message, JOptionPane.PLAIN_MESSAGE);
   }
 
@@ -68,7 +71,7 @@ public class GuiUtils {
   }
 
   public static void warn(Component parent, String message) {
-    Logger.warn("GUI message: %s", message);
+    GuiUtils.LOGGER.warn("GUI message: {}", message);
     GuiUtils.prompt(parent, message, JOptionPane.WARNING_MESSAGE);
   }
 
@@ -77,7 +80,7 @@ public class GuiUtils {
   }
 
   public static void error(Component parent, String message) {
-    Logger.error("GUI message: %s", message);
+    GuiUtils.LOGGER.error("GUI message: {}", message);
     GuiUtils.prompt(parent, message, JOptionPane.ERROR_MESSAGE);
   }
 